@@ -0,0 +1,230 @@
+package com.crewmeister.cmcodingchallenge.analytics.controller;
+
+import com.crewmeister.cmcodingchallenge.analytics.dto.CorrelationMatrixDTO;
+import com.crewmeister.cmcodingchallenge.analytics.dto.IndicatorsDTO;
+import com.crewmeister.cmcodingchallenge.analytics.dto.RateBucketDTO;
+import com.crewmeister.cmcodingchallenge.analytics.dto.RateRangeDTO;
+import com.crewmeister.cmcodingchallenge.analytics.dto.StatsWindowDTO;
+import com.crewmeister.cmcodingchallenge.analytics.dto.WindowStatsDTO;
+import com.crewmeister.cmcodingchallenge.analytics.service.AggregationInterval;
+import com.crewmeister.cmcodingchallenge.analytics.service.CorrelationMatrix;
+import com.crewmeister.cmcodingchallenge.analytics.service.CorrelationMeasure;
+import com.crewmeister.cmcodingchallenge.analytics.service.CorrelationService;
+import com.crewmeister.cmcodingchallenge.analytics.service.RateAggregationService;
+import com.crewmeister.cmcodingchallenge.analytics.service.RangeStatsService;
+import com.crewmeister.cmcodingchallenge.analytics.service.RateBucket;
+import com.crewmeister.cmcodingchallenge.analytics.service.RateIndicators;
+import com.crewmeister.cmcodingchallenge.analytics.service.RollingIndicatorService;
+import com.crewmeister.cmcodingchallenge.analytics.service.WindowStats;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class RateAnalyticsController {
+    private final RateAggregationService aggregationService;
+    private final RangeStatsService statsService;
+    private final RollingIndicatorService indicatorService;
+    private final CorrelationService correlationService;
+    private final int maxWindows;
+    private final int maxCorrelationWindow;
+
+    public RateAnalyticsController(RateAggregationService aggregationService,
+                                   RangeStatsService statsService,
+                                   RollingIndicatorService indicatorService,
+                                   CorrelationService correlationService,
+                                   @Value("${analytics.stats-max-windows:100000}") int maxWindows,
+                                   @Value("${analytics.correlation-max-window:10000}") int maxCorrelationWindow) {
+        this.aggregationService = aggregationService;
+        this.statsService = statsService;
+        this.indicatorService = indicatorService;
+        this.correlationService = correlationService;
+        this.maxWindows = maxWindows;
+        this.maxCorrelationWindow = maxCorrelationWindow;
+    }
+
+    /** History of one currency over a date range, optionally aggregated per week, month or year */
+    @Operation(
+            summary = "Get the rates of one currency over a date range, aggregated server-side",
+            description = "Returns one bucket per day (the raw rates), ISO week, month or year between from and to "
+            + "(inclusive; default: all available rates). Each bucket holds the open, high, low, close and mean "
+            + "rate and the number of observations. Periods without rates are left out."
+    )
+    @GetMapping("/rates/{currency}")
+    public Object getRateRange(
+            @PathVariable String currency,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "month") String interval
+    ) {
+        String code = currency.toUpperCase();
+        LocalDate fromDate = from != null ? LocalDate.parse(from) : null;
+        LocalDate toDate = to != null ? LocalDate.parse(to) : null;
+        AggregationInterval bucketSize;
+        try {
+            bucketSize = AggregationInterval.parse(interval);
+        } catch (IllegalArgumentException e) {
+            return Map.of("message", "Invalid interval " + interval + ", expected day, week, month or year");
+        }
+
+        Optional<List<RateBucket>> buckets = aggregationService.aggregate(code, fromDate, toDate, bucketSize);
+        if (buckets.isEmpty()) {
+            return Map.of("message", "No exchange rates found for " + code);
+        }
+
+        List<RateBucketDTO> content = new ArrayList<>(buckets.get().size());
+        for (RateBucket bucket : buckets.get()) {
+            content.add(new RateBucketDTO(period(bucket.getFirstDate(), bucketSize),
+                    bucket.getFirstDate().toString(), bucket.getLastDate().toString(), bucket.getCount(),
+                    bucket.getOpen(), bucket.getHigh(), bucket.getLow(), bucket.getClose(), bucket.getMean()));
+        }
+        return new RateRangeDTO(code, "EUR", bucketSize.name().toLowerCase(Locale.ROOT),
+                fromDate != null ? fromDate.toString() : null, toDate != null ? toDate.toString() : null, content);
+    }
+
+    /** Moving averages and volatility of one currency as of a date */
+    @Operation(
+            summary = "Get the moving averages, daily return and volatility of a currency on a date",
+            description = "Returns the 20, 50 and 200-rate simple moving averages, the daily return and the "
+            + "volatility (sample standard deviation of the last 20 daily log returns) on the given date, or on "
+            + "the latest earlier date with a rate (default: the latest rate). Indicators whose window is not "
+            + "filled yet are left out."
+    )
+    @GetMapping("/indicators/{currency}")
+    public Object getIndicators(
+            @PathVariable String currency,
+            @RequestParam(required = false) String date
+    ) {
+        String code = currency.toUpperCase();
+        LocalDate asOf = date != null ? LocalDate.parse(date) : null;
+        Optional<RateIndicators> found = indicatorService.indicatorsAsOf(code, asOf);
+        if (found.isEmpty()) {
+            return Map.of("message", "No indicators found for " + code + (date != null ? " on or before " + date : ""));
+        }
+
+        RateIndicators indicators = found.get();
+        return new IndicatorsDTO(code, indicators.getDate().toString(), indicators.getRate(),
+                indicators.getDailyReturn(), indicators.getSma20(), indicators.getSma50(), indicators.getSma200(),
+                indicators.getVolatility20());
+    }
+
+    /** How currencies move together over a window of daily returns */
+    @Operation(
+            summary = "Get the correlation or covariance matrix of the daily log returns of all currencies",
+            description = "Uses the last window + 1 dates with rates up to end (default: the latest rate) and every "
+            + "currency quoted on all of them. Rows and columns follow the currencies list. Matrices are cached "
+            + "per measure, window and end date until the next import."
+    )
+    @GetMapping("/correlation")
+    public Object getCorrelationMatrix(
+            @RequestParam(defaultValue = "250") int window,
+            @RequestParam(required = false) String end,
+            @RequestParam(defaultValue = "correlation") String measure
+    ) {
+        CorrelationMeasure correlationMeasure;
+        try {
+            correlationMeasure = CorrelationMeasure.parse(measure);
+        } catch (IllegalArgumentException e) {
+            return Map.of("message", "Invalid measure " + measure + ", expected correlation or covariance");
+        }
+        if (window < 2 || window > maxCorrelationWindow) {
+            return Map.of("message", "Invalid window " + window + ", expected 2 to " + maxCorrelationWindow + " daily returns");
+        }
+
+        LocalDate endDate = end != null ? LocalDate.parse(end) : null;
+        Optional<CorrelationMatrix> found = correlationService.matrix(endDate, window, correlationMeasure);
+        if (found.isEmpty()) {
+            return Map.of("message", "Not enough exchange rates for a window of " + window + " daily returns"
+                    + (end != null ? " up to " + end : ""));
+        }
+
+        CorrelationMatrix matrix = found.get();
+        return new CorrelationMatrixDTO(matrix.getMeasure().name().toLowerCase(Locale.ROOT), matrix.getReturns(),
+                matrix.getFirstDate().toString(), matrix.getLastDate().toString(), matrix.getCurrencies(),
+                matrix.getValues());
+    }
+
+    /** Window statistics in bulk, e.g. the 30-day average rate before each invoice date of a year */
+    @Operation(
+            summary = "Get the mean, min, max and standard deviation of many rate windows in one request",
+            description = "Accepts a JSON array of {\"currency\": \"USD\", \"from\": \"2025-01-01\", \"to\": \"2025-01-31\"} "
+            + "or {\"currency\": \"USD\", \"to\": \"2025-10-10\", \"days\": 30} windows (both dates inclusive) and "
+            + "returns one result per window in request order. Each window is answered in constant time from "
+            + "precomputed prefix sums and min/max tables. Windows that cannot be evaluated carry an error message."
+    )
+    @PostMapping("/stats")
+    public Object getWindowStats(@RequestBody List<StatsWindowDTO> windows) {
+        if (windows.size() > maxWindows) {
+            return Map.of("message", "Too many windows: " + windows.size() + ", at most " + maxWindows + " per request");
+        }
+
+        List<WindowStatsDTO> results = new ArrayList<>(windows.size());
+        for (StatsWindowDTO window : windows) results.add(windowStats(window));
+        return results;
+    }
+
+    private WindowStatsDTO windowStats(StatsWindowDTO window) {
+        String code = window.getCurrency() != null ? window.getCurrency().toUpperCase(Locale.ROOT) : null;
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            toDate = window.getTo() != null ? LocalDate.parse(window.getTo()) : null;
+            fromDate = window.getFrom() != null ? LocalDate.parse(window.getFrom()) : null;
+        } catch (DateTimeParseException e) {
+            return new WindowStatsDTO(code, window.getFrom(), window.getTo(), "Invalid date: " + e.getParsedString());
+        }
+        if (code == null) {
+            return new WindowStatsDTO(null, window.getFrom(), window.getTo(), "Missing currency");
+        }
+        if (window.getDays() != null) {
+            if (window.getDays() <= 0 || toDate == null || fromDate != null) {
+                return new WindowStatsDTO(code, window.getFrom(), window.getTo(),
+                        "days needs a positive number of days and a to date, without from");
+            }
+            fromDate = toDate.minusDays(window.getDays() - 1);
+        }
+
+        String from = fromDate != null ? fromDate.toString() : null;
+        String to = toDate != null ? toDate.toString() : null;
+        Optional<WindowStats> found = statsService.stats(code, fromDate, toDate);
+        if (found.isEmpty()) {
+            return new WindowStatsDTO(code, from, to, "No exchange rates found for " + code);
+        }
+        WindowStats stats = found.get();
+        if (stats.isEmpty()) {
+            return new WindowStatsDTO(code, from, to, 0, null, null, null, null);
+        }
+        return new WindowStatsDTO(code, from, to, stats.getCount(), stats.getMean(), stats.getMin(), stats.getMax(),
+                stats.getStdDev());
+    }
+
+    /** Label of the period a bucket covers: 2024-03-15, 2024-W11, 2024-03 or 2024 */
+    private static String period(LocalDate date, AggregationInterval interval) {
+        switch (interval) {
+            case WEEK:
+                return String.format("%d-W%02d", date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case MONTH:
+                return date.toString().substring(0, 7);
+            case YEAR:
+                return String.valueOf(date.getYear());
+            default:
+                return date.toString();
+        }
+    }
+}
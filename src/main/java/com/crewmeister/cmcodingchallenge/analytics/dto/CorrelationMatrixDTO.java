@@ -0,0 +1,49 @@
+package com.crewmeister.cmcodingchallenge.analytics.dto;
+
+import java.util.List;
+
+public class CorrelationMatrixDTO {
+    private String measure;
+    private int window;
+    private String from;
+    private String to;
+    private List<String> currencies;
+    private double[][] matrix;
+
+    public CorrelationMatrixDTO(String measure, int window, String from, String to, List<String> currencies,
+                                double[][] matrix) {
+        this.measure = measure;
+        this.window = window;
+        this.from = from;
+        this.to = to;
+        this.currencies = currencies;
+        this.matrix = matrix;
+    }
+
+    public String getMeasure() {
+        return measure;
+    }
+
+    /** Number of daily returns per currency. */
+    public int getWindow() {
+        return window;
+    }
+
+    /** Date of the first rate; the first return is the change from this date to the next. */
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    /** Row and column order of the matrix. */
+    public List<String> getCurrencies() {
+        return currencies;
+    }
+
+    public double[][] getMatrix() {
+        return matrix;
+    }
+}
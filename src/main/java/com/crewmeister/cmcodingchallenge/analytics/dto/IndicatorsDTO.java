@@ -0,0 +1,62 @@
+package com.crewmeister.cmcodingchallenge.analytics.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IndicatorsDTO {
+    private String currency;
+    private String date;
+    private BigDecimal rate;
+    private BigDecimal dailyReturn;
+    private BigDecimal sma20;
+    private BigDecimal sma50;
+    private BigDecimal sma200;
+    private BigDecimal volatility20;
+
+    public IndicatorsDTO(String currency, String date, BigDecimal rate, BigDecimal dailyReturn, BigDecimal sma20,
+                         BigDecimal sma50, BigDecimal sma200, BigDecimal volatility20) {
+        this.currency = currency;
+        this.date = date;
+        this.rate = rate;
+        this.dailyReturn = dailyReturn;
+        this.sma20 = sma20;
+        this.sma50 = sma50;
+        this.sma200 = sma200;
+        this.volatility20 = volatility20;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    /** Date of the rate the indicators belong to; may be earlier than the requested date. */
+    public String getDate() {
+        return date;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public BigDecimal getDailyReturn() {
+        return dailyReturn;
+    }
+
+    public BigDecimal getSma20() {
+        return sma20;
+    }
+
+    public BigDecimal getSma50() {
+        return sma50;
+    }
+
+    public BigDecimal getSma200() {
+        return sma200;
+    }
+
+    public BigDecimal getVolatility20() {
+        return volatility20;
+    }
+}
@@ -0,0 +1,64 @@
+package com.crewmeister.cmcodingchallenge.analytics.dto;
+
+import java.math.BigDecimal;
+
+public class RateBucketDTO {
+    private String period;
+    private String firstDate;
+    private String lastDate;
+    private int count;
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private BigDecimal mean;
+
+    public RateBucketDTO(String period, String firstDate, String lastDate, int count, BigDecimal open,
+                         BigDecimal high, BigDecimal low, BigDecimal close, BigDecimal mean) {
+        this.period = period;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+        this.count = count;
+        this.open = open;
+        this.high = high;
+        this.low = low;
+        this.close = close;
+        this.mean = mean;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public String getFirstDate() {
+        return firstDate;
+    }
+
+    public String getLastDate() {
+        return lastDate;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public BigDecimal getOpen() {
+        return open;
+    }
+
+    public BigDecimal getHigh() {
+        return high;
+    }
+
+    public BigDecimal getLow() {
+        return low;
+    }
+
+    public BigDecimal getClose() {
+        return close;
+    }
+
+    public BigDecimal getMean() {
+        return mean;
+    }
+}
@@ -0,0 +1,46 @@
+package com.crewmeister.cmcodingchallenge.analytics.dto;
+
+import java.util.List;
+
+public class RateRangeDTO {
+    private String currency;
+    private String baseCurrency;
+    private String interval;
+    private String from;
+    private String to;
+    private List<RateBucketDTO> buckets;
+
+    public RateRangeDTO(String currency, String baseCurrency, String interval, String from, String to,
+                        List<RateBucketDTO> buckets) {
+        this.currency = currency;
+        this.baseCurrency = baseCurrency;
+        this.interval = interval;
+        this.from = from;
+        this.to = to;
+        this.buckets = buckets;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public String getInterval() {
+        return interval;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public List<RateBucketDTO> getBuckets() {
+        return buckets;
+    }
+}
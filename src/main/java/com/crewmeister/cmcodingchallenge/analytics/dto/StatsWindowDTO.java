@@ -0,0 +1,54 @@
+package com.crewmeister.cmcodingchallenge.analytics.dto;
+
+/** One requested window: a currency and a date range, given as from/to or as the number of days up to to. */
+public class StatsWindowDTO {
+    private String currency;
+    private String from;
+    private String to;
+    private Integer days;
+
+    public StatsWindowDTO() {
+    }
+
+    public StatsWindowDTO(String currency, String from, String to, Integer days) {
+        this.currency = currency;
+        this.from = from;
+        this.to = to;
+        this.days = days;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    /** First date of the window; defaults to the first available rate. */
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    /** Last date of the window (inclusive); defaults to the latest available rate. */
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    /** Window length in calendar days ending at to, e.g. 30 for the 30 days before an invoice date. */
+    public Integer getDays() {
+        return days;
+    }
+
+    public void setDays(Integer days) {
+        this.days = days;
+    }
+}
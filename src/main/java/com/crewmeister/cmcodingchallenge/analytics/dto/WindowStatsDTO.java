@@ -0,0 +1,76 @@
+package com.crewmeister.cmcodingchallenge.analytics.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WindowStatsDTO {
+    private String currency;
+    private String from;
+    private String to;
+    private Integer count;
+    private BigDecimal mean;
+    private BigDecimal min;
+    private BigDecimal max;
+    private BigDecimal stdDev;
+    private String error;
+
+    public WindowStatsDTO(String currency, String from, String to, int count, BigDecimal mean,
+                          BigDecimal min, BigDecimal max, BigDecimal stdDev) {
+        this.currency = currency;
+        this.from = from;
+        this.to = to;
+        this.count = count;
+        this.mean = mean;
+        this.min = min;
+        this.max = max;
+        this.stdDev = stdDev;
+    }
+
+    public WindowStatsDTO(String currency, String from, String to, String error) {
+        this.currency = currency;
+        this.from = from;
+        this.to = to;
+        this.error = error;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    /** Number of rates in the window; 0 when there are none (the other statistics are omitted then). */
+    public Integer getCount() {
+        return count;
+    }
+
+    public BigDecimal getMean() {
+        return mean;
+    }
+
+    public BigDecimal getMin() {
+        return min;
+    }
+
+    public BigDecimal getMax() {
+        return max;
+    }
+
+    /** Population standard deviation of the rates. */
+    public BigDecimal getStdDev() {
+        return stdDev;
+    }
+
+    /** Why the window could not be evaluated; omitted otherwise. */
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,22 @@
+package com.crewmeister.cmcodingchallenge.analytics.service;
+
+import java.util.Locale;
+
+/** Bucket size of a range query. */
+public enum AggregationInterval {
+    /** One bucket per observation, i.e. the raw rows. */
+    DAY,
+    /** ISO weeks, starting on Monday. */
+    WEEK,
+    MONTH,
+    YEAR;
+
+    /**
+     * Parses "day", "week", "month" or "year" in any case.
+     *
+     * @throws IllegalArgumentException for any other value
+     */
+    public static AggregationInterval parse(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
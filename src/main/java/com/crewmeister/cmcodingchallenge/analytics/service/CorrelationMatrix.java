@@ -0,0 +1,58 @@
+package com.crewmeister.cmcodingchallenge.analytics.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Pairwise correlations or covariances of the daily log returns of several currencies over
+ * one window of aligned dates. Immutable once computed; {@link #getValues()} must not be changed.
+ */
+public final class CorrelationMatrix {
+    private final CorrelationMeasure measure;
+    private final LocalDate firstDate;
+    private final LocalDate lastDate;
+    private final int returns;
+    private final List<String> currencies;
+    private final double[][] values;
+
+    CorrelationMatrix(CorrelationMeasure measure, LocalDate firstDate, LocalDate lastDate, int returns,
+                      List<String> currencies, double[][] values) {
+        this.measure = measure;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+        this.returns = returns;
+        this.currencies = currencies;
+        this.values = values;
+    }
+
+    public CorrelationMeasure getMeasure() {
+        return measure;
+    }
+
+    /** Date of the first rate of the window; the first return is the change to the next date. */
+    public LocalDate getFirstDate() {
+        return firstDate;
+    }
+
+    public LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    /** Number of daily returns per currency. */
+    public int getReturns() {
+        return returns;
+    }
+
+    /** Row and column order of the matrix. */
+    public List<String> getCurrencies() {
+        return currencies;
+    }
+
+    public double[][] getValues() {
+        return values;
+    }
+
+    public double value(String from, String to) {
+        return values[currencies.indexOf(from)][currencies.indexOf(to)];
+    }
+}
@@ -0,0 +1,20 @@
+package com.crewmeister.cmcodingchallenge.analytics.service;
+
+import java.util.Locale;
+
+/** What a {@link CorrelationMatrix} holds for each pair of currencies. */
+public enum CorrelationMeasure {
+    /** Pearson correlation of the daily log returns, between -1 and 1. */
+    CORRELATION,
+    /** Sample covariance of the daily log returns. */
+    COVARIANCE;
+
+    /**
+     * Parses "correlation" or "covariance" in any case.
+     *
+     * @throws IllegalArgumentException for any other value
+     */
+    public static CorrelationMeasure parse(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
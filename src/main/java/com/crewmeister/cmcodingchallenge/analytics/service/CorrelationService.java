@@ -0,0 +1,208 @@
+package com.crewmeister.cmcodingchallenge.analytics.service;
+
+import com.crewmeister.cmcodingchallenge.config.CacheConfig;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.DateFallback;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Correlation and covariance matrices of the daily log returns of all currencies.
+ *
+ *  - Dates are aligned once: the window is the last {@code window + 1} dates with any rate up to
+ *    the end date, and only currencies with a rate on every one of them take part
+ *  - Each currency becomes one centred {@code double[]} column of log returns (scaled to unit
+ *    length for correlations), so every pair is a single dot product
+ *  - The N² / 2 dot products run as a {@link RecursiveAction} over row ranges in a dedicated
+ *    {@link ForkJoinPool} of analytics.correlation-parallelism threads
+ *  - Matrices are cached per (measure, window, end date) in the bounded correlations cache,
+ *    which is cleared by every import
+ */
+@Service
+public class CorrelationService {
+    /** Below this many multiply-adds a row range is not split any further. */
+    private static final int SEQUENTIAL_WORK = 1 << 15;
+
+    private final RateStore rateStore;
+    private final Cache cache;
+    private final ForkJoinPool pool;
+
+    public CorrelationService(RateStore rateStore,
+                              CacheManager cacheManager,
+                              @Value("${analytics.correlation-parallelism:0}") int parallelism) {
+        this.rateStore = rateStore;
+        this.cache = cacheManager.getCache(CacheConfig.CORRELATIONS);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Matrix of the given number of daily returns up to a date.
+     *
+     * @param end    last date of the window, or null for the latest rate; a date without rates
+     *               falls back to the latest earlier date with rates
+     * @param window number of daily returns, at least 2
+     * @return the matrix, or empty when there are not enough dates or no currency has rates on all of them
+     */
+    public Optional<CorrelationMatrix> matrix(LocalDate end, int window, CorrelationMeasure measure) {
+        Optional<LocalDate> lastDate = rateStore.resolveDate(null, end != null ? end : LocalDate.of(9999, 12, 31),
+                DateFallback.PREVIOUS);
+        if (lastDate.isEmpty()) return Optional.empty();
+
+        String key = measure + ":" + window + ":" + lastDate.get();
+        CorrelationMatrix cached = cache.get(key, CorrelationMatrix.class);
+        if (cached != null) return Optional.of(cached);
+
+        Optional<CorrelationMatrix> computed = compute((int) lastDate.get().toEpochDay(), window, measure, pool);
+        computed.ifPresent(matrix -> cache.put(key, matrix));
+        return computed;
+    }
+
+    /** Aligns the series and runs the pairwise kernel on the given pool, without caching. */
+    Optional<CorrelationMatrix> compute(int endDay, int window, CorrelationMeasure measure, ForkJoinPool pool) {
+        List<RateSeries> allSeries = new ArrayList<>(rateStore.allSeries());
+        allSeries.sort(Comparator.comparing(RateSeries::getCurrencyCode));
+        int[] dates = alignedDates(allSeries, endDay, window + 1);
+        if (dates.length < 3) return Optional.empty();
+
+        List<String> currencies = new ArrayList<>();
+        List<double[]> columns = new ArrayList<>();
+        for (RateSeries series : allSeries) {
+            double[] column = logReturns(series, dates);
+            if (column != null && centre(column, measure)) {
+                currencies.add(series.getCurrencyCode());
+                columns.add(column);
+            }
+        }
+        if (columns.isEmpty()) return Optional.empty();
+
+        double[][] values = new double[columns.size()][columns.size()];
+        double scale = measure == CorrelationMeasure.COVARIANCE ? 1.0 / (dates.length - 2) : 1.0;
+        pool.invoke(new PairwiseKernel(columns.toArray(new double[0][]), values, scale, 0, columns.size()));
+        if (measure == CorrelationMeasure.CORRELATION) {
+            // Unit-length columns give 1 up to rounding
+            for (int i = 0; i < values.length; i++) values[i][i] = 1;
+        }
+
+        return Optional.of(new CorrelationMatrix(measure, LocalDate.ofEpochDay(dates[0]),
+                LocalDate.ofEpochDay(dates[dates.length - 1]), dates.length - 1, List.copyOf(currencies), values));
+    }
+
+    /** The last {@code count} distinct dates with any rate on or before the end day, ascending. */
+    private static int[] alignedDates(List<RateSeries> allSeries, int endDay, int count) {
+        // The last count dates of all series together are among the last count dates of each series
+        int[] candidates = new int[0];
+        int size = 0;
+        for (RateSeries series : allSeries) {
+            int last = series.floorIndex(endDay);
+            int first = Math.max(0, last - count + 1);
+            if (last < 0) continue;
+            if (size + last - first + 1 > candidates.length) {
+                candidates = Arrays.copyOf(candidates, Math.max(candidates.length * 2, size + last - first + 1));
+            }
+            for (int i = first; i <= last; i++) candidates[size++] = series.epochDayAt(i);
+        }
+        int[] distinct = Arrays.stream(candidates, 0, size).sorted().distinct().toArray();
+        return Arrays.copyOfRange(distinct, Math.max(0, distinct.length - count), distinct.length);
+    }
+
+    /** Log returns between consecutive aligned dates, or null when a date has no rate. */
+    private static double[] logReturns(RateSeries series, int[] dates) {
+        int index = series.indexOf(dates[0]);
+        if (index < 0 || index + dates.length > series.size()) return null;
+
+        double[] column = new double[dates.length - 1];
+        double previous = series.scaledValueAt(index);
+        for (int i = 1; i < dates.length; i++) {
+            // Series dates are ascending and unique, so a complete run is the next dates.length entries
+            if (series.epochDayAt(index + i) != dates[i]) return null;
+            double value = series.scaledValueAt(index + i);
+            column[i - 1] = Math.log(value / previous);
+            previous = value;
+        }
+        return column;
+    }
+
+    /**
+     * Subtracts the mean, and for correlations scales the column to unit length.
+     * Returns false for a constant column, which has no correlation.
+     */
+    private static boolean centre(double[] column, CorrelationMeasure measure) {
+        double mean = 0;
+        for (double value : column) mean += value;
+        mean /= column.length;
+        double squares = 0;
+        for (int i = 0; i < column.length; i++) {
+            column[i] -= mean;
+            squares += column[i] * column[i];
+        }
+        if (measure == CorrelationMeasure.COVARIANCE) return true;
+        if (squares == 0) return false;
+
+        double norm = 1 / Math.sqrt(squares);
+        for (int i = 0; i < column.length; i++) column[i] *= norm;
+        return true;
+    }
+
+    /** Fills rows [from, to) of the upper triangle and mirrors them, splitting while the work is large. */
+    private static final class PairwiseKernel extends RecursiveAction {
+        private final double[][] columns;
+        private final double[][] values;
+        private final double scale;
+        private final int from;
+        private final int to;
+
+        PairwiseKernel(double[][] columns, double[][] values, double scale, int from, int to) {
+            this.columns = columns;
+            this.values = values;
+            this.scale = scale;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int n = columns.length;
+            long work = (long) (to - from) * (n - from) * columns[0].length;
+            if (to - from > 1 && work > SEQUENTIAL_WORK) {
+                // Later rows have fewer pairs, so split the row range at half of the pairs rather than half of the rows
+                int middle = splitPoint(n, from, to);
+                invokeAll(new PairwiseKernel(columns, values, scale, from, middle),
+                        new PairwiseKernel(columns, values, scale, middle, to));
+                return;
+            }
+            for (int row = from; row < to; row++) {
+                double[] a = columns[row];
+                for (int column = row; column < n; column++) {
+                    double[] b = columns[column];
+                    double dot = 0;
+                    for (int t = 0; t < a.length; t++) dot += a[t] * b[t];
+                    values[row][column] = dot * scale;
+                    values[column][row] = dot * scale;
+                }
+            }
+        }
+
+        private static int splitPoint(int n, int from, int to) {
+            long pairs = 0;
+            for (int row = from; row < to; row++) pairs += n - row;
+            long half = 0;
+            for (int row = from; row < to - 1; row++) {
+                half += n - row;
+                if (half * 2 >= pairs) return row + 1;
+            }
+            return to - 1;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.crewmeister.cmcodingchallenge.analytics.service;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Constant-time window statistics over one {@link RateSeries}.
+ *
+ *  - Prefix sums of the scaled rates give exact window sums (and means); prefix sums of the squared
+ *    deviations from the first rate give the variance without summing large squares
+ *  - A sparse table over blocks of {@value #BLOCK_SIZE} rates answers min/max: two overlapping
+ *    power-of-two block ranges, plus at most two partial blocks scanned at the window edges.
+ *    Blocks keep the table to a few MB for the full history of all currencies.
+ *  - Immutable: {@link #extend} copies the arrays and recomputes only the entries from the first
+ *    changed rate on, so appending a day of rates does not rebuild the whole index
+ */
+final class RangeStatsIndex {
+    static final int BLOCK_SIZE = 16;
+    private static final int BLOCK_SHIFT = 4;
+
+    private final RateSeries series;
+    private final long reference;
+    /** prefixSums[i] is the sum of the first i scaled rates. */
+    private final long[] prefixSums;
+    /** prefixSquares[i] is the sum of the first i squared deviations from the reference rate. */
+    private final double[] prefixSquares;
+    /** Level k holds the min (max) of 2^k blocks starting at each block. */
+    private final long[][] blockMin;
+    private final long[][] blockMax;
+    /** Rates read one by one by min/max lookups, for tests that check query cost without timing it. */
+    private final LongAdder ratesScanned = new LongAdder();
+
+    private RangeStatsIndex(RateSeries series, long reference, long[] prefixSums, double[] prefixSquares,
+                            long[][] blockMin, long[][] blockMax) {
+        this.series = series;
+        this.reference = reference;
+        this.prefixSums = prefixSums;
+        this.prefixSquares = prefixSquares;
+        this.blockMin = blockMin;
+        this.blockMax = blockMax;
+    }
+
+    static RangeStatsIndex of(RateSeries series) {
+        return extend(null, series, 0);
+    }
+
+    /**
+     * Index of a series that equals the previous one's up to {@code firstChanged}; entries before
+     * that are copied from {@code previous} (which may be null for a full build).
+     */
+    static RangeStatsIndex extend(RangeStatsIndex previous, RateSeries series, int firstChanged) {
+        int n = series.size();
+        long reference = n > 0 ? series.scaledValueAt(0) : 0;
+        if (previous == null || previous.reference != reference) firstChanged = 0;
+        firstChanged = Math.max(0, Math.min(firstChanged, Math.min(n, previous != null ? previous.size() : 0)));
+
+        long[] prefixSums = previous != null ? Arrays.copyOf(previous.prefixSums, n + 1) : new long[n + 1];
+        double[] prefixSquares = previous != null ? Arrays.copyOf(previous.prefixSquares, n + 1) : new double[n + 1];
+        for (int i = firstChanged; i < n; i++) {
+            long value = series.scaledValueAt(i);
+            double deviation = value - reference;
+            prefixSums[i + 1] = prefixSums[i] + value;
+            prefixSquares[i + 1] = prefixSquares[i] + deviation * deviation;
+        }
+
+        int blocks = (n + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+        int levels = blocks > 0 ? 32 - Integer.numberOfLeadingZeros(blocks) : 0;
+        long[][] blockMin = new long[levels][];
+        long[][] blockMax = new long[levels][];
+        int firstBlock = firstChanged >> BLOCK_SHIFT;
+        for (int level = 0; level < levels; level++) {
+            int span = 1 << level;
+            int length = blocks - span + 1;
+            // Entries that cover no changed block are copied over
+            int copied = previous != null && level < previous.blockMin.length
+                    ? Math.max(0, Math.min(firstBlock - span + 1, Math.min(length, previous.blockMin[level].length)))
+                    : 0;
+            blockMin[level] = new long[length];
+            blockMax[level] = new long[length];
+            if (copied > 0) {
+                System.arraycopy(previous.blockMin[level], 0, blockMin[level], 0, copied);
+                System.arraycopy(previous.blockMax[level], 0, blockMax[level], 0, copied);
+            }
+            for (int block = copied; block < length; block++) {
+                if (level == 0) {
+                    int start = block << BLOCK_SHIFT;
+                    int end = Math.min(n, start + BLOCK_SIZE);
+                    long min = Long.MAX_VALUE;
+                    long max = Long.MIN_VALUE;
+                    for (int i = start; i < end; i++) {
+                        long value = series.scaledValueAt(i);
+                        min = Math.min(min, value);
+                        max = Math.max(max, value);
+                    }
+                    blockMin[0][block] = min;
+                    blockMax[0][block] = max;
+                } else {
+                    int half = span >> 1;
+                    blockMin[level][block] = Math.min(blockMin[level - 1][block], blockMin[level - 1][block + half]);
+                    blockMax[level][block] = Math.max(blockMax[level - 1][block], blockMax[level - 1][block + half]);
+                }
+            }
+        }
+        return new RangeStatsIndex(series, reference, prefixSums, prefixSquares, blockMin, blockMax);
+    }
+
+    RateSeries series() {
+        return series;
+    }
+
+    int size() {
+        return prefixSums.length - 1;
+    }
+
+    /** Statistics of the rates between two epoch days (inclusive). */
+    WindowStats stats(int fromDay, int toDay) {
+        int first = series.ceilingIndex(fromDay);
+        int last = series.floorIndex(toDay);
+        if (first < 0 || last < 0 || first > last) return WindowStats.EMPTY;
+
+        int count = last - first + 1;
+        long sum = prefixSums[last + 1] - prefixSums[first];
+        double deviationSum = sum - (double) reference * count;
+        double squares = prefixSquares[last + 1] - prefixSquares[first];
+        double variance = Math.max(0, (squares - deviationSum * deviationSum / count) / count);
+
+        return new WindowStats(series.epochDayAt(first), series.epochDayAt(last), count, sum,
+                min(first, last), max(first, last), Math.sqrt(variance));
+    }
+
+    private long min(int first, int last) {
+        int firstBlock = first >> BLOCK_SHIFT;
+        int lastBlock = last >> BLOCK_SHIFT;
+        if (lastBlock - firstBlock < 2) return scanMin(first, last);
+
+        int fullStart = firstBlock + 1;
+        int fullEnd = lastBlock - 1;
+        int level = 31 - Integer.numberOfLeadingZeros(fullEnd - fullStart + 1);
+        long min = Math.min(blockMin[level][fullStart], blockMin[level][fullEnd - (1 << level) + 1]);
+        min = Math.min(min, scanMin(first, (fullStart << BLOCK_SHIFT) - 1));
+        return Math.min(min, scanMin(lastBlock << BLOCK_SHIFT, last));
+    }
+
+    private long max(int first, int last) {
+        int firstBlock = first >> BLOCK_SHIFT;
+        int lastBlock = last >> BLOCK_SHIFT;
+        if (lastBlock - firstBlock < 2) return scanMax(first, last);
+
+        int fullStart = firstBlock + 1;
+        int fullEnd = lastBlock - 1;
+        int level = 31 - Integer.numberOfLeadingZeros(fullEnd - fullStart + 1);
+        long max = Math.max(blockMax[level][fullStart], blockMax[level][fullEnd - (1 << level) + 1]);
+        max = Math.max(max, scanMax(first, (fullStart << BLOCK_SHIFT) - 1));
+        return Math.max(max, scanMax(lastBlock << BLOCK_SHIFT, last));
+    }
+
+    /** Total number of rates that window queries on this index had to read one by one. */
+    long ratesScanned() {
+        return ratesScanned.sum();
+    }
+
+    private long scanMin(int first, int last) {
+        if (last >= first) ratesScanned.add(last - first + 1);
+        long min = Long.MAX_VALUE;
+        for (int i = first; i <= last; i++) min = Math.min(min, series.scaledValueAt(i));
+        return min;
+    }
+
+    private long scanMax(int first, int last) {
+        if (last >= first) ratesScanned.add(last - first + 1);
+        long max = Long.MIN_VALUE;
+        for (int i = first; i <= last; i++) max = Math.max(max, series.scaledValueAt(i));
+        return max;
+    }
+}
@@ -0,0 +1,62 @@
+package com.crewmeister.cmcodingchallenge.analytics.service;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStoreListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Window statistics (mean, min, max, standard deviation) of any currency over any date range
+ * in constant time, from one {@link RangeStatsIndex} per currency.
+ *
+ * The indexes are built once at startup and then follow the {@link RateStore} as a
+ * {@link RateStoreListener}: rates appended by an update only extend the index of their currency.
+ */
+@Service
+public class RangeStatsService implements RateStoreListener {
+    private final RateStore rateStore;
+    private final Map<String, RangeStatsIndex> indexes = new ConcurrentHashMap<>();
+
+    public RangeStatsService(RateStore rateStore) {
+        this.rateStore = rateStore;
+        for (RateSeries series : rateStore.allSeries()) {
+            indexes.put(series.getCurrencyCode(), RangeStatsIndex.of(series));
+        }
+        rateStore.addListener(this);
+    }
+
+    /**
+     * Statistics of a currency's rates between two dates (inclusive).
+     *
+     * @param from first date, or null for the first available rate
+     * @param to   last date, or null for the latest available rate
+     * @return the statistics (empty ones when the window holds no rates), or empty when the currency has no rates
+     */
+    public Optional<WindowStats> stats(String currencyCode, LocalDate from, LocalDate to) {
+        RangeStatsIndex index = indexes.get(currencyCode);
+        if (index == null || index.size() == 0) return Optional.empty();
+
+        int fromDay = from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE;
+        int toDay = to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE;
+        return Optional.of(index.stats(fromDay, toDay));
+    }
+
+    @Override
+    public void onMerge(RateSeries series, int[] epochDays, int count) {
+        if (count == 0) return;
+        int firstChanged = series.ceilingIndex(epochDays[0]);
+        indexes.compute(series.getCurrencyCode(), (code, previous) -> previous == null
+                ? RangeStatsIndex.of(series)
+                : RangeStatsIndex.extend(previous, series, firstChanged < 0 ? series.size() : firstChanged));
+    }
+
+    @Override
+    public void onClear() {
+        indexes.clear();
+    }
+}
@@ -0,0 +1,160 @@
+package com.crewmeister.cmcodingchallenge.analytics.service;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStoreListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Range queries over one currency's rates, aggregated server-side into {@link RateBucket}s.
+ *
+ *  - Daily and weekly buckets are built in a single pass over the sorted series
+ *  - Monthly and yearly buckets combine precomputed monthly rollups; only months cut by the
+ *    range boundaries are scanned
+ *  - The rollups are kept up to date as a {@link RateStoreListener}: every write recomputes just
+ *    the months it touched, during the startup import as well as after each update
+ */
+@Service
+public class RateAggregationService implements RateStoreListener {
+    private final RateStore rateStore;
+    /** Per currency: month index (year * 12 + month - 1) to that month's bucket. */
+    private final Map<String, Map<Integer, RateBucket>> monthlyRollups = new ConcurrentHashMap<>();
+
+    public RateAggregationService(RateStore rateStore) {
+        this.rateStore = rateStore;
+        for (RateSeries series : rateStore.allSeries()) {
+            int monthEnd = Integer.MIN_VALUE;
+            for (int i = 0; i < series.size(); i++) {
+                if (series.epochDayAt(i) > monthEnd) monthEnd = rollUp(series, series.epochDayAt(i));
+            }
+        }
+        rateStore.addListener(this);
+    }
+
+    /**
+     * Aggregates the rates of a currency between two dates (inclusive).
+     *
+     * @param from first date, or null for the first available rate
+     * @param to   last date, or null for the latest available rate
+     * @return the non-empty buckets in date order, or empty when the currency has no rates
+     */
+    public Optional<List<RateBucket>> aggregate(String currencyCode, LocalDate from, LocalDate to,
+                                                AggregationInterval interval) {
+        Optional<RateSeries> found = rateStore.series(currencyCode).filter(series -> !series.isEmpty());
+        if (found.isEmpty()) return Optional.empty();
+
+        RateSeries series = found.get();
+        int fromDay = Math.max(from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE, series.epochDayAt(0));
+        int toDay = Math.min(to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE, series.lastEpochDay());
+        if (fromDay > toDay) return Optional.of(List.of());
+
+        if (interval == AggregationInterval.DAY || interval == AggregationInterval.WEEK) {
+            return Optional.of(scan(series, fromDay, toDay, interval));
+        }
+        return Optional.of(combineMonths(series, LocalDate.ofEpochDay(fromDay), LocalDate.ofEpochDay(toDay), interval));
+    }
+
+    @Override
+    public void onMerge(RateSeries series, int[] epochDays, int count) {
+        // Dates are ascending, so each touched month is recomputed once
+        int monthEnd = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            if (epochDays[i] <= monthEnd) continue;
+            monthEnd = rollUp(series, epochDays[i]);
+        }
+    }
+
+    @Override
+    public void onClear() {
+        monthlyRollups.clear();
+    }
+
+    /** Recomputes the rollup of the month containing the given day; returns the month's last epoch day. */
+    private int rollUp(RateSeries series, int epochDay) {
+        LocalDate monthStart = LocalDate.ofEpochDay(epochDay).withDayOfMonth(1);
+        int startDay = (int) monthStart.toEpochDay();
+        int endDay = (int) monthStart.plusMonths(1).toEpochDay() - 1;
+
+        RateBucket bucket = bucket(series, startDay, endDay);
+        Map<Integer, RateBucket> rollups = monthlyRollups.computeIfAbsent(series.getCurrencyCode(),
+                code -> new ConcurrentHashMap<>());
+        if (bucket.isEmpty()) {
+            rollups.remove(monthIndex(monthStart));
+        } else {
+            rollups.put(monthIndex(monthStart), bucket);
+        }
+        return endDay;
+    }
+
+    /** One bucket per observation or per ISO week, in a single pass. */
+    private static List<RateBucket> scan(RateSeries series, int fromDay, int toDay, AggregationInterval interval) {
+        List<RateBucket> buckets = new ArrayList<>();
+        RateBucket bucket = null;
+        int bucketKey = Integer.MIN_VALUE;
+
+        for (int i = series.ceilingIndex(fromDay); i >= 0 && i < series.size() && series.epochDayAt(i) <= toDay; i++) {
+            int day = series.epochDayAt(i);
+            // Epoch day 0 was a Thursday; weeks start on Monday
+            int key = interval == AggregationInterval.DAY ? day : day - Math.floorMod(day + 3, 7);
+            if (bucket == null || key != bucketKey) {
+                bucket = new RateBucket();
+                bucketKey = key;
+                buckets.add(bucket);
+            }
+            bucket.add(day, series.scaledValueAt(i));
+        }
+        return buckets;
+    }
+
+    /** Monthly or yearly buckets from the rollups of whole months and scans of the partial months at both ends. */
+    private List<RateBucket> combineMonths(RateSeries series, LocalDate from, LocalDate to, AggregationInterval interval) {
+        Map<Integer, RateBucket> rollups = monthlyRollups.getOrDefault(series.getCurrencyCode(), Map.of());
+        List<RateBucket> buckets = new ArrayList<>();
+        RateBucket year = null;
+        int yearKey = Integer.MIN_VALUE;
+
+        for (LocalDate month = from.withDayOfMonth(1); !month.isAfter(to); month = month.plusMonths(1)) {
+            LocalDate monthEnd = month.plusMonths(1).minusDays(1);
+            RateBucket bucket;
+            if (!month.isBefore(from) && !monthEnd.isAfter(to)) {
+                bucket = rollups.get(monthIndex(month));
+            } else {
+                LocalDate start = month.isBefore(from) ? from : month;
+                LocalDate end = monthEnd.isAfter(to) ? to : monthEnd;
+                bucket = bucket(series, (int) start.toEpochDay(), (int) end.toEpochDay());
+            }
+            if (bucket == null || bucket.isEmpty()) continue;
+
+            if (interval == AggregationInterval.MONTH) {
+                buckets.add(bucket);
+            } else {
+                if (year == null || yearKey != month.getYear()) {
+                    year = new RateBucket();
+                    yearKey = month.getYear();
+                    buckets.add(year);
+                }
+                year.add(bucket);
+            }
+        }
+        return buckets;
+    }
+
+    private static RateBucket bucket(RateSeries series, int fromDay, int toDay) {
+        RateBucket bucket = new RateBucket();
+        for (int i = series.ceilingIndex(fromDay); i >= 0 && i < series.size() && series.epochDayAt(i) <= toDay; i++) {
+            bucket.add(series.epochDayAt(i), series.scaledValueAt(i));
+        }
+        return bucket;
+    }
+
+    private static int monthIndex(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+}
@@ -0,0 +1,97 @@
+package com.crewmeister.cmcodingchallenge.analytics.service;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Open/high/low/close, sum and count of the rates in one period, on the store's scaled longs.
+ *
+ * Filled in date order through {@link #add(int, long)} or by appending later buckets with
+ * {@link #add(RateBucket)}; buckets handed out by {@link RateAggregationService} are not changed anymore.
+ */
+public final class RateBucket {
+    private int firstEpochDay;
+    private int lastEpochDay;
+    private long open;
+    private long high;
+    private long low;
+    private long close;
+    private long sum;
+    private int count;
+
+    /** Adds an observation later than all observations added so far. */
+    void add(int epochDay, long scaledValue) {
+        if (count == 0) {
+            firstEpochDay = epochDay;
+            open = scaledValue;
+            high = scaledValue;
+            low = scaledValue;
+        } else {
+            high = Math.max(high, scaledValue);
+            low = Math.min(low, scaledValue);
+        }
+        lastEpochDay = epochDay;
+        close = scaledValue;
+        sum += scaledValue;
+        count++;
+    }
+
+    /** Adds all observations of a bucket that lies completely after this one. */
+    void add(RateBucket later) {
+        if (later.count == 0) return;
+        if (count == 0) {
+            firstEpochDay = later.firstEpochDay;
+            open = later.open;
+            high = later.high;
+            low = later.low;
+        } else {
+            high = Math.max(high, later.high);
+            low = Math.min(low, later.low);
+        }
+        lastEpochDay = later.lastEpochDay;
+        close = later.close;
+        sum += later.sum;
+        count += later.count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public LocalDate getFirstDate() {
+        return LocalDate.ofEpochDay(firstEpochDay);
+    }
+
+    public LocalDate getLastDate() {
+        return LocalDate.ofEpochDay(lastEpochDay);
+    }
+
+    public BigDecimal getOpen() {
+        return RateSeries.toDecimal(open);
+    }
+
+    public BigDecimal getHigh() {
+        return RateSeries.toDecimal(high);
+    }
+
+    public BigDecimal getLow() {
+        return RateSeries.toDecimal(low);
+    }
+
+    public BigDecimal getClose() {
+        return RateSeries.toDecimal(close);
+    }
+
+    /** Arithmetic mean, rounded half up to the store's scale. */
+    public BigDecimal getMean() {
+        long mean = BigDecimal.valueOf(sum).divide(BigDecimal.valueOf(count), 0, RoundingMode.HALF_UP).longValueExact();
+        return RateSeries.toDecimal(mean);
+    }
+}
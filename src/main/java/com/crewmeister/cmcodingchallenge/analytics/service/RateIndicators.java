@@ -0,0 +1,73 @@
+package com.crewmeister.cmcodingchallenge.analytics.service;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Indicators of one currency on one rate date. Values whose window is not filled yet are null.
+ */
+public final class RateIndicators {
+    /** Decimal places of returns and volatilities. */
+    private static final int RATIO_SCALE = 8;
+
+    private final LocalDate date;
+    private final BigDecimal rate;
+    private final BigDecimal dailyReturn;
+    private final BigDecimal sma20;
+    private final BigDecimal sma50;
+    private final BigDecimal sma200;
+    private final BigDecimal volatility20;
+
+    RateIndicators(RollingIndicators.View view, int index) {
+        RateSeries series = view.series();
+        this.date = series.dateAt(index);
+        this.rate = series.valueAt(index);
+        this.dailyReturn = ratio(view.dailyReturn(index));
+        this.sma20 = average(view.movingAverage(0, index));
+        this.sma50 = average(view.movingAverage(1, index));
+        this.sma200 = average(view.movingAverage(2, index));
+        this.volatility20 = ratio(view.volatility(index));
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    /** Change against the previous rate, e.g. 0.0025 for +0.25 %. */
+    public BigDecimal getDailyReturn() {
+        return dailyReturn;
+    }
+
+    /** Mean of the last 20 rates, this one included. */
+    public BigDecimal getSma20() {
+        return sma20;
+    }
+
+    public BigDecimal getSma50() {
+        return sma50;
+    }
+
+    public BigDecimal getSma200() {
+        return sma200;
+    }
+
+    /** Sample standard deviation of the last 20 daily log returns, not annualised. */
+    public BigDecimal getVolatility20() {
+        return volatility20;
+    }
+
+    private static BigDecimal average(long scaled) {
+        return scaled == RollingIndicators.NO_VALUE ? null : RateSeries.toDecimal(scaled);
+    }
+
+    private static BigDecimal ratio(double value) {
+        return Double.isNaN(value) ? null : BigDecimal.valueOf(value).setScale(RATIO_SCALE, RoundingMode.HALF_UP);
+    }
+}
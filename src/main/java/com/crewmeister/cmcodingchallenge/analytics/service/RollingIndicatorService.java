@@ -0,0 +1,133 @@
+package com.crewmeister.cmcodingchallenge.analytics.service;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStoreListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moving averages (20/50/200 rates), daily returns and 20-rate volatility of every currency,
+ * kept as {@link RollingIndicators} state.
+ *
+ *  - {@link #backfill()} computes the full history of all currencies in parallel, once the
+ *    startup import has filled the {@link RateStore}; writes before that are ignored
+ *  - Afterwards, as a {@link RateStoreListener}, rates appended by an update are added in O(1)
+ *    each; a merge that changes earlier dates (e.g. a full resync filling a gap) recomputes
+ *    that currency
+ */
+@Service
+public class RollingIndicatorService implements RateStoreListener {
+    private final RateStore rateStore;
+    private final int parallelism;
+    private final Map<String, RollingIndicators> indicators = new ConcurrentHashMap<>();
+    private boolean backfilled;
+
+    public RollingIndicatorService(RateStore rateStore,
+                                   @Value("${analytics.backfill-parallelism:0}") int parallelism) {
+        this.rateStore = rateStore;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        rateStore.addListener(this);
+    }
+
+    /**
+     * Indicators of a currency on a date, or on the latest earlier date with a rate.
+     *
+     * @param date the date, or null for the latest rate
+     * @return the indicators, or empty when the currency has no rate on or before the date
+     */
+    public Optional<RateIndicators> indicatorsAsOf(String currencyCode, LocalDate date) {
+        RollingIndicators found = indicators.get(currencyCode);
+        if (found == null) return Optional.empty();
+
+        RollingIndicators.View view = found.view();
+        int index = date != null
+                ? Math.min(view.series().floorIndex((int) date.toEpochDay()), view.size() - 1)
+                : view.size() - 1;
+        return index >= 0 ? Optional.of(new RateIndicators(view, index)) : Optional.empty();
+    }
+
+    /** Computes the indicators of every currency from its full history, one currency per task. */
+    public void backfill() {
+        long startNanos = System.nanoTime();
+        List<RateSeries> snapshot = new ArrayList<>(rateStore.allSeries());
+        Map<String, RollingIndicators> computed = new ConcurrentHashMap<>();
+
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(snapshot.size(), 1)), runnable -> {
+            Thread thread = new Thread(runnable, "indicator-backfill-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Callable<Object>> tasks = new ArrayList<>();
+            for (RateSeries series : snapshot) {
+                tasks.add(() -> computed.put(series.getCurrencyCode(), RollingIndicators.backfill(series)));
+            }
+            for (Future<Object> result : workers.invokeAll(tasks)) result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("### Indicator backfill interrupted");
+            return;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Indicator backfill failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+
+        int rates;
+        synchronized (this) {
+            indicators.putAll(computed);
+            // Catch up with writes that happened while the backfill ran
+            for (RateSeries series : rateStore.allSeries()) {
+                RollingIndicators current = indicators.get(series.getCurrencyCode());
+                if (current == null || current.view().series() != series) update(series, current);
+            }
+            backfilled = true;
+            rates = indicators.values().stream().mapToInt(RollingIndicators::size).sum();
+        }
+
+        System.out.printf("### Computed indicators of %d rates in %d currencies in %.1f ms (%d threads)%n",
+                rates, indicators.size(), (System.nanoTime() - startNanos) / 1_000_000.0, threads.get());
+    }
+
+    @Override
+    public synchronized void onMerge(RateSeries series, int[] epochDays, int count) {
+        if (!backfilled) return;
+        update(series, indicators.get(series.getCurrencyCode()));
+    }
+
+    @Override
+    public synchronized void onClear() {
+        indicators.clear();
+    }
+
+    private void update(RateSeries series, RollingIndicators current) {
+        if (current != null && isAppendOnly(current.view().series(), series)) {
+            current.append(series);
+        } else {
+            indicators.put(series.getCurrencyCode(), RollingIndicators.backfill(series));
+        }
+    }
+
+    /**
+     * Whether the new series only adds rates after the last covered one. Merges never drop or
+     * change a known rate, so this holds when the covered dates are still the first ones.
+     */
+    private static boolean isAppendOnly(RateSeries covered, RateSeries series) {
+        return !covered.isEmpty() && series.floorIndex(covered.lastEpochDay()) == covered.size() - 1;
+    }
+}
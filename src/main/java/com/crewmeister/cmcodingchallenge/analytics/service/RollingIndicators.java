@@ -0,0 +1,158 @@
+package com.crewmeister.cmcodingchallenge.analytics.service;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+
+import java.util.Arrays;
+
+/**
+ * Moving averages, daily returns and rolling volatility of one currency, one entry per rate.
+ *
+ *  - Windows count observations (rate dates), not calendar days
+ *  - Running window sums make every appended rate O(1): the rate leaving each window is
+ *    subtracted, the new one added; moving-average sums are exact scaled longs
+ *  - Volatility is the sample standard deviation of the last {@value #VOLATILITY_WINDOW} daily
+ *    log returns, not annualised
+ *  - Single writer (the {@link com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore}
+ *    listener); readers take a consistent {@link #view()} without locking, like {@link RateSeries}
+ */
+final class RollingIndicators {
+    static final int[] SMA_WINDOWS = { 20, 50, 200 };
+    static final int VOLATILITY_WINDOW = 20;
+    /** Marks a moving average whose window is not filled yet. */
+    static final long NO_VALUE = Long.MIN_VALUE;
+
+    private final long[] windowSums = new long[SMA_WINDOWS.length];
+    private double logReturnSum;
+    private double logReturnSquares;
+
+    private RateSeries series;
+    private long[][] movingAverages = new long[SMA_WINDOWS.length][0];
+    private double[] dailyReturns = new double[0];
+    private double[] logReturns = new double[0];
+    private double[] volatilities = new double[0];
+    private volatile View view;
+
+    private RollingIndicators(RateSeries series) {
+        this.series = series;
+        this.view = new View(series, movingAverages, dailyReturns, volatilities, 0);
+    }
+
+    /** Computes the indicators of every rate in the series. */
+    static RollingIndicators backfill(RateSeries series) {
+        RollingIndicators indicators = new RollingIndicators(series);
+        indicators.ensureCapacity(series.size());
+        for (int i = 0; i < series.size(); i++) indicators.compute(i);
+        indicators.publish(series, series.size());
+        return indicators;
+    }
+
+    /** Number of rates covered. */
+    int size() {
+        return view.size;
+    }
+
+    /**
+     * Appends the indicators of the rates after the ones already covered, in O(1) per rate.
+     * The series must extend the covered one; earlier dates that changed need a new {@link #backfill}.
+     */
+    void append(RateSeries extended) {
+        int from = view.size;
+        this.series = extended;
+        ensureCapacity(extended.size());
+        for (int i = from; i < extended.size(); i++) compute(i);
+        publish(extended, extended.size());
+    }
+
+    View view() {
+        return view;
+    }
+
+    private void compute(int i) {
+        long value = series.scaledValueAt(i);
+        for (int w = 0; w < SMA_WINDOWS.length; w++) {
+            int window = SMA_WINDOWS[w];
+            windowSums[w] += value;
+            if (i >= window) windowSums[w] -= series.scaledValueAt(i - window);
+            movingAverages[w][i] = i + 1 >= window ? Math.floorDiv(windowSums[w] * 2 + window, window * 2L) : NO_VALUE;
+        }
+
+        if (i == 0) {
+            dailyReturns[0] = Double.NaN;
+            logReturns[0] = Double.NaN;
+            volatilities[0] = Double.NaN;
+            return;
+        }
+        long previous = series.scaledValueAt(i - 1);
+        dailyReturns[i] = (double) value / previous - 1;
+        logReturns[i] = Math.log((double) value / previous);
+        logReturnSum += logReturns[i];
+        logReturnSquares += logReturns[i] * logReturns[i];
+        // Returns start at index 1, so the oldest one leaves the window at index VOLATILITY_WINDOW + 1
+        if (i > VOLATILITY_WINDOW) {
+            double leaving = logReturns[i - VOLATILITY_WINDOW];
+            logReturnSum -= leaving;
+            logReturnSquares -= leaving * leaving;
+        }
+        if (i < VOLATILITY_WINDOW) {
+            volatilities[i] = Double.NaN;
+        } else {
+            double variance = (logReturnSquares - logReturnSum * logReturnSum / VOLATILITY_WINDOW) / (VOLATILITY_WINDOW - 1);
+            volatilities[i] = Math.sqrt(Math.max(0, variance));
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (size <= dailyReturns.length) return;
+        int capacity = Math.max(size, dailyReturns.length + (dailyReturns.length >> 1) + 16);
+        // Published views keep the old arrays
+        movingAverages = movingAverages.clone();
+        for (int w = 0; w < SMA_WINDOWS.length; w++) movingAverages[w] = Arrays.copyOf(movingAverages[w], capacity);
+        dailyReturns = Arrays.copyOf(dailyReturns, capacity);
+        logReturns = Arrays.copyOf(logReturns, capacity);
+        volatilities = Arrays.copyOf(volatilities, capacity);
+    }
+
+    private void publish(RateSeries series, int size) {
+        view = new View(series, movingAverages, dailyReturns, volatilities, size);
+    }
+
+    /** Immutable view of the indicators; entries past its size are never read. */
+    static final class View {
+        private final RateSeries series;
+        private final long[][] movingAverages;
+        private final double[] dailyReturns;
+        private final double[] volatilities;
+        private final int size;
+
+        private View(RateSeries series, long[][] movingAverages, double[] dailyReturns, double[] volatilities, int size) {
+            this.series = series;
+            this.movingAverages = movingAverages;
+            this.dailyReturns = dailyReturns;
+            this.volatilities = volatilities;
+            this.size = size;
+        }
+
+        RateSeries series() {
+            return series;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /** Scaled moving average of window {@code SMA_WINDOWS[w]} at an index, or {@link #NO_VALUE}. */
+        long movingAverage(int w, int index) {
+            return movingAverages[w][index];
+        }
+
+        /** Simple return against the previous rate, or NaN for the first rate. */
+        double dailyReturn(int index) {
+            return dailyReturns[index];
+        }
+
+        /** Rolling volatility, or NaN while fewer than {@value RollingIndicators#VOLATILITY_WINDOW} returns are known. */
+        double volatility(int index) {
+            return volatilities[index];
+        }
+    }
+}
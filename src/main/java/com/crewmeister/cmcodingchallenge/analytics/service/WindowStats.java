@@ -0,0 +1,68 @@
+package com.crewmeister.cmcodingchallenge.analytics.service;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Count, mean, min, max and population standard deviation of the rates in one window.
+ */
+public final class WindowStats {
+    static final WindowStats EMPTY = new WindowStats(0, 0, 0, 0, 0, 0, 0);
+
+    private final int firstEpochDay;
+    private final int lastEpochDay;
+    private final int count;
+    private final long sum;
+    private final long min;
+    private final long max;
+    /** Standard deviation in scaled units. */
+    private final double stdDev;
+
+    WindowStats(int firstEpochDay, int lastEpochDay, int count, long sum, long min, long max, double stdDev) {
+        this.firstEpochDay = firstEpochDay;
+        this.lastEpochDay = lastEpochDay;
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+        this.stdDev = stdDev;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public LocalDate getFirstDate() {
+        return LocalDate.ofEpochDay(firstEpochDay);
+    }
+
+    public LocalDate getLastDate() {
+        return LocalDate.ofEpochDay(lastEpochDay);
+    }
+
+    /** Arithmetic mean, rounded half up to the store's scale. */
+    public BigDecimal getMean() {
+        long mean = BigDecimal.valueOf(sum).divide(BigDecimal.valueOf(count), 0, RoundingMode.HALF_UP).longValueExact();
+        return RateSeries.toDecimal(mean);
+    }
+
+    public BigDecimal getMin() {
+        return RateSeries.toDecimal(min);
+    }
+
+    public BigDecimal getMax() {
+        return RateSeries.toDecimal(max);
+    }
+
+    /** Population standard deviation, rounded half up to the store's scale. */
+    public BigDecimal getStdDev() {
+        return RateSeries.toDecimal(Math.round(stdDev));
+    }
+}
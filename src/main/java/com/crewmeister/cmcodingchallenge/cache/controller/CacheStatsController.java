@@ -0,0 +1,44 @@
+package com.crewmeister.cmcodingchallenge.cache.controller;
+
+import com.crewmeister.cmcodingchallenge.cache.dto.CacheStatsDTO;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheStatsController {
+    private final CacheManager cacheManager;
+
+    public CacheStatsController(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /** Hit/miss/eviction statistics of the API caches */
+    @Operation(
+            summary = "Get cache statistics",
+            description = "Returns size, hit/miss counts, hit rate and eviction count for every API cache"
+    )
+    @GetMapping("/stats")
+    public List<CacheStatsDTO> getCacheStats() {
+        List<CacheStatsDTO> result = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (!(cache instanceof CaffeineCache)) continue;
+
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = ((CaffeineCache) cache).getNativeCache();
+            CacheStats stats = nativeCache.stats();
+            result.add(new CacheStatsDTO(name, nativeCache.estimatedSize(), stats.hitCount(),
+                    stats.missCount(), stats.hitRate(), stats.evictionCount()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package com.crewmeister.cmcodingchallenge.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Bounded Caffeine caches for the API layer.
+ *
+ * Every cache has a size limit, expires at the daily Bundesbank refresh time
+ * and records hit/miss/eviction statistics (see /api/cache/stats).
+ * Only the caches declared here exist, so no cache can be created on the fly.
+ */
+@Configuration
+public class CacheConfig {
+    public static final String CURRENCIES = "currencies";
+    public static final String RATES_BY_DATE = "ratesByDate";
+    public static final String CONVERSIONS = "conversions";
+    public static final String CROSS_RATES = "crossRates";
+    public static final String CORRELATIONS = "correlations";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${cache.refresh-time:11:00}") String refreshTime,
+            @Value("${cache.rates-by-date.max-size:2000}") long ratesByDateMaxSize,
+            @Value("${cache.conversions.max-size:10000}") long conversionsMaxSize,
+            @Value("${cache.cross-rates.max-size:50000}") long crossRatesMaxSize,
+            @Value("${cache.correlations.max-size:100}") long correlationsMaxSize) {
+        DailyRefreshExpiry expiry = new DailyRefreshExpiry(LocalTime.parse(refreshTime), Clock.systemDefaultZone());
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                new CaffeineCache(CURRENCIES, boundedCache(1, expiry)),
+                new CaffeineCache(RATES_BY_DATE, boundedCache(ratesByDateMaxSize, expiry)),
+                new CaffeineCache(CONVERSIONS, boundedCache(conversionsMaxSize, expiry)),
+                new CaffeineCache(CROSS_RATES, boundedCache(crossRatesMaxSize, expiry)),
+                new CaffeineCache(CORRELATIONS, boundedCache(correlationsMaxSize, expiry))
+        ));
+        return cacheManager;
+    }
+
+    private static Cache<Object, Object> boundedCache(long maximumSize, DailyRefreshExpiry expiry) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(expiry)
+                .recordStats()
+                .build();
+    }
+}
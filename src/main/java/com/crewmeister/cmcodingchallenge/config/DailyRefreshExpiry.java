@@ -0,0 +1,45 @@
+package com.crewmeister.cmcodingchallenge.config;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+
+/**
+ * Caffeine expiry policy that drops every entry at the next daily refresh time,
+ * i.e. when the scheduled Bundesbank update brings in new rates.
+ */
+public class DailyRefreshExpiry implements Expiry<Object, Object> {
+    private final LocalTime refreshTime;
+    private final Clock clock;
+
+    public DailyRefreshExpiry(LocalTime refreshTime, Clock clock) {
+        this.refreshTime = refreshTime;
+        this.clock = clock;
+    }
+
+    /** Nanoseconds from now until the next refresh time. */
+    long nanosUntilNextRefresh() {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        ZonedDateTime next = now.with(refreshTime);
+        if (!next.isAfter(now)) next = next.plusDays(1);
+        return Duration.between(now, next).toNanos();
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        return nanosUntilNextRefresh();
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return nanosUntilNextRefresh();
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+}
@@ -1,21 +1,43 @@
 package com.crewmeister.cmcodingchallenge.config;
 
+import com.crewmeister.cmcodingchallenge.analytics.service.RollingIndicatorService;
+import com.crewmeister.cmcodingchallenge.exchangerate.service.CrossRateService;
 import com.crewmeister.cmcodingchallenge.exchangerate.service.ExchangeRateImporter;
+import com.crewmeister.cmcodingchallenge.exchangerate.service.UpdateJobService;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 @Component
 public class DataInitializer implements CommandLineRunner {
     private final ExchangeRateImporter exchangeRateImporter;
+    private final UpdateJobService updateJobService;
+    private final CrossRateService crossRateService;
+    private final RollingIndicatorService indicatorService;
 
-    public DataInitializer(ExchangeRateImporter exchangeRateImporter) {
+    public DataInitializer(ExchangeRateImporter exchangeRateImporter, UpdateJobService updateJobService,
+                           CrossRateService crossRateService, RollingIndicatorService indicatorService) {
         this.exchangeRateImporter = exchangeRateImporter;
+        this.updateJobService = updateJobService;
+        this.crossRateService = crossRateService;
+        this.indicatorService = indicatorService;
     }
 
     @Override
     public void run(String... args) {
         // System.out.println("Starting FX data import...");
-        exchangeRateImporter.importCsvData();
+        try {
+            // Returns once the rate store is ready; after a snapshot restore the database fills in the background
+            exchangeRateImporter.importOnStartup().whenComplete((ignored, error) -> {
+                if (error != null) System.err.println("### Loading the database failed: " + error.getMessage());
+                // Update jobs triggered while the server was starting wait until now
+                updateJobService.startupImportFinished();
+            });
+            crossRateService.precomputeHotDates();
+            indicatorService.backfill();
+        } catch (RuntimeException e) {
+            updateJobService.startupImportFinished();
+            throw e;
+        }
         // System.out.println("Import complete.");
     }
 }
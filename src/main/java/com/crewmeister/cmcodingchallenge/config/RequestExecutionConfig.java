@@ -0,0 +1,56 @@
+package com.crewmeister.cmcodingchallenge.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Chooses the threads Tomcat runs requests on (server.execution-mode).
+ *
+ *  - platform (default): Tomcat's bounded worker pool (server.tomcat.threads.max)
+ *  - virtual: one virtual thread per request, so requests blocked on the database or on
+ *    Bundesbank calls no longer hold one of a few hundred pool threads. Virtual threads need
+ *    Java 21; the build targets Java 11, so the executor is looked up reflectively and older
+ *    runtimes keep the platform pool (with a warning)
+ */
+@Configuration
+public class RequestExecutionConfig {
+
+    public enum ExecutionMode {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> requestExecutionCustomizer(
+            @Value("${server.execution-mode:platform}") ExecutionMode mode) {
+        return factory -> {
+            if (mode != ExecutionMode.VIRTUAL) return;
+
+            Optional<ExecutorService> executor = virtualThreadExecutor();
+            if (executor.isEmpty()) {
+                System.err.printf("### server.execution-mode=virtual needs Java 21 or newer (running %s), "
+                        + "keeping the platform thread pool%n", Runtime.version());
+                return;
+            }
+            factory.addProtocolHandlerCustomizers(handler -> handler.setExecutor(executor.get()));
+            System.out.println("### Serving requests on virtual threads");
+        };
+    }
+
+    /** Executors.newVirtualThreadPerTaskExecutor() when the runtime has it. */
+    static Optional<ExecutorService> virtualThreadExecutor() {
+        try {
+            return Optional.of((ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+        } catch (ReflectiveOperationException e) {
+            // Missing before Java 21, or a disabled preview feature on Java 19 and 20
+            return Optional.empty();
+        }
+    }
+}
@@ -14,6 +14,8 @@ public class Currency {
     private String code;
     private String name;
     private LocalDate lastUpdated;
+    /** Date of the latest stored rate; the daily update only asks Bundesbank for later days. */
+    private LocalDate lastObservationDate;
 
     public Currency() {}
 
@@ -46,4 +48,12 @@ public class Currency {
     public void setLastUpdated(LocalDate lastUpdated) {
         this.lastUpdated = lastUpdated;
     }
+
+    public LocalDate getLastObservationDate() {
+        return lastObservationDate;
+    }
+
+    public void setLastObservationDate(LocalDate lastObservationDate) {
+        this.lastObservationDate = lastObservationDate;
+    }
 }
@@ -0,0 +1,58 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.controller;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.service.BatchConversionService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/rates/convert/batch")
+public class BatchConversionController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final BatchConversionService conversionService;
+
+    public BatchConversionController(BatchConversionService conversionService) {
+        this.conversionService = conversionService;
+    }
+
+    /** User story 4 in bulk: convert many amounts at once, e.g. all invoice lines of a month */
+    @Operation(
+            summary = "Convert many foreign currency amounts to EUR in one request",
+            description = "Accepts a JSON array, or NDJSON (Content-Type application/x-ndjson), of "
+            + "{\"currency\": \"USD\", \"date\": \"2025-10-10\", \"amount\": 122.65} items and streams one result "
+            + "per item back in request order, in the same format. Each distinct currency and date is looked up "
+            + "once. Items that cannot be converted carry an error message instead of the EUR amount."
+    )
+    @PostMapping(consumes = { MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson" })
+    public ResponseEntity<StreamingResponseBody> convertBatch(
+            InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType
+    ) throws IOException {
+        boolean ndjson = NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        BatchConversionService.Batch batch = conversionService.read(body);
+        conversionService.convert(batch);
+
+        StreamingResponseBody results = out -> conversionService.write(batch, out, ndjson);
+        return ResponseEntity.ok()
+                .contentType(ndjson ? NDJSON : MediaType.APPLICATION_JSON)
+                .body(results);
+    }
+
+    /** A body that is not JSON, or too large, is rejected as a whole; problems with single items are reported inline */
+    @ExceptionHandler({ IOException.class, IllegalArgumentException.class })
+    public ResponseEntity<Map<String, String>> invalidBatch(Exception e) {
+        return ResponseEntity.badRequest().body(Map.of("message", "Invalid conversion batch: " + e.getMessage()));
+    }
+}
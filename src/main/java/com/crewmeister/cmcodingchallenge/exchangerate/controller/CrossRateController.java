@@ -0,0 +1,56 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.controller;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.dto.CrossConversionDTO;
+import com.crewmeister.cmcodingchallenge.exchangerate.service.ConversionPolicy;
+import com.crewmeister.cmcodingchallenge.exchangerate.service.CrossRateService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/rates/convert/cross")
+public class CrossRateController {
+    private final CrossRateService crossRateService;
+    private final ConversionPolicy conversionPolicy;
+
+    public CrossRateController(CrossRateService crossRateService, ConversionPolicy conversionPolicy) {
+        this.crossRateService = crossRateService;
+        this.conversionPolicy = conversionPolicy;
+    }
+
+    /** Convert between any two currencies (EUR included) on a particular day */
+    @Operation(
+            summary = "Convert an amount from one currency to another for a specific date",
+            description = "Triangulates the cross rate through the EUR rates of both currencies on the given date, "
+            + "e.g. USD to JPY. The rate is the amount of the target currency bought by one unit of the source "
+            + "currency; rate precision and amount rounding follow the configured conversion policy."
+    )
+    @GetMapping
+    public Object convertCrossRate(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam String date,
+            @RequestParam(defaultValue = "1") BigDecimal amount
+    ) {
+        String source = from.trim().toUpperCase();
+        String target = to.trim().toUpperCase();
+        LocalDate targetDate = LocalDate.parse(date);
+        Optional<BigDecimal> rate = crossRateService.crossRate(source, target, targetDate);
+
+        if (rate.isEmpty()) {
+            return Map.of(
+                    "message", "No exchange rate found for " + source + "/" + target + " on " + targetDate
+            );
+        }
+
+        return new CrossConversionDTO(source, target, targetDate.toString(), amount, rate.get(),
+                conversionPolicy.applyRate(amount, rate.get()));
+    }
+}
@@ -1,37 +1,54 @@
 package com.crewmeister.cmcodingchallenge.exchangerate.controller;
 
+import com.crewmeister.cmcodingchallenge.exchangerate.dto.ExchangeRateCursorPageDTO;
 import com.crewmeister.cmcodingchallenge.exchangerate.dto.ExchangeRateDTO;
 import com.crewmeister.cmcodingchallenge.exchangerate.dto.ExchangeRatesForDateDTO;
 import com.crewmeister.cmcodingchallenge.exchangerate.dto.SimpleRateDTO;
-import com.crewmeister.cmcodingchallenge.exchangerate.model.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.exchangerate.dto.UpdateJobDTO;
 import com.crewmeister.cmcodingchallenge.exchangerate.repository.ExchangeRateRepository;
-import com.crewmeister.cmcodingchallenge.exchangerate.service.ExchangeRateImporter;
+import com.crewmeister.cmcodingchallenge.exchangerate.repository.ExchangeRateView;
+import com.crewmeister.cmcodingchallenge.exchangerate.service.ConversionPolicy;
+import com.crewmeister.cmcodingchallenge.exchangerate.service.UpdateJob;
+import com.crewmeister.cmcodingchallenge.exchangerate.service.UpdateJobService;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.DateFallback;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RatesOnDate;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/rates")
 public class ExchangeRateController {
+    private static final int MAX_CURSOR_PAGE_SIZE = 5000;
+
     private final ExchangeRateRepository exchangeRateRepository;
-    private final ExchangeRateImporter importer;
+    private final UpdateJobService updateJobService;
+    private final RateStore rateStore;
+    private final ConversionPolicy conversionPolicy;
 
-    public ExchangeRateController(ExchangeRateRepository exchangeRateRepository, ExchangeRateImporter importer) {
+    public ExchangeRateController(ExchangeRateRepository exchangeRateRepository, UpdateJobService updateJobService,
+                                  RateStore rateStore, ConversionPolicy conversionPolicy) {
         this.exchangeRateRepository = exchangeRateRepository;
-        this.importer = importer;
+        this.updateJobService = updateJobService;
+        this.rateStore = rateStore;
+        this.conversionPolicy = conversionPolicy;
     }
 
     /** User story 2: Get all EUR-FX exchange rates at all dates as a collection */
@@ -45,35 +62,96 @@ public class ExchangeRateController {
             @RequestParam(defaultValue = "50") int size
     ) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<ExchangeRate> ratePage = exchangeRateRepository.findAllByOrderByRateDateAsc(pageable);
+        Page<ExchangeRateView> ratePage = exchangeRateRepository.findAllViewsOrderByRateDate(pageable);
 
         return ratePage.map(rate -> new ExchangeRateDTO(
                 "EUR",
-                rate.getCurrency().getCode(),
+                rate.getCurrencyCode(),
                 rate.getRateDate().toString(),
                 rate.getRateValue()
         ));
     }
 
+    /** User story 2 (cursor mode): seek through all rates ordered by (date, currency) without OFFSET or COUNT */
+    @Operation(
+            summary = "Get all EUR-FX exchange rates using cursor (keyset) pagination",
+            description = "Returns the rates following the given opaque cursor, ordered by date and currency. "
+            + "Pass an empty cursor for the first page and the returned nextCursor for each following page; "
+            + "nextCursor is null on the last page."
+    )
+    @GetMapping(value = "all-exchange-rates", params = "cursor")
+    public Object getAllExchangeRatesByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        Pageable limit = PageRequest.of(0, Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE)));
+        List<ExchangeRateView> rates;
+
+        if (cursor.isBlank()) {
+            rates = exchangeRateRepository.findFirstKeysetPage(limit);
+        } else {
+            String[] key = decodeCursor(cursor);
+            if (key == null) {
+                return Map.of("message", "Invalid cursor " + cursor);
+            }
+            rates = exchangeRateRepository.findKeysetPageAfter(LocalDate.parse(key[0]), key[1], limit);
+        }
+
+        List<ExchangeRateDTO> content = new ArrayList<>(rates.size());
+        for (ExchangeRateView rate : rates) {
+            content.add(new ExchangeRateDTO("EUR", rate.getCurrencyCode(),
+                    rate.getRateDate().toString(), rate.getRateValue()));
+        }
+
+        // A full page may be followed by more rows; the next request seeks past the last one
+        String nextCursor = null;
+        if (!rates.isEmpty() && rates.size() == limit.getPageSize()) {
+            ExchangeRateView last = rates.get(rates.size() - 1);
+            nextCursor = encodeCursor(last.getRateDate(), last.getCurrencyCode());
+        }
+        return new ExchangeRateCursorPageDTO(content, nextCursor);
+    }
+
     /** Manual test to fetch new data*/
     @Operation(
             summary = "Trigger live exchange rate update from Bundesbank",
-            description = "Initiates a manual update of all EUR-FX exchange rates by fetching the latest data "
-            + "from the Deutsche Bundesbank API. This process retrieves the most recent foreign exchange "
-            + "reference rates for all supported currencies and stores them in the local database and csv files. "
-            + "It is also automatically scheduled to run daily."
+            description = "Starts an update of all EUR-FX exchange rates from the Deutsche Bundesbank API "
+            + "in the background and returns 202 with the id of the update job. This process retrieves the most "
+            + "recent foreign exchange reference rates for all supported currencies and stores them in the local "
+            + "database and csv files. It is also automatically scheduled to run daily. By default only the days "
+            + "after the latest stored rate of each currency are requested; pass full=true to download the "
+            + "complete history. While an update is queued or running, further triggers join it and return "
+            + "its job id."
     )
     @PostMapping("/update")
-    @CacheEvict(value = { "ratesByDate", "currencies" }, allEntries = true)
-    public String updateRates() {
-        importer.updateFromBundesbankApi();
-        return "Bundesbank update triggered.";
+    public ResponseEntity<UpdateJobDTO> updateRates(@RequestParam(defaultValue = "false") boolean full) {
+        UpdateJob job = updateJobService.submit(full);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/rates/update/" + job.getId()))
+                .body(new UpdateJobDTO(job));
+    }
+
+    /** Progress of a triggered update */
+    @Operation(
+            summary = "Get the status of a Bundesbank update job",
+            description = "Returns the state and progress of an update job: planned and completed API requests, "
+            + "updated currencies, bytes fetched, and the timing, attempts and size of every request."
+    )
+    @GetMapping("/update/{jobId}")
+    public Object getUpdateStatus(@PathVariable String jobId) {
+        Optional<UpdateJob> job = updateJobService.findJob(jobId);
+        if (job.isEmpty()) {
+            return Map.of("message", "No update job found with id " + jobId);
+        }
+        return new UpdateJobDTO(job.get());
     }
 
     /** User story 3 - Rates at a particular day */
     @Operation(
             summary = "Get EUR-FX exchange rates for a specific date",
-            description = "Retrieves all available EUR-FX exchange rates for the specified date."
+            description = "Retrieves all available EUR-FX exchange rates for the specified date. With fallback=previous, "
+            + "next or nearest, a date without rates (weekend, holiday) is answered with the rates of the closest "
+            + "earlier, later or nearest date that has rates, which is returned as effectiveDate."
     )
     @Parameter(
             name = "date",
@@ -81,11 +159,22 @@ public class ExchangeRateController {
             example = "2025-11-04"
     )
     @GetMapping(params = "date")
-    @Cacheable(value = "ratesByDate", key = "#date")
-    public Object getExchangeRatesByDate(@RequestParam String date) {
-        System.out.println("Fetching exchange rates from database"); // to test caching
+    @Cacheable(value = "ratesByDate", key = "#fallback == null ? #date : #date + ':' + #fallback.toLowerCase()",
+            unless = "#result instanceof T(java.util.Map)")
+    public Object getExchangeRatesByDate(
+            @RequestParam String date,
+            @RequestParam(required = false) String fallback
+    ) {
         LocalDate targetDate = LocalDate.parse(date);
-        List<ExchangeRate> rates = exchangeRateRepository.findAllByRateDate(targetDate);
+        DateFallback mode = parseFallback(fallback);
+        if (mode == null) {
+            return Map.of("message", invalidFallbackMessage(fallback));
+        }
+
+        LocalDate effectiveDate = mode == DateFallback.EXACT
+                ? targetDate
+                : rateStore.resolveDate(null, targetDate, mode).orElse(targetDate);
+        RatesOnDate rates = rateStore.ratesOn(effectiveDate);
 
         if (rates.isEmpty()) {
             return Map.of(
@@ -93,50 +182,94 @@ public class ExchangeRateController {
             );
         }
 
-        List<SimpleRateDTO> rateList = rates.stream()
-                .map(rate -> new SimpleRateDTO(
-                        rate.getCurrency().getCode(),
-                        rate.getRateValue()
-                ))
-                .collect(Collectors.toList());
+        List<SimpleRateDTO> rateList = new ArrayList<>(rates.size());
+        for (int i = 0; i < rates.size(); i++) {
+            rateList.add(new SimpleRateDTO(rates.currencyAt(i), rates.valueAt(i)));
+        }
 
-        return new ExchangeRatesForDateDTO(targetDate.toString(), "EUR", rateList);
+        return new ExchangeRatesForDateDTO(targetDate.toString(),
+                mode == DateFallback.EXACT ? null : effectiveDate.toString(), "EUR", rateList);
     }
 
     /** User story 4 - Convert an amount of currency to euro on a particular day */
     @Operation(
             summary = "Convert a given currency amount to EUR for a specific date",
-            description = "Converts the specified amount of the given foreign currency to EUR at the given date"
+            description = "Converts the specified amount of the given foreign currency to EUR at the given date. "
+            + "With fallback=previous, next or nearest, the rate of the closest date on which the currency has a "
+            + "rate is used, and returned as effectiveDate."
     )
     @GetMapping("/convert")
+    @Cacheable(value = "conversions", key = "#currency.toUpperCase() + ':' + #date + ':' + #amount.toPlainString()"
+            + " + (#fallback == null ? '' : ':' + #fallback.toLowerCase())")
     public Object convertToEuro(
             @RequestParam String currency,
             @RequestParam String date,
-            @RequestParam BigDecimal amount
+            @RequestParam BigDecimal amount,
+            @RequestParam(required = false) String fallback
     ) {
         LocalDate targetDate = LocalDate.parse(date);
-        Optional<ExchangeRate> rateOpt = exchangeRateRepository.findByCurrency_CodeAndRateDate(currency.toUpperCase(), targetDate);
+        DateFallback mode = parseFallback(fallback);
+        if (mode == null) {
+            return Map.of("message", invalidFallbackMessage(fallback));
+        }
+
+        String code = currency.toUpperCase();
+        LocalDate effectiveDate = mode == DateFallback.EXACT
+                ? targetDate
+                : rateStore.resolveDate(code, targetDate, mode).orElse(targetDate);
+        Optional<BigDecimal> rateOpt = rateStore.findRate(code, effectiveDate);
 
         if (rateOpt.isEmpty()) {
             return Map.of(
-                    "message", "No exchange rate found for " + currency.toUpperCase() + " on " + targetDate
+                    "message", "No exchange rate found for " + code + " on " + targetDate
             );
         }
 
-        ExchangeRate rate = rateOpt.get();
-
-        BigDecimal eurAmount = amount.divide(rate.getRateValue(), 4, RoundingMode.HALF_UP);
+        BigDecimal eurAmount = conversionPolicy.toEuro(amount, rateOpt.get());
 
         String message = String.format(
                 "On %s, %.2f %s = %.2f EUR",
-                targetDate,
+                effectiveDate,
                 amount,
-                currency.toUpperCase(),
+                code,
                 eurAmount
         );
 
-        return Map.of("message", message);
+        if (mode == DateFallback.EXACT) {
+            return Map.of("message", message);
+        }
+        return Map.of("message", message, "effectiveDate", effectiveDate.toString());
     }
 
+    /** Parses the fallback parameter, or returns null when it is not one of the supported modes */
+    private static DateFallback parseFallback(String fallback) {
+        try {
+            return DateFallback.parse(fallback);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String invalidFallbackMessage(String fallback) {
+        return "Invalid fallback " + fallback + ", expected previous, next or nearest";
+    }
 
+    /** Encodes the (date, currency) key of the last row as an opaque, URL-safe cursor */
+    private static String encodeCursor(LocalDate date, String currencyCode) {
+        String key = date + ":" + currencyCode;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Decodes a cursor into {date, currency}, or returns null if it is malformed */
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = key.split(":", 2);
+            if (parts.length != 2 || parts[1].isEmpty()) return null;
+            LocalDate.parse(parts[0]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return null;
+        }
+    }
 }
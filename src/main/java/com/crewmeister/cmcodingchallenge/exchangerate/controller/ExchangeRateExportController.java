@@ -0,0 +1,86 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.controller;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.service.ExchangeRateExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/rates/export")
+public class ExchangeRateExportController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private final ExchangeRateExportService exportService;
+
+    public ExchangeRateExportController(ExchangeRateExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /** Streams the complete (or filtered) rate history without paging */
+    @Operation(
+            summary = "Export EUR-FX exchange rate history as NDJSON or CSV",
+            description = "Streams all exchange rates, optionally filtered by currencies (comma separated) and an "
+            + "inclusive date range, one row per line. With gzip=true the response is compressed on the fly."
+    )
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportRates(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        ExchangeRateExportService.Format exportFormat;
+        if ("csv".equalsIgnoreCase(format)) {
+            exportFormat = ExchangeRateExportService.Format.CSV;
+        } else if ("ndjson".equalsIgnoreCase(format)) {
+            exportFormat = ExchangeRateExportService.Format.NDJSON;
+        } else {
+            throw new IllegalArgumentException("Invalid format " + format + ", expected ndjson or csv");
+        }
+        Set<String> currencies = currency == null ? Set.of() : Arrays.stream(currency.split(","))
+                .map(code -> code.trim().toUpperCase())
+                .filter(code -> !code.isEmpty())
+                .collect(Collectors.toSet());
+        LocalDate fromDate = from != null ? LocalDate.parse(from) : null;
+        LocalDate toDate = to != null ? LocalDate.parse(to) : null;
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024)) {
+                    exportService.export(compressed, exportFormat, currencies, fromDate, toDate);
+                }
+            } else {
+                exportService.export(out, exportFormat, currencies, fromDate, toDate);
+            }
+        };
+
+        String fileName = "exchange-rates." + (exportFormat == ExchangeRateExportService.Format.CSV ? "csv" : "ndjson");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat == ExchangeRateExportService.Format.CSV ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        if (gzip) response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return response.body(body);
+    }
+
+    /** The streaming return type has no room for a message body, so invalid parameters are answered here */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public Map<String, String> invalidExport(IllegalArgumentException e) {
+        return Map.of("message", e.getMessage());
+    }
+}
@@ -0,0 +1,294 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reader for Bundesbank BBEX3 daily exchange rate CSV files.
+ *
+ * Scans the raw bytes once per line. Data lines ("2021-01-04,1.2265," or "1/4/2021,1.2265")
+ * are decoded in place into an epoch day and an unscaled decimal, without creating Strings
+ * or relying on exceptions for malformed input. Only the single currency header line is
+ * decoded to a String. Lines without a numeric rate (".", empty, invalid) are skipped.
+ */
+public final class BbexCsvReader {
+    private static final Pattern CODE_PATTERN = Pattern.compile("EUR\\s*1\\s*=\\s*([A-Z]{3})");
+    private static final Pattern NAME_PATTERN = Pattern.compile("EUR 1 =\\s*\\w+\\s*\\.\\.\\.\\s*/\\s*(.*)$");
+    private static final Pattern THREE_LETTERS = Pattern.compile("^[A-Z]{3}$");
+
+    private static final byte[] HEADER_MARKER = "EUR 1 =".getBytes(StandardCharsets.US_ASCII);
+    /** Metadata lines that may mention "EUR 1 =" but never carry the currency header. */
+    private static final byte[][] SKIPPED_PREFIXES = {
+            ascii("last update"), ascii("comment"), ascii("source"), ascii("decimals"), ascii("unit")
+    };
+    /** Longest digit run that still fits into a long. */
+    private static final int MAX_DIGITS = 18;
+
+    private final ByteBuffer buffer;
+    private final RateRowHandler handler;
+
+    // Scratch state for the line currently being decoded
+    private int cursor;
+    private int epochDay;
+    private long unscaled;
+    private int scale;
+
+    private BbexCsvReader(ByteBuffer buffer, RateRowHandler handler) {
+        this.buffer = buffer;
+        this.handler = handler;
+    }
+
+    /** Reads a whole CSV stream. The stream is not closed. */
+    public static long read(InputStream in, RateRowHandler handler) throws IOException {
+        return read(ByteBuffer.wrap(in.readAllBytes()), handler);
+    }
+
+    /**
+     * Reads the CSV content between the buffer's position and limit, which stay untouched.
+     * Works on heap as well as direct or memory-mapped buffers.
+     *
+     * @return number of rates passed to {@link RateRowHandler#onRate}
+     */
+    public static long read(ByteBuffer buffer, RateRowHandler handler) {
+        return new BbexCsvReader(buffer, handler).readAll();
+    }
+
+    private long readAll() {
+        int pos = buffer.position();
+        int limit = buffer.limit();
+        boolean headerSeen = false;
+        long rows = 0;
+
+        while (pos < limit) {
+            int end = pos;
+            while (end < limit && buffer.get(end) != '\n') end++;
+
+            int start = pos;
+            int stop = end;
+            while (start < stop && isBlank(buffer.get(start))) start++;
+            while (stop > start && isBlank(buffer.get(stop - 1))) stop--;
+
+            if (start < stop) {
+                if (isDigit(buffer.get(start))) {
+                    if (decodeDataLine(start, stop)) {
+                        handler.onRate(epochDay, unscaled, scale);
+                        rows++;
+                    }
+                } else if (!headerSeen && isCurrencyHeader(start, stop)) {
+                    readHeader(start, stop);
+                    headerSeen = true;
+                }
+            }
+            pos = end + 1;
+        }
+        return rows;
+    }
+
+    /** Decodes "date,rate[,flags]" into the scratch fields; false when there is no usable rate. */
+    private boolean decodeDataLine(int start, int stop) {
+        cursor = start;
+        if (!decodeDate(stop)) return false;
+        if (cursor >= stop || buffer.get(cursor) != ',') return false;
+        cursor++;
+
+        int fieldEnd = cursor;
+        while (fieldEnd < stop && buffer.get(fieldEnd) != ',') fieldEnd++;
+        return decodeDecimal(cursor, fieldEnd);
+    }
+
+    /** Accepts ISO yyyy-MM-dd and Bundesbank M/d/yyyy, leaving the cursor after the date. */
+    private boolean decodeDate(int stop) {
+        int dateStart = cursor;
+        int first = readNumber(stop, 4);
+        if (first < 0 || cursor >= stop) return false;
+
+        int year, month, day;
+        byte separator = buffer.get(cursor);
+        if (separator == '-') {
+            if (cursor - dateStart != 4) return false;
+            year = first;
+            cursor++;
+            month = readNumber(stop, 2);
+            if (month < 0 || cursor >= stop || buffer.get(cursor) != '-') return false;
+            cursor++;
+            day = readNumber(stop, 2);
+        } else if (separator == '/') {
+            month = first;
+            cursor++;
+            day = readNumber(stop, 2);
+            if (day < 0 || cursor >= stop || buffer.get(cursor) != '/') return false;
+            cursor++;
+            int yearStart = cursor;
+            year = readNumber(stop, 4);
+            if (cursor - yearStart != 4) return false;
+        } else {
+            return false;
+        }
+
+        if (day < 1 || month < 1 || month > 12 || day > lengthOfMonth(year, month)) return false;
+        epochDay = toEpochDay(year, month, day);
+        return true;
+    }
+
+    /** Reads up to maxDigits digits at the cursor; -1 when there is none. */
+    private int readNumber(int stop, int maxDigits) {
+        int value = 0;
+        int digits = 0;
+        while (cursor < stop && digits < maxDigits && isDigit(buffer.get(cursor))) {
+            value = value * 10 + (buffer.get(cursor) - '0');
+            cursor++;
+            digits++;
+        }
+        return digits == 0 ? -1 : value;
+    }
+
+    /** Decodes [-]digits[.digits] into unscaled/scale; rejects ".", blanks and anything else. */
+    private boolean decodeDecimal(int from, int to) {
+        while (from < to && isBlank(buffer.get(from))) from++;
+        while (to > from && isBlank(buffer.get(to - 1))) to--;
+        if (from >= to) return false;
+
+        boolean negative = buffer.get(from) == '-';
+        if (negative) from++;
+
+        long value = 0;
+        int digits = 0;
+        int fraction = -1;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && fraction < 0) {
+                fraction = 0;
+            } else if (isDigit(b)) {
+                if (++digits > MAX_DIGITS) return false;
+                value = value * 10 + (b - '0');
+                if (fraction >= 0) fraction++;
+            } else {
+                return false;
+            }
+        }
+        if (digits == 0) return false;
+
+        unscaled = negative ? -value : value;
+        scale = Math.max(fraction, 0);
+        return true;
+    }
+
+    private boolean isCurrencyHeader(int start, int stop) {
+        for (byte[] prefix : SKIPPED_PREFIXES) {
+            if (startsWithIgnoreCase(start, stop, prefix)) return false;
+        }
+        return indexOf(start, stop, HEADER_MARKER) >= 0;
+    }
+
+    /** Decodes the header line once and hands code and name to the handler. */
+    private void readHeader(int start, int stop) {
+        byte[] bytes = new byte[stop - start];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = buffer.get(start + i);
+        String line = new String(bytes, StandardCharsets.UTF_8);
+
+        String[] parts = line.split(",", -1);
+        String metadata = (parts.length > 1 ? parts[1] : line)
+                .replace("\"", "")
+                .replaceAll(",+$", "")
+                .trim();
+
+        handler.onHeader(extractCode(metadata), extractName(metadata));
+    }
+
+    /** Extracts 3-letter ISO currency code (e.g. "USD") from the header line. */
+    static String extractCode(String line) {
+        if (line == null || line.isBlank()) return null;
+        Matcher matcher = CODE_PATTERN.matcher(line);
+        if (matcher.find()) return matcher.group(1).trim();
+
+        for (String token : line.split("\\s+")) {
+            if (THREE_LETTERS.matcher(token).matches()) return token;
+        }
+        return null;
+    }
+
+    /** Extracts country name or description from the header line. */
+    static String extractName(String line) {
+        if (line == null || line.isBlank()) return "Unknown Country";
+
+        Matcher matcher = NAME_PATTERN.matcher(line);
+        if (matcher.find()) {
+            String desc = matcher.group(1).trim().replaceAll("[,]+$", "").trim();
+            if (desc.contains("/")) desc = desc.split("/")[0].trim();
+            return desc;
+        }
+
+        String[] tokens = line.split("/");
+        for (int i = 0; i < tokens.length - 1; i++) {
+            if (tokens[i].contains("...")) {
+                String desc = tokens[i + 1].trim().replaceAll("[,]+$", "").trim();
+                if (desc.contains("/")) desc = desc.split("/")[0].trim();
+                return desc;
+            }
+        }
+
+        return "Unknown Country";
+    }
+
+    private boolean startsWithIgnoreCase(int start, int stop, byte[] lowerCasePrefix) {
+        if (stop - start < lowerCasePrefix.length) return false;
+        for (int i = 0; i < lowerCasePrefix.length; i++) {
+            byte b = buffer.get(start + i);
+            if (b >= 'A' && b <= 'Z') b += 'a' - 'A';
+            if (b != lowerCasePrefix[i]) return false;
+        }
+        return true;
+    }
+
+    private int indexOf(int start, int stop, byte[] needle) {
+        outer:
+        for (int i = start; i <= stop - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (buffer.get(i + j) != needle[j]) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /** Days since 1970-01-01 for a proleptic Gregorian date (days-from-civil). */
+    static int toEpochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,18 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.csv;
+
+/** Receives the rows decoded by {@link BbexCsvReader}, in file order. */
+public interface RateRowHandler {
+
+    /** Called once, when the "EUR 1 = XXX ... / Country" header line is found. */
+    default void onHeader(String currencyCode, String currencyName) {
+    }
+
+    /**
+     * Called for every data line carrying a numeric rate.
+     *
+     * @param epochDay      the observation date as days since 1970-01-01
+     * @param unscaledValue the rate digits without the decimal point
+     * @param scale         number of decimal places, i.e. rate = unscaledValue / 10^scale
+     */
+    void onRate(int epochDay, long unscaledValue, int scale);
+}
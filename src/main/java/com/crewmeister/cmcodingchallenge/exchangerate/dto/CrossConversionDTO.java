@@ -0,0 +1,46 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.dto;
+
+import java.math.BigDecimal;
+
+public class CrossConversionDTO {
+    private String from;
+    private String to;
+    private String date;
+    private BigDecimal amount;
+    private BigDecimal rate;
+    private BigDecimal convertedAmount;
+
+    public CrossConversionDTO(String from, String to, String date, BigDecimal amount, BigDecimal rate,
+                              BigDecimal convertedAmount) {
+        this.from = from;
+        this.to = to;
+        this.date = date;
+        this.amount = amount;
+        this.rate = rate;
+        this.convertedAmount = convertedAmount;
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public BigDecimal getConvertedAmount() {
+        return convertedAmount;
+    }
+}
@@ -0,0 +1,28 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.dto;
+
+import java.util.List;
+
+public class ExchangeRateCursorPageDTO {
+    private List<ExchangeRateDTO> content;
+    private int size;
+    private String nextCursor;
+
+    public ExchangeRateCursorPageDTO(List<ExchangeRateDTO> content, String nextCursor) {
+        this.content = content;
+        this.size = content.size();
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ExchangeRateDTO> getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /** Cursor for the following page, or null when this is the last page. */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -1,14 +1,22 @@
 package com.crewmeister.cmcodingchallenge.exchangerate.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 public class ExchangeRatesForDateDTO {
     private String date;
+    private String effectiveDate;
     private String baseCurrency;
     private List<SimpleRateDTO> rates;
 
     public ExchangeRatesForDateDTO(String date, String baseCurrency, List<SimpleRateDTO> rates) {
+        this(date, null, baseCurrency, rates);
+    }
+
+    public ExchangeRatesForDateDTO(String date, String effectiveDate, String baseCurrency, List<SimpleRateDTO> rates) {
         this.date = date;
+        this.effectiveDate = effectiveDate;
         this.baseCurrency = baseCurrency;
         this.rates = rates;
     }
@@ -16,6 +24,12 @@ public class ExchangeRatesForDateDTO {
         return date;
     }
 
+    /** Date the rates are from, when a fallback was requested; omitted otherwise. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String getEffectiveDate() {
+        return effectiveDate;
+    }
+
     public String getBaseCurrency() {
         return baseCurrency;
     }
@@ -0,0 +1,109 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.dto;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.service.UpdateJob;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+public class UpdateJobDTO {
+    private String jobId;
+    private String state;
+    private boolean fullResync;
+    private int coalescedTriggers;
+    private String submittedAt;
+    private String startedAt;
+    private String finishedAt;
+    private int requestsPlanned;
+    private int requestsCompleted;
+    private int requestsFailed;
+    private int currenciesUpdated;
+    private long bytesFetched;
+    private String error;
+    private List<UpdateRequestDTO> requests;
+
+    public UpdateJobDTO(UpdateJob job) {
+        // Counters are summed from one copy of the request list, so that they always match it
+        List<UpdateJob.RequestRecord> records = job.getRequests();
+        this.requests = new ArrayList<>(records.size());
+        for (UpdateJob.RequestRecord record : records) {
+            this.requests.add(new UpdateRequestDTO(record));
+            if (record.getError() != null) this.requestsFailed++;
+            this.currenciesUpdated += record.getCurrenciesUpdated();
+            this.bytesFetched += record.getBytes();
+        }
+        this.jobId = job.getId();
+        this.state = job.getState().name();
+        this.fullResync = job.isFullResync();
+        this.coalescedTriggers = job.getCoalescedTriggers();
+        this.submittedAt = format(job.getSubmittedAt());
+        this.startedAt = format(job.getStartedAt());
+        this.finishedAt = format(job.getFinishedAt());
+        this.requestsPlanned = job.getRequestsPlanned();
+        this.requestsCompleted = records.size();
+        this.error = job.getError();
+    }
+
+    private static String format(Instant instant) {
+        return instant != null ? instant.toString() : null;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    /** QUEUED, RUNNING, SUCCEEDED or FAILED. */
+    public String getState() {
+        return state;
+    }
+
+    public boolean isFullResync() {
+        return fullResync;
+    }
+
+    /** Further triggers that joined this job instead of starting another update. */
+    public int getCoalescedTriggers() {
+        return coalescedTriggers;
+    }
+
+    public String getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public String getStartedAt() {
+        return startedAt;
+    }
+
+    public String getFinishedAt() {
+        return finishedAt;
+    }
+
+    /** Number of API requests the job makes; 0 until it has started. */
+    public int getRequestsPlanned() {
+        return requestsPlanned;
+    }
+
+    public int getRequestsCompleted() {
+        return requestsCompleted;
+    }
+
+    public int getRequestsFailed() {
+        return requestsFailed;
+    }
+
+    public int getCurrenciesUpdated() {
+        return currenciesUpdated;
+    }
+
+    public long getBytesFetched() {
+        return bytesFetched;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public List<UpdateRequestDTO> getRequests() {
+        return requests;
+    }
+}
@@ -0,0 +1,60 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.dto;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.service.UpdateJob;
+
+public class UpdateRequestDTO {
+    private String currencies;
+    private String startPeriod;
+    private int statusCode;
+    private int attempts;
+    private int bytes;
+    private long elapsedMillis;
+    private int currenciesUpdated;
+    private String error;
+
+    public UpdateRequestDTO(UpdateJob.RequestRecord request) {
+        this.currencies = request.getCurrencies();
+        this.startPeriod = request.getStartPeriod() != null ? request.getStartPeriod().toString() : null;
+        this.statusCode = request.getStatusCode();
+        this.attempts = request.getAttempts();
+        this.bytes = request.getBytes();
+        this.elapsedMillis = request.getElapsedMillis();
+        this.currenciesUpdated = request.getCurrenciesUpdated();
+        this.error = request.getError();
+    }
+
+    /** Requested currency code, or several joined by '+' for a bulk request. */
+    public String getCurrencies() {
+        return currencies;
+    }
+
+    /** First requested date, or null when the full series was requested. */
+    public String getStartPeriod() {
+        return startPeriod;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public int getBytes() {
+        return bytes;
+    }
+
+    /** Time from the first attempt to the response, including rate-limit waits and retries. */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public int getCurrenciesUpdated() {
+        return currenciesUpdated;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
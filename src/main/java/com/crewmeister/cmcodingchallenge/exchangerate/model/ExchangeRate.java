@@ -10,16 +10,23 @@ import java.time.LocalDate;
 @Table(name = "exchange_rates",
     uniqueConstraints = {
             @UniqueConstraint(columnNames={"currency_id", "rate_date"})
+    },
+    indexes = {
+            @Index(name = "idx_exchange_rates_date_currency", columnList = "rate_date, currency_id")
     })
 public class ExchangeRate {
+    /** Sequence-backed id: IDENTITY would force Hibernate to flush every insert on its own. */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "exchange_rate_seq")
+    @SequenceGenerator(name = "exchange_rate_seq", sequenceName = "exchange_rate_seq", allocationSize = 50)
     private Long id;
-    @ManyToOne
+    /** Lazy: read paths use {@code ExchangeRateView} projections and never need the full Currency. */
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "currency_id", nullable = false)
     public Currency currency;
     @Column(name = "rate_date", nullable = false)
     private LocalDate rateDate;
+    @Column(name = "rate_value", precision = 19, scale = 6)
     private BigDecimal rateValue;
 
     public ExchangeRate() {}
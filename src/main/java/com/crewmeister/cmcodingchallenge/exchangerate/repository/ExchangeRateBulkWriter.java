@@ -0,0 +1,40 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.repository;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.model.ExchangeRate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.util.List;
+
+/**
+ * Writes exchange rates through plain JDBC batches instead of one JPA save per row.
+ *
+ * Ids are drawn from the same sequence Hibernate uses for {@link ExchangeRate},
+ * so rows inserted here and rows saved through the repository never collide.
+ * Callers are responsible for filtering out rows that already exist.
+ */
+@Repository
+public class ExchangeRateBulkWriter {
+    private static final String INSERT_SQL =
+            "INSERT INTO exchange_rates (id, currency_id, rate_date, rate_value) "
+            + "VALUES (NEXT VALUE FOR exchange_rate_seq, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExchangeRateBulkWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Inserts all given rates in JDBC batches of {@code batchSize} rows and returns the row count. */
+    public int insertAll(List<ExchangeRate> rates, int batchSize) {
+        if (rates.isEmpty()) return 0;
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, rates, batchSize, (ps, rate) -> {
+            ps.setString(1, rate.getCurrency().getCode());
+            ps.setDate(2, Date.valueOf(rate.getRateDate()));
+            ps.setBigDecimal(3, rate.getRateValue());
+        });
+        return rates.size();
+    }
+}
@@ -9,13 +9,24 @@ import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 
 public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long> {
-    Page<ExchangeRate> findAllByOrderByRateDateAsc(Pageable pageable);
-    List<ExchangeRate> findAllByRateDate(LocalDate rateDate);
-    Optional<ExchangeRate> findByCurrency_CodeAndRateDate(String code, LocalDate rateDate);
-    @Query("SELECT CASE WHEN COUNT(e) > 0 THEN true ELSE false END " +
-            "FROM ExchangeRate e WHERE e.currency.code = :code AND e.rateDate = :date")
-    boolean existsByCurrencyCodeAndRateDate(@Param("code") String code, @Param("date") LocalDate date);
+    @Query(value = "SELECT e.currency.code AS currencyCode, e.rateDate AS rateDate, e.rateValue AS rateValue " +
+            "FROM ExchangeRate e ORDER BY e.rateDate ASC, e.currency.code ASC",
+            countQuery = "SELECT COUNT(e) FROM ExchangeRate e")
+    Page<ExchangeRateView> findAllViewsOrderByRateDate(Pageable pageable);
+    @Query("SELECT e.currency.code AS currencyCode, e.rateDate AS rateDate, e.rateValue AS rateValue " +
+            "FROM ExchangeRate e ORDER BY e.rateDate ASC, e.currency.code ASC")
+    List<ExchangeRateView> findFirstKeysetPage(Pageable pageable);
+    /**
+     * Keyset (seek) page: rows strictly after (date, code). The redundant {@code rateDate >= :date}
+     * bound lets H2 turn the predicate into a range scan on the (rate_date, currency_id) index.
+     */
+    @Query("SELECT e.currency.code AS currencyCode, e.rateDate AS rateDate, e.rateValue AS rateValue " +
+            "FROM ExchangeRate e WHERE e.rateDate >= :date AND (e.rateDate > :date OR e.currency.code > :code) " +
+            "ORDER BY e.rateDate ASC, e.currency.code ASC")
+    List<ExchangeRateView> findKeysetPageAfter(@Param("date") LocalDate date, @Param("code") String code, Pageable pageable);
+    @Query("SELECT e.rateDate FROM ExchangeRate e WHERE e.currency.code = :code")
+    Set<LocalDate> findRateDatesByCurrencyCode(@Param("code") String code);
 }
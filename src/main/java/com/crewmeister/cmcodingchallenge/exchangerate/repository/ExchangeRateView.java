@@ -0,0 +1,17 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of one exchange rate row: just the columns the API returns.
+ * Selecting it reads the currency code straight from the foreign key column, so no
+ * Currency entity is joined, loaded or tracked by the persistence context.
+ */
+public interface ExchangeRateView {
+    String getCurrencyCode();
+
+    LocalDate getRateDate();
+
+    BigDecimal getRateValue();
+}
@@ -0,0 +1,421 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.sdmx;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming reader for Bundesbank SDMX-JSON data messages.
+ *
+ * Walks the token stream once with a Jackson {@link JsonParser}; no tree and no String of the
+ * whole response is built. The time dimension is decoded once into epoch days, and series keys
+ * such as "0:3:0:0:0:0" are resolved to a currency through the position of the BBK_STD_CURRENCY
+ * dimension, so multi-series responses are labelled correctly.
+ *
+ * The Bundesbank sends {@code dataSets} before {@code structure}. Observations that arrive before
+ * the structure are buffered in primitive arrays and emitted once the structure has been read;
+ * when the structure comes first, observations go straight to the handler.
+ */
+public final class SdmxJsonReader {
+    /**
+     * Observation keys are time indexes ("0" .. "9999"): far too many distinct field names for
+     * Jackson's shared symbol table, which would re-intern them on every message.
+     */
+    private static final JsonFactory JSON = JsonFactory.builder()
+            .disable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES)
+            .disable(JsonFactory.Feature.INTERN_FIELD_NAMES)
+            .build();
+    private static final String CURRENCY_DIMENSION = "BBK_STD_CURRENCY";
+    private static final String TIME_DIMENSION = "TIME_PERIOD";
+    private static final DateTimeFormatter US_DATE = DateTimeFormatter.ofPattern("M/d/yyyy");
+    private static final int UNKNOWN_DAY = Integer.MIN_VALUE;
+    /** Longest digit run that still fits into a long. */
+    private static final int MAX_DIGITS = 18;
+
+    private final JsonParser parser;
+    private final SdmxSeriesHandler handler;
+    private long observations;
+
+    // Structure, once read
+    private boolean structureRead;
+    private int[] timeEpochDays = new int[0];
+    private List<String> currencyCodes = new ArrayList<>();
+    private List<String> currencyNames = new ArrayList<>();
+    private int currencyPosition = -1;
+
+    // Observations buffered while the structure is still unknown, one row per observation
+    private final List<int[]> bufferedSeriesKeys = new ArrayList<>();
+    private int[] bufferedSeries = new int[1024];
+    private int[] bufferedTimes = new int[1024];
+    private long[] bufferedValues = new long[1024];
+    private byte[] bufferedScales = new byte[1024];
+    private int bufferedSize;
+
+    // Scratch state for the value being decoded
+    private long unscaled;
+    private int scale;
+
+    private SdmxJsonReader(JsonParser parser, SdmxSeriesHandler handler) {
+        this.parser = parser;
+        this.handler = handler;
+    }
+
+    /**
+     * Reads one SDMX-JSON data message. The stream is not closed.
+     *
+     * @return number of observations passed to {@link SdmxSeriesHandler#onRate}
+     */
+    public static long read(InputStream in, SdmxSeriesHandler handler) throws IOException {
+        try (JsonParser parser = JSON.createParser(in)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            SdmxJsonReader reader = new SdmxJsonReader(parser, handler);
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("SDMX-JSON message must be an object");
+            }
+            reader.readMessage();
+            reader.flushBuffered();
+            return reader.observations;
+        }
+    }
+
+    /** Reads the fields of the message or of its "data" object. */
+    private void readMessage() throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("data".equals(field) && value == JsonToken.START_OBJECT) {
+                readMessage();
+            } else if ("dataSets".equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) readDataSet();
+            } else if ("structure".equals(field) && value == JsonToken.START_OBJECT) {
+                readStructure();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readStructure() throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("dimensions".equals(field)) {
+                readDimensions();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        structureRead = true;
+    }
+
+    private void readDimensions() throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value != JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                continue;
+            }
+
+            int position = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                if ("series".equals(field)) {
+                    readSeriesDimension(position);
+                } else if ("observation".equals(field)) {
+                    readObservationDimension();
+                } else {
+                    parser.skipChildren();
+                }
+                position++;
+            }
+        }
+    }
+
+    /** Keeps the codes and names of the BBK_STD_CURRENCY series dimension and its key position. */
+    private void readSeriesDimension(int position) throws IOException {
+        String id = null;
+        List<String> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field)) {
+                id = parser.getText();
+            } else if ("values".equals(field) && value == JsonToken.START_ARRAY) {
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    String valueId = null;
+                    String valueName = null;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String valueField = parser.getCurrentName();
+                        parser.nextToken();
+                        if ("id".equals(valueField)) valueId = parser.getText();
+                        else if ("name".equals(valueField)) valueName = parser.getText();
+                        else parser.skipChildren();
+                    }
+                    ids.add(valueId);
+                    names.add(valueName != null ? valueName : valueId);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (CURRENCY_DIMENSION.equals(id)) {
+            currencyPosition = position;
+            currencyCodes = ids;
+            currencyNames = names;
+        }
+    }
+
+    /**
+     * Decodes the TIME_PERIOD observation dimension once into one epoch day per time index.
+     * ISO dates are decoded straight from the parser's character buffer.
+     */
+    private void readObservationDimension() throws IOException {
+        String id = null;
+        int[] epochDays = new int[0];
+        int size = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("id".equals(field)) {
+                id = parser.getText();
+            } else if ("values".equals(field) && value == JsonToken.START_ARRAY) {
+                epochDays = new int[1024];
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    int epochDay = UNKNOWN_DAY;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        boolean isId = "id".equals(parser.getCurrentName());
+                        parser.nextToken();
+                        if (isId) epochDay = decodeDate();
+                        else parser.skipChildren();
+                    }
+                    if (size == epochDays.length) epochDays = Arrays.copyOf(epochDays, size * 2);
+                    epochDays[size++] = epochDay;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (TIME_DIMENSION.equals(id)) {
+            timeEpochDays = Arrays.copyOf(epochDays, size);
+        }
+    }
+
+    private void readDataSet() throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("series".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    int[] seriesKey = parseSeriesKey(parser.getCurrentName());
+                    parser.nextToken();
+                    readSeries(seriesKey);
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private void readSeries(int[] seriesKey) throws IOException {
+        boolean direct = structureRead;
+        int seriesIndex = bufferedSeriesKeys.size();
+        if (direct) {
+            startSeries(seriesKey);
+        } else {
+            bufferedSeriesKeys.add(seriesKey);
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (!"observations".equals(field) || value != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                int timeIndex = decodeIndex();
+                parser.nextToken();
+                if (!readObservationValue()) continue;
+
+                if (direct) {
+                    emit(timeIndex);
+                } else {
+                    buffer(seriesIndex, timeIndex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes the first element of an observation array ("1.1789", 1.1789 or null) into
+     * {@link #unscaled} and {@link #scale}, and skips the attribute indexes that follow.
+     */
+    private boolean readObservationValue() throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return false;
+        }
+        boolean valid = false;
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.VALUE_STRING || token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT) {
+            valid = decodeDecimal(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        }
+        while (token != JsonToken.END_ARRAY && token != null) {
+            parser.skipChildren();
+            token = parser.nextToken();
+        }
+        return valid;
+    }
+
+    private void startSeries(int[] seriesKey) throws IOException {
+        if (currencyPosition < 0) {
+            throw new IOException("SDMX-JSON structure has no " + CURRENCY_DIMENSION + " dimension");
+        }
+        int valueIndex = currencyPosition < seriesKey.length ? seriesKey[currencyPosition] : -1;
+        if (valueIndex < 0 || valueIndex >= currencyCodes.size()) {
+            throw new IOException("Series key " + Arrays.toString(seriesKey) + " has no known currency");
+        }
+        handler.onSeries(currencyCodes.get(valueIndex), currencyNames.get(valueIndex));
+    }
+
+    private void emit(int timeIndex) {
+        if (timeIndex < 0 || timeIndex >= timeEpochDays.length || timeEpochDays[timeIndex] == UNKNOWN_DAY) return;
+        handler.onRate(timeEpochDays[timeIndex], unscaled, scale);
+        observations++;
+    }
+
+    private void buffer(int seriesIndex, int timeIndex) {
+        if (bufferedSize == bufferedSeries.length) {
+            int capacity = bufferedSize * 2;
+            bufferedSeries = Arrays.copyOf(bufferedSeries, capacity);
+            bufferedTimes = Arrays.copyOf(bufferedTimes, capacity);
+            bufferedValues = Arrays.copyOf(bufferedValues, capacity);
+            bufferedScales = Arrays.copyOf(bufferedScales, capacity);
+        }
+        bufferedSeries[bufferedSize] = seriesIndex;
+        bufferedTimes[bufferedSize] = timeIndex;
+        bufferedValues[bufferedSize] = unscaled;
+        bufferedScales[bufferedSize] = (byte) scale;
+        bufferedSize++;
+    }
+
+    /** Emits the observations that arrived before the structure, series by series in arrival order. */
+    private void flushBuffered() throws IOException {
+        if (bufferedSeriesKeys.isEmpty()) return;
+        if (!structureRead) {
+            throw new IOException("SDMX-JSON message has data but no structure");
+        }
+
+        int current = -1;
+        for (int i = 0; i < bufferedSize; i++) {
+            if (bufferedSeries[i] != current) {
+                current = bufferedSeries[i];
+                startSeries(bufferedSeriesKeys.get(current));
+            }
+            unscaled = bufferedValues[i];
+            scale = bufferedScales[i];
+            emit(bufferedTimes[i]);
+        }
+    }
+
+    /** Decodes the current "yyyy-MM-dd" (or "M/d/yyyy") string token into an epoch day. */
+    private int decodeDate() throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_STRING) return UNKNOWN_DAY;
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+
+        if (length == 10 && chars[offset + 4] == '-' && chars[offset + 7] == '-') {
+            int year = digits(chars, offset, 4);
+            int month = digits(chars, offset + 5, 2);
+            int day = digits(chars, offset + 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                try {
+                    return (int) LocalDate.of(year, month, day).toEpochDay();
+                } catch (DateTimeException e) {
+                    return UNKNOWN_DAY;
+                }
+            }
+        }
+        try {
+            return (int) LocalDate.parse(parser.getText(), US_DATE).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return UNKNOWN_DAY;
+        }
+    }
+
+    /** Decodes the current field name, an observation's time index, without creating a String. */
+    private int decodeIndex() throws IOException {
+        char[] chars = parser.getTextCharacters();
+        int length = parser.getTextLength();
+        int index = length > 0 && length < 10 ? digits(chars, parser.getTextOffset(), length) : -1;
+        if (index < 0) throw new IOException("Invalid SDMX-JSON index: " + parser.getText());
+        return index;
+    }
+
+    /** Value of {@code count} decimal digits, or -1 if any of them is not a digit. */
+    private static int digits(char[] chars, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int[] parseSeriesKey(String key) throws IOException {
+        String[] parts = key.split(":");
+        int[] indexes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) indexes[i] = parseIndex(parts[i]);
+        return indexes;
+    }
+
+    private static int parseIndex(String value) throws IOException {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid SDMX-JSON index: " + value);
+        }
+    }
+
+    /** Decodes a plain positive decimal such as "1.1789" without creating objects. */
+    private boolean decodeDecimal(char[] chars, int offset, int length) {
+        int end = offset + length;
+        while (offset < end && chars[offset] == ' ') offset++;
+        while (end > offset && chars[end - 1] == ' ') end--;
+
+        long digits = 0;
+        int count = 0;
+        int fraction = -1;
+        for (int i = offset; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                if (++count > MAX_DIGITS) return false;
+                digits = digits * 10 + (c - '0');
+                if (fraction >= 0) fraction++;
+            } else if (c == '.' && fraction < 0) {
+                fraction = 0;
+            } else {
+                return false;
+            }
+        }
+        if (count == 0) return false;
+
+        unscaled = digits;
+        scale = Math.max(fraction, 0);
+        return true;
+    }
+}
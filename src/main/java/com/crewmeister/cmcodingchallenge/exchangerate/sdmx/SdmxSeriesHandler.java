@@ -0,0 +1,17 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.sdmx;
+
+/** Receives the series and observations decoded by {@link SdmxJsonReader}, series by series. */
+public interface SdmxSeriesHandler {
+
+    /** Called before the observations of each series, with the series' BBK_STD_CURRENCY value. */
+    void onSeries(String currencyCode, String currencyName);
+
+    /**
+     * Called for every observation of the current series that carries a numeric value.
+     *
+     * @param epochDay      the observation date as days since 1970-01-01
+     * @param unscaledValue the rate digits without the decimal point
+     * @param scale         number of decimal places, i.e. rate = unscaledValue / 10^scale
+     */
+    void onRate(int epochDay, long unscaledValue, int scale);
+}
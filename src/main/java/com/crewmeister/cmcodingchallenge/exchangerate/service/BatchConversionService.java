@@ -0,0 +1,266 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts many (currency, date, amount) items to EUR in one pass.
+ *
+ *  - The body is read with a streaming Jackson parser, either as a JSON array or as NDJSON
+ *    (one object per line), into parallel arrays
+ *  - Items are sorted by currency and date through packed long keys, so each distinct rate is
+ *    looked up in the {@link RateStore} once and equal rates are converted back to back
+ *  - Results are written in request order; an item that cannot be converted gets an inline
+ *    error instead of failing the batch
+ *
+ * Amounts are rounded by the {@link ConversionPolicy}, like the single conversion endpoint.
+ */
+@Service
+public class BatchConversionService {
+    private static final JsonFactory JSON = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    /** Items, epoch days and currencies are packed into one sort key of 24 + 24 + 16 bits. */
+    private static final int MAX_PACKED_ITEMS = 1 << 24;
+    private static final int MAX_PACKED_DAY = (1 << 24) - 1;
+    private static final int MAX_PACKED_CURRENCIES = 1 << 16;
+
+    private final RateStore rateStore;
+    private final ConversionPolicy policy;
+    private final int maxItems;
+
+    public BatchConversionService(RateStore rateStore,
+                                  ConversionPolicy policy,
+                                  @Value("${conversion.batch-max-items:1000000}") int maxItems) {
+        this.rateStore = rateStore;
+        this.policy = policy;
+        this.maxItems = Math.min(maxItems, MAX_PACKED_ITEMS);
+    }
+
+    /** Parsed items and, after {@link #convert}, their results; all arrays are indexed by request position. */
+    public static class Batch {
+        private final List<String> currencyCodes = new ArrayList<>();
+        private final Map<String, Integer> currencyIds = new HashMap<>();
+        /** Batches repeat a few dozen dates; each distinct date is parsed and formatted once. */
+        private final Map<String, Integer> epochDaysByText = new HashMap<>();
+        private final Map<Integer, String> textsByEpochDay = new HashMap<>();
+        private int[] currencies = new int[256];
+        private int[] epochDays = new int[256];
+        private BigDecimal[] amounts = new BigDecimal[256];
+        private BigDecimal[] rates = new BigDecimal[256];
+        private BigDecimal[] eurAmounts = new BigDecimal[256];
+        private String[] errors = new String[256];
+        private int size;
+        private int distinctRates;
+
+        public int size() {
+            return size;
+        }
+
+        /** Number of (currency, date) pairs that were resolved, each once. */
+        public int getDistinctRates() {
+            return distinctRates;
+        }
+
+        private int add() {
+            if (size == currencies.length) {
+                int capacity = size * 2;
+                currencies = Arrays.copyOf(currencies, capacity);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                rates = Arrays.copyOf(rates, capacity);
+                eurAmounts = Arrays.copyOf(eurAmounts, capacity);
+                errors = Arrays.copyOf(errors, capacity);
+            }
+            currencies[size] = -1;
+            epochDays[size] = -1;
+            return size++;
+        }
+
+        private int currencyId(String code) {
+            return currencyIds.computeIfAbsent(code, c -> {
+                currencyCodes.add(c);
+                return currencyCodes.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Reads a JSON array or NDJSON stream of {"currency": "USD", "date": "2025-10-10", "amount": 122.65}
+     * objects. Items with missing or invalid fields are kept and marked with an error.
+     *
+     * @throws IOException              if the body is not well-formed JSON
+     * @throws IllegalArgumentException if the batch has more than conversion.batch-max-items items
+     */
+    public Batch read(InputStream in) throws IOException {
+        Batch batch = new Batch();
+        try (JsonParser parser = JSON.createParser(in)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) token = parser.nextToken();
+
+            while (token != null && !(array && token == JsonToken.END_ARRAY)) {
+                if (batch.size() == maxItems) {
+                    throw new IllegalArgumentException("A batch can hold at most " + maxItems + " items");
+                }
+                readItem(parser, batch, batch.add());
+                token = parser.nextToken();
+            }
+            if (array && token == null) throw new IOException("Unterminated JSON array");
+        }
+        return batch;
+    }
+
+    /** Resolves every distinct (currency, date) rate once and converts all items. */
+    public void convert(Batch batch) {
+        long[] keys = new long[batch.size];
+        int count = 0;
+        for (int i = 0; i < batch.size; i++) {
+            if (batch.errors[i] == null) {
+                keys[count++] = (long) batch.currencies[i] << 48 | (long) batch.epochDays[i] << 24 | i;
+            }
+        }
+        Arrays.sort(keys, 0, count);
+
+        RateSeries series = null;
+        BigDecimal rate = null;
+        long group = -1;
+        for (int k = 0; k < count; k++) {
+            int item = (int) (keys[k] & 0xFFFFFF);
+            if (keys[k] >>> 24 != group) {
+                if (keys[k] >>> 48 != group >>> 24) {
+                    series = rateStore.series(batch.currencyCodes.get(batch.currencies[item])).orElse(null);
+                }
+                group = keys[k] >>> 24;
+                long scaled = series == null ? Long.MIN_VALUE : series.scaledValueOn(batch.epochDays[item]);
+                rate = scaled == Long.MIN_VALUE || scaled == 0 ? null : RateSeries.toDecimal(scaled);
+                batch.distinctRates++;
+            }
+
+            if (rate == null) {
+                batch.errors[item] = "No exchange rate found for " + batch.currencyCodes.get(batch.currencies[item])
+                        + " on " + LocalDate.ofEpochDay(batch.epochDays[item]);
+            } else {
+                batch.rates[item] = rate;
+                batch.eurAmounts[item] = policy.toEuro(batch.amounts[item], rate);
+            }
+        }
+    }
+
+    /** Writes one result per item in request order, as a JSON array or as NDJSON. */
+    public void write(Batch batch, OutputStream out, boolean ndjson) throws IOException {
+        try (JsonGenerator generator = JSON.createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            if (!ndjson) generator.writeStartArray();
+            for (int i = 0; i < batch.size; i++) {
+                generator.writeStartObject();
+                generator.writeNumberField("index", i);
+                if (batch.currencies[i] >= 0) {
+                    generator.writeStringField("currency", batch.currencyCodes.get(batch.currencies[i]));
+                }
+                if (batch.epochDays[i] >= 0) {
+                    generator.writeStringField("date", batch.textsByEpochDay.get(batch.epochDays[i]));
+                }
+                if (batch.amounts[i] != null) generator.writeNumberField("amount", batch.amounts[i]);
+                if (batch.errors[i] != null) {
+                    generator.writeStringField("error", batch.errors[i]);
+                } else {
+                    generator.writeNumberField("rate", batch.rates[i]);
+                    generator.writeNumberField("eurAmount", batch.eurAmounts[i]);
+                }
+                generator.writeEndObject();
+                if (ndjson) generator.writeRaw('\n');
+            }
+            if (!ndjson) generator.writeEndArray();
+        }
+    }
+
+    private void readItem(JsonParser parser, Batch batch, int item) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            batch.errors[item] = "Item must be an object with currency, date and amount";
+            return;
+        }
+
+        String currency = null;
+        String date = null;
+        BigDecimal amount = null;
+        String error = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) continue;
+            switch (field) {
+                case "currency":
+                    currency = value.isScalarValue() ? parser.getText().trim().toUpperCase() : null;
+                    break;
+                case "date":
+                    date = value.isScalarValue() ? parser.getText().trim() : null;
+                    break;
+                case "amount":
+                    if (value.isNumeric()) {
+                        amount = parser.getDecimalValue();
+                    } else if (value == JsonToken.VALUE_STRING) {
+                        try {
+                            amount = new BigDecimal(parser.getText().trim());
+                        } catch (NumberFormatException e) {
+                            error = "Invalid amount " + parser.getText();
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+            parser.skipChildren();
+        }
+
+        batch.amounts[item] = amount;
+        if (currency != null && !currency.isEmpty()) {
+            if (batch.currencyCodes.size() == MAX_PACKED_CURRENCIES && !batch.currencyIds.containsKey(currency)) {
+                error = "Too many distinct currencies in one batch";
+            } else {
+                batch.currencies[item] = batch.currencyId(currency);
+            }
+        }
+        Integer knownDay = date != null ? batch.epochDaysByText.get(date) : null;
+        if (knownDay != null) {
+            batch.epochDays[item] = knownDay;
+        } else if (date != null) {
+            try {
+                LocalDate parsed = LocalDate.parse(date);
+                long epochDay = parsed.toEpochDay();
+                if (epochDay >= 0 && epochDay <= MAX_PACKED_DAY) {
+                    batch.epochDays[item] = (int) epochDay;
+                    batch.epochDaysByText.put(date, (int) epochDay);
+                    batch.textsByEpochDay.putIfAbsent((int) epochDay, parsed.toString());
+                } else {
+                    // Rates start in 1999, so dates outside the packed range can only be a miss
+                    error = "No exchange rate found for " + currency + " on " + parsed;
+                }
+            } catch (DateTimeException e) {
+                error = "Invalid date " + date + " (expected YYYY-MM-DD)";
+            }
+        }
+
+        if (error == null && batch.currencies[item] < 0) error = "Missing currency";
+        if (error == null && date == null) error = "Missing date";
+        if (error == null && amount == null) error = "Missing amount";
+        batch.errors[item] = error;
+    }
+}
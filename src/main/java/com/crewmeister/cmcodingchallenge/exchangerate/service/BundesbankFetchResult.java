@@ -0,0 +1,81 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import java.time.LocalDate;
+
+/** Outcome of one Bundesbank API request (one currency, or several in bulk mode), including retries. */
+public class BundesbankFetchResult {
+    private final String currencyCode;
+    private final LocalDate startPeriod;
+    private final byte[] body;
+    private final String error;
+    private final int statusCode;
+    private final int attempts;
+    private final long elapsedNanos;
+
+    private BundesbankFetchResult(String currencyCode, LocalDate startPeriod, byte[] body, String error,
+                                  int statusCode, int attempts, long elapsedNanos) {
+        this.currencyCode = currencyCode;
+        this.startPeriod = startPeriod;
+        this.body = body;
+        this.error = error;
+        this.statusCode = statusCode;
+        this.attempts = attempts;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    static BundesbankFetchResult success(String currencyCode, LocalDate startPeriod, byte[] body, int attempts,
+                                         long elapsedNanos) {
+        return new BundesbankFetchResult(currencyCode, startPeriod, body, null, 200, attempts, elapsedNanos);
+    }
+
+    static BundesbankFetchResult failed(String currencyCode, LocalDate startPeriod, String error, int statusCode,
+                                        int attempts, long elapsedNanos) {
+        return new BundesbankFetchResult(currencyCode, startPeriod, null, error, statusCode, attempts, elapsedNanos);
+    }
+
+    /** The requested currency code, or several joined by '+' for a bulk request. */
+    public String getCurrencyCode() {
+        return currencyCode;
+    }
+
+    /** First requested date, or null when the full series was requested. */
+    public LocalDate getStartPeriod() {
+        return startPeriod;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /** Raw response body, or null when the fetch failed. */
+    public byte[] getBody() {
+        return body;
+    }
+
+    public int getBytes() {
+        return body == null ? 0 : body.length;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /** HTTP status of the last attempt, or 0 when no response was received. */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /** True when the API answered that there are no observations, e.g. none after the requested start date. */
+    public boolean isNoData() {
+        return statusCode == 404;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /** Wall time from the first attempt to the result, including rate-limit waits and backoff. */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
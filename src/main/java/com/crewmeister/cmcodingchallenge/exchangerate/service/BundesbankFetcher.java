@@ -0,0 +1,233 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Downloads exchange rate series from the Bundesbank SDMX REST API.
+ *
+ * All requests go through one shared {@link HttpClient}, so connections are kept alive and
+ * reused, and through one {@link TokenBucketRateLimiter} that spaces the requests.
+ * {@link #fetchRequests} runs up to {@code bundesbank.concurrency} requests at a time on a pool of
+ * fetch threads and hands each result to the calling thread, which stays the single writer.
+ * Connection errors, HTTP 429 and 5xx responses are retried with exponential backoff.
+ *
+ * A series can be requested from a start date on ({@code startPeriod}), so that the daily
+ * update downloads only the few observations it does not have yet.
+ *
+ * In bulk mode ({@code bundesbank.group-size} > 1) several currencies are requested with one
+ * OR'ed key such as {@code D.USD+JPY+GBP.EUR.BB.AC.000}; the response then holds one series per
+ * currency, told apart by the BBK_STD_CURRENCY position of each series key.
+ */
+@Component
+public class BundesbankFetcher {
+    private static final String SERIES_PATH = "data/BBEX3/D.%s.EUR.BB.AC.000";
+    /** Currencies share a bulk request only if their start periods lie at most this far apart. */
+    private static final int MAX_GROUP_SPREAD_DAYS = 31;
+
+    private final HttpClient httpClient;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final String baseUrl;
+    private final int concurrency;
+    private final int groupSize;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final Duration timeout;
+
+    public BundesbankFetcher(@Value("${bundesbank.api.url}") String baseUrl,
+                             @Value("${bundesbank.concurrency:4}") int concurrency,
+                             @Value("${bundesbank.group-size:25}") int groupSize,
+                             @Value("${bundesbank.requests-per-second:2}") double requestsPerSecond,
+                             @Value("${bundesbank.burst:4}") int burst,
+                             @Value("${bundesbank.max-attempts:3}") int maxAttempts,
+                             @Value("${bundesbank.retry-backoff-ms:500}") long retryBackoffMillis,
+                             @Value("${bundesbank.timeout-ms:10000}") long timeoutMillis) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        this.concurrency = Math.max(concurrency, 1);
+        this.groupSize = Math.max(groupSize, 1);
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.rateLimiter = new TokenBucketRateLimiter(requestsPerSecond, burst);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * Runs requests planned by {@link #groupRequests} concurrently and passes every result to
+     * {@code consumer} on the calling thread, in completion order. Failed fetches are passed on as
+     * well, never thrown. Callers plan the requests first, so that they know how many results to expect.
+     *
+     * @param requests request keys ("USD" or "USD+JPY+...") mapped to their start period, or to null
+     */
+    public void fetchRequests(Map<String, LocalDate> requests, Consumer<BundesbankFetchResult> consumer) {
+        if (requests.isEmpty()) return;
+
+        BlockingQueue<BundesbankFetchResult> results = new ArrayBlockingQueue<>(concurrency);
+        ExecutorService fetchers = Executors.newFixedThreadPool(
+                Math.min(concurrency, requests.size()), namedThreads("bundesbank-fetch-"));
+
+        try {
+            // Every task puts exactly one result on the queue, successful or not
+            requests.forEach((key, startPeriod) -> fetchers.execute(() -> {
+                long startNanos = System.nanoTime();
+                BundesbankFetchResult result;
+                try {
+                    result = fetch(key, startPeriod);
+                } catch (Throwable e) {
+                    // Errors too, or the calling thread would wait for this result forever
+                    result = BundesbankFetchResult.failed(key, startPeriod, describe(e), 0, 0, System.nanoTime() - startNanos);
+                }
+                try {
+                    results.put(result);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+
+            for (int i = 0; i < requests.size(); i++) {
+                consumer.accept(results.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("### Bundesbank fetch interrupted");
+        } finally {
+            fetchers.shutdownNow();
+        }
+    }
+
+    /**
+     * Splits the currencies into request keys ("USD+JPY+...") of at most {@link #groupSize} codes.
+     * Currencies are sorted by start period and only grouped while their start periods stay within
+     * {@value #MAX_GROUP_SPREAD_DAYS} days, so that a discontinued currency does not pull years of
+     * history for the active ones. Each group starts at its earliest start period.
+     */
+    public Map<String, LocalDate> groupRequests(Map<String, LocalDate> startPeriods) {
+        List<Map.Entry<String, LocalDate>> entries = new ArrayList<>(startPeriods.entrySet());
+        entries.sort(Map.Entry.comparingByValue(Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        Map<String, LocalDate> requests = new LinkedHashMap<>();
+        StringJoiner key = null;
+        LocalDate groupStart = null;
+        int members = 0;
+        for (Map.Entry<String, LocalDate> entry : entries) {
+            LocalDate start = entry.getValue();
+            boolean fits = key != null && members < groupSize && (groupStart == null
+                    ? start == null
+                    : start != null && !start.isAfter(groupStart.plusDays(MAX_GROUP_SPREAD_DAYS)));
+            if (!fits) {
+                if (key != null) requests.put(key.toString(), groupStart);
+                key = new StringJoiner("+");
+                groupStart = start;
+                members = 0;
+            }
+            key.add(entry.getKey());
+            members++;
+        }
+        if (key != null) requests.put(key.toString(), groupStart);
+        return requests;
+    }
+
+    /**
+     * Fetches one currency series on the calling thread, retrying transient failures.
+     *
+     * @param currencyCode one currency code, or several joined by '+' for a bulk request
+     * @param startPeriod  first date to fetch, or null for the full series
+     */
+    public BundesbankFetchResult fetch(String currencyCode, LocalDate startPeriod) {
+        long startNanos = System.nanoTime();
+        String url = baseUrl + String.format(SERIES_PATH, currencyCode)
+                + (startPeriod != null ? "?startPeriod=" + startPeriod : "");
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Accept", "application/vnd.sdmx.data+json")
+                .timeout(timeout)
+                .GET()
+                .build();
+
+        String error = null;
+        int lastStatus = 0;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            long backoffMillis = retryBackoffMillis << (attempt - 1);
+            try {
+                rateLimiter.acquire();
+                HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                int status = response.statusCode();
+                lastStatus = status;
+                if (status == 200) {
+                    return BundesbankFetchResult.success(currencyCode, startPeriod, response.body(), attempt, System.nanoTime() - startNanos);
+                }
+
+                error = "HTTP " + status;
+                if (status != 429 && status < 500) {
+                    return BundesbankFetchResult.failed(currencyCode, startPeriod, error, status, attempt, System.nanoTime() - startNanos);
+                }
+                backoffMillis = Math.max(backoffMillis, retryAfterMillis(response.headers()));
+            } catch (IOException e) {
+                lastStatus = 0;
+                error = describe(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return BundesbankFetchResult.failed(currencyCode, startPeriod, "interrupted", 0, attempt, System.nanoTime() - startNanos);
+            }
+
+            if (attempt < maxAttempts) {
+                System.out.printf("### %s attempt %d failed (%s), retrying in %d ms%n", currencyCode, attempt, error, backoffMillis);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoffMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return BundesbankFetchResult.failed(currencyCode, startPeriod, "interrupted", 0, attempt, System.nanoTime() - startNanos);
+                }
+            }
+        }
+        return BundesbankFetchResult.failed(currencyCode, startPeriod, error, lastStatus, maxAttempts, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Retry-After in milliseconds when given in seconds, else 0. The HTTP-date form is not
+     * honoured, so a far-off date cannot stall the update; our own backoff applies instead.
+     */
+    private static long retryAfterMillis(HttpHeaders headers) {
+        String value = headers.firstValue("Retry-After").orElse("").trim();
+        if (value.isEmpty() || value.length() > 9 || !value.chars().allMatch(c -> c >= '0' && c <= '9')) return 0;
+        return Long.parseLong(value) * 1000;
+    }
+
+    private static String describe(Throwable e) {
+        return e.getClass().getSimpleName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
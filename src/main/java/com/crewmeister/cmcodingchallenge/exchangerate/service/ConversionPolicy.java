@@ -0,0 +1,59 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Precision and rounding rules shared by all conversion endpoints.
+ *
+ *  - Foreign amount to EUR: amount / EUR rate, rounded to conversion.amount-scale decimal places
+ *  - Cross rate (1 unit of the source currency in the target currency): target EUR rate / source
+ *    EUR rate, rounded to conversion.rate-precision significant digits
+ *  - Cross conversion: amount × cross rate, rounded to conversion.amount-scale decimal places
+ *  - Every rounding uses conversion.rounding-mode
+ */
+@Component
+public class ConversionPolicy {
+    private final int amountScale;
+    private final MathContext rateContext;
+    private final RoundingMode roundingMode;
+
+    public ConversionPolicy(@Value("${conversion.amount-scale:4}") int amountScale,
+                            @Value("${conversion.rate-precision:10}") int ratePrecision,
+                            @Value("${conversion.rounding-mode:HALF_UP}") RoundingMode roundingMode) {
+        this.amountScale = amountScale;
+        this.rateContext = new MathContext(ratePrecision, roundingMode);
+        this.roundingMode = roundingMode;
+    }
+
+    /** Converts an amount of a foreign currency to EUR, given the EUR rate (units per 1 EUR). */
+    public BigDecimal toEuro(BigDecimal amount, BigDecimal eurRate) {
+        return amount.divide(eurRate, amountScale, roundingMode);
+    }
+
+    /** Rate from the source to the target currency, triangulated through both EUR rates. */
+    public BigDecimal crossRate(BigDecimal sourceEurRate, BigDecimal targetEurRate) {
+        return targetEurRate.divide(sourceEurRate, rateContext);
+    }
+
+    /** Converts an amount with a cross rate. */
+    public BigDecimal applyRate(BigDecimal amount, BigDecimal crossRate) {
+        return amount.multiply(crossRate).setScale(amountScale, roundingMode);
+    }
+
+    public int getAmountScale() {
+        return amountScale;
+    }
+
+    public int getRatePrecision() {
+        return rateContext.getPrecision();
+    }
+
+    public RoundingMode getRoundingMode() {
+        return roundingMode;
+    }
+}
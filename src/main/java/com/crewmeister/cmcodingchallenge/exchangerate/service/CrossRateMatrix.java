@@ -0,0 +1,67 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RatesOnDate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * All cross rates of one date: an N×N matrix over the currencies quoted that day plus EUR,
+ * built from a single {@link RatesOnDate} slice so every pair uses the same EUR rates.
+ */
+final class CrossRateMatrix {
+    private final String[] codes;
+    private final BigDecimal[] rates;
+
+    private CrossRateMatrix(String[] codes, BigDecimal[] rates) {
+        this.codes = codes;
+        this.rates = rates;
+    }
+
+    static CrossRateMatrix of(RatesOnDate slice, ConversionPolicy policy) {
+        int n = slice.size() + 1;
+        String[] codes = new String[n];
+        BigDecimal[] eurRates = new BigDecimal[n];
+        for (int i = 0; i < slice.size(); i++) {
+            codes[i] = slice.currencyAt(i);
+            eurRates[i] = slice.valueAt(i);
+        }
+        codes[n - 1] = CrossRateService.EUR;
+        eurRates[n - 1] = BigDecimal.ONE;
+
+        // Keep the codes sorted so that lookups are a binary search
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> codes[a].compareTo(codes[b]));
+        String[] sortedCodes = new String[n];
+        BigDecimal[] sortedRates = new BigDecimal[n];
+        for (int i = 0; i < n; i++) {
+            sortedCodes[i] = codes[order[i]];
+            sortedRates[i] = eurRates[order[i]];
+        }
+
+        BigDecimal[] rates = new BigDecimal[n * n];
+        for (int from = 0; from < n; from++) {
+            for (int to = 0; to < n; to++) {
+                if (from == to) {
+                    rates[from * n + to] = BigDecimal.ONE;
+                } else if (sortedRates[from].signum() != 0) {
+                    rates[from * n + to] = policy.crossRate(sortedRates[from], sortedRates[to]);
+                }
+            }
+        }
+        return new CrossRateMatrix(sortedCodes, rates);
+    }
+
+    /** Rate from one currency to another, or null when either has no (usable) rate on this date. */
+    BigDecimal rate(String from, String to) {
+        int row = Arrays.binarySearch(codes, from);
+        int column = Arrays.binarySearch(codes, to);
+        if (row < 0 || column < 0) return null;
+        return rates[row * codes.length + column];
+    }
+
+    int size() {
+        return codes.length;
+    }
+}
@@ -0,0 +1,102 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import com.crewmeister.cmcodingchallenge.config.CacheConfig;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RatesOnDate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Converts between any two currencies by triangulating through their EUR rates.
+ *
+ *  - Both EUR rates come from one {@link RatesOnDate} slice, so a pair never mixes two store versions
+ *  - The most recent conversion.cross-rates.hot-days dates with rates get a precomputed N×N
+ *    {@link CrossRateMatrix}, rebuilt after the startup import and after every update
+ *  - Other dates are memoised per (date, from, to) in the bounded crossRates cache
+ *  - Precision and rounding follow the {@link ConversionPolicy}
+ */
+@Service
+public class CrossRateService {
+    static final String EUR = "EUR";
+    /** Weekends and holidays have no rates, so look back a little further than the number of hot dates. */
+    private static final int MAX_LOOKBACK_DAYS = 31;
+
+    private final RateStore rateStore;
+    private final ConversionPolicy policy;
+    private final Cache memo;
+    private final int hotDays;
+    private volatile Map<Integer, CrossRateMatrix> hotMatrices = Map.of();
+
+    public CrossRateService(RateStore rateStore,
+                            ConversionPolicy policy,
+                            CacheManager cacheManager,
+                            @Value("${conversion.cross-rates.hot-days:5}") int hotDays) {
+        this.rateStore = rateStore;
+        this.policy = policy;
+        this.memo = cacheManager.getCache(CacheConfig.CROSS_RATES);
+        this.hotDays = hotDays;
+    }
+
+    /**
+     * Rate from one currency to another on a date: the amount of {@code to} that one unit
+     * of {@code from} buys. EUR can be used on either side.
+     *
+     * @return the rate, or empty when either currency has no rate on that date
+     */
+    public Optional<BigDecimal> crossRate(String from, String to, LocalDate date) {
+        CrossRateMatrix hot = hotMatrices.get((int) date.toEpochDay());
+        if (hot != null) return Optional.ofNullable(hot.rate(from, to));
+
+        String key = date + ":" + from + ":" + to;
+        BigDecimal rate = memo.get(key, BigDecimal.class);
+        if (rate != null) return Optional.of(rate);
+
+        RatesOnDate slice = rateStore.ratesOn(date);
+        BigDecimal fromRate = eurRate(slice, from);
+        BigDecimal toRate = eurRate(slice, to);
+        if (fromRate == null || toRate == null || fromRate.signum() == 0) return Optional.empty();
+
+        rate = from.equals(to) ? BigDecimal.ONE : policy.crossRate(fromRate, toRate);
+        memo.put(key, rate);
+        return Optional.of(rate);
+    }
+
+    /** Rebuilds the cross rate matrices of the most recent dates; the previous ones stay in use meanwhile. */
+    public synchronized void precomputeHotDates() {
+        if (hotDays <= 0) return;
+
+        long startNanos = System.nanoTime();
+        int latest = Integer.MIN_VALUE;
+        for (RateSeries series : rateStore.allSeries()) latest = Math.max(latest, series.lastEpochDay());
+        if (latest == Integer.MIN_VALUE) return;
+
+        Map<Integer, CrossRateMatrix> matrices = new HashMap<>();
+        int currencies = 0;
+        for (int day = latest; day > latest - MAX_LOOKBACK_DAYS && matrices.size() < hotDays; day--) {
+            RatesOnDate slice = rateStore.ratesOn(LocalDate.ofEpochDay(day));
+            if (slice.isEmpty()) continue;
+            CrossRateMatrix matrix = CrossRateMatrix.of(slice, policy);
+            matrices.put(day, matrix);
+            currencies = Math.max(currencies, matrix.size());
+        }
+        hotMatrices = Map.copyOf(matrices);
+
+        System.out.printf("### Precomputed cross rates of %d dates up to %s (%d currencies) in %.1f ms%n",
+                matrices.size(), LocalDate.ofEpochDay(latest), currencies, (System.nanoTime() - startNanos) / 1_000_000.0);
+    }
+
+    private static BigDecimal eurRate(RatesOnDate slice, String currency) {
+        if (EUR.equals(currency)) return BigDecimal.ONE;
+        int index = slice.indexOf(currency);
+        return index >= 0 ? slice.valueAt(index) : null;
+    }
+}
@@ -0,0 +1,210 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import com.crewmeister.cmcodingchallenge.currency.model.Currency;
+import com.crewmeister.cmcodingchallenge.currency.repository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.exchangerate.csv.BbexCsvReader;
+import com.crewmeister.cmcodingchallenge.exchangerate.model.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.exchangerate.repository.ExchangeRateBulkWriter;
+import com.crewmeister.cmcodingchallenge.exchangerate.repository.ExchangeRateRepository;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Two-stage CSV ingestion pipeline.
+ *
+ * Stage 1: every CSV file is parsed on a bounded pool of parser threads. Parsing touches no
+ *          database state, so currency files are handled fully independently.
+ * Stage 2: the calling thread is the single writer. It drains parsed files from a bounded queue,
+ *          resolves the currency, drops known dates, bulk-inserts the rest and loads the
+ *          file into the in-memory {@link RateStore}.
+ *
+ * The bounded queue applies back-pressure on the parsers when the writer falls behind.
+ * A failing file is recorded in the {@link IngestionReport} and never aborts the other files.
+ */
+@Component
+public class CsvIngestionPipeline {
+    private final CurrencyRepository currencyRepository;
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final ExchangeRateBulkWriter bulkWriter;
+    private final RateStore rateStore;
+    private final int parallelism;
+    private final int queueCapacity;
+    private final int batchSize;
+
+    public CsvIngestionPipeline(CurrencyRepository currencyRepository,
+                                ExchangeRateRepository exchangeRateRepository,
+                                ExchangeRateBulkWriter bulkWriter,
+                                RateStore rateStore,
+                                @Value("${importer.parallelism:0}") int parallelism,
+                                @Value("${importer.queue-capacity:8}") int queueCapacity,
+                                @Value("${importer.batch-size:1000}") int batchSize) {
+        this.currencyRepository = currencyRepository;
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.bulkWriter = bulkWriter;
+        this.rateStore = rateStore;
+        // 0 (the default) means one parser thread per available core
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = Math.max(queueCapacity, 1);
+        this.batchSize = batchSize;
+    }
+
+    /** Parses all given files concurrently and writes them through the single writer stage. */
+    public IngestionReport ingest(List<Resource> files) {
+        long startNanos = System.nanoTime();
+        IngestionReport report = new IngestionReport();
+        BlockingQueue<ParsedRateFile> queue = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService parsers = Executors.newFixedThreadPool(
+                Math.min(parallelism, Math.max(files.size(), 1)), namedThreads("csv-parser-"));
+
+        try {
+            // Every task puts exactly one element on the queue, successful or not
+            for (Resource file : files) {
+                parsers.execute(() -> {
+                    ParsedRateFile parsed;
+                    try {
+                        System.out.printf("### Importing: %s%n", file.getFilename());
+                        parsed = parse(file);
+                    } catch (Throwable e) {
+                        // Errors too, or the writer stage would wait for this file forever
+                        parsed = ParsedRateFile.failed(file.getFilename(), e);
+                    }
+                    try {
+                        queue.put(parsed);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+
+            for (int i = 0; i < files.size(); i++) {
+                write(queue.take(), report);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("### CSV ingestion interrupted");
+        } finally {
+            parsers.shutdownNow();
+        }
+
+        report.setElapsedNanos(System.nanoTime() - startNanos);
+        return report;
+    }
+
+    /**
+     * Parse stage: decodes one CSV file with {@link BbexCsvReader}, without any database access.
+     * Files on the filesystem are memory-mapped and parsed straight from the mapped pages;
+     * resources inside a jar fall back to the input stream.
+     */
+    private ParsedRateFile parse(Resource file) throws IOException {
+        ParsedRateFile parsed = new ParsedRateFile(file.getFilename());
+
+        if (file.isFile()) {
+            try (FileChannel channel = FileChannel.open(file.getFile().toPath(), StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size <= Integer.MAX_VALUE) {
+                    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                    BbexCsvReader.read(mapped, parsed);
+                    return parsed;
+                }
+            }
+        }
+
+        try (InputStream in = file.getInputStream()) {
+            BbexCsvReader.read(in, parsed);
+        }
+        return parsed;
+    }
+
+    /** Writer stage: persists one parsed file, recording a failure instead of throwing. */
+    private void write(ParsedRateFile file, IngestionReport report) {
+        if (file.getError() != null) {
+            System.err.printf("### Skipped %s due to error: %s%n", file.getFileName(), file.getError().getMessage());
+            report.fileFailed(file.getFileName(), String.valueOf(file.getError().getMessage()));
+            return;
+        }
+
+        try {
+            String code = file.getCurrencyCode();
+            Currency currency = getOrCreateCurrency(code, file.getCurrencyName());
+            if (currency == null) {
+                report.fileFailed(file.getFileName(), "invalid currency code: " + code);
+                return;
+            }
+
+            // Check for existing rates (idempotent) in memory, including repeated dates within the file
+            Set<LocalDate> knownDates = new HashSet<>(exchangeRateRepository.findRateDatesByCurrencyCode(code));
+            List<ExchangeRate> pending = new ArrayList<>(file.size());
+            int skipped = 0;
+
+            for (int i = 0; i < file.size(); i++) {
+                if (knownDates.add(file.getDate(i))) {
+                    pending.add(new ExchangeRate(currency, file.getDate(i), file.getValue(i)));
+                } else {
+                    skipped++;
+                }
+            }
+
+            int inserted = bulkWriter.insertAll(pending, batchSize);
+            rateStore.merge(code, file.getEpochDays(), file.getScaledValues(), file.size());
+            updateLastObservationDate(currency);
+            report.fileProcessed(inserted, skipped);
+            System.out.printf("### %s -> %d inserted, %d skipped%n", code, inserted, skipped);
+        } catch (Exception e) {
+            System.err.printf("### Failed to process %s: %s%n", file.getFileName(), e.getMessage());
+            report.fileFailed(file.getFileName(), String.valueOf(e.getMessage()));
+        }
+    }
+
+    /** Retrieves existing currency from DB, or creates it if missing. */
+    private Currency getOrCreateCurrency(String code, String name) {
+        if (code == null || code.length() != 3) {
+            System.out.println("### Skipping invalid currency: code=" + code + ", name=" + name);
+            return null;
+        }
+
+        Optional<Currency> existing = currencyRepository.findById(code);
+        if (existing.isPresent()) return existing.get();
+
+        return currencyRepository.save(new Currency(code, name, LocalDate.now()));
+    }
+
+    /** Records the latest stored date on the currency, so the daily update can fetch only later days. */
+    private void updateLastObservationDate(Currency currency) {
+        rateStore.series(currency.getCode()).filter(series -> !series.isEmpty()).ifPresent(series -> {
+            LocalDate last = LocalDate.ofEpochDay(series.lastEpochDay());
+            if (!last.equals(currency.getLastObservationDate())) {
+                currency.setLastObservationDate(last);
+                currencyRepository.save(currency);
+            }
+        });
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes the full rate history (optionally filtered) as NDJSON or CSV straight to an output stream.
+ *
+ * Rows are read from the in-memory {@link RateStore} series one at a time, so memory use does not
+ * depend on the size of the export. Series are captured once at the start, which gives the whole
+ * export a consistent view even while an update appends new rates.
+ */
+@Service
+public class ExchangeRateExportService {
+    public enum Format { NDJSON, CSV }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final RateStore rateStore;
+
+    public ExchangeRateExportService(RateStore rateStore) {
+        this.rateStore = rateStore;
+    }
+
+    /**
+     * @param currencies currency codes to include, or empty for all
+     * @param from       first date to include, or null
+     * @param to         last date to include, or null
+     * @return number of exported rows
+     */
+    public long export(OutputStream out, Format format, Set<String> currencies, LocalDate from, LocalDate to)
+            throws IOException {
+        List<RateSeries> selected = new ArrayList<>();
+        for (RateSeries series : rateStore.allSeries()) {
+            if (currencies.isEmpty() || currencies.contains(series.getCurrencyCode())) selected.add(series);
+        }
+
+        int fromDay = from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE;
+        int toDay = to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE;
+        long rows = 0;
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == Format.CSV) writer.write("currency,date,value\n");
+
+        for (RateSeries series : selected) {
+            String code = series.getCurrencyCode();
+            int start = series.indexOf(fromDay);
+            if (start < 0) start = -start - 1;
+
+            for (int i = start; i < series.size() && series.epochDayAt(i) <= toDay; i++) {
+                String date = series.dateAt(i).toString();
+                String value = series.valueAt(i).toPlainString();
+                if (format == Format.CSV) {
+                    writer.write(code);
+                    writer.write(',');
+                    writer.write(date);
+                    writer.write(',');
+                    writer.write(value);
+                    writer.write('\n');
+                } else {
+                    writer.write("{\"currency\":\"");
+                    writer.write(code);
+                    writer.write("\",\"date\":\"");
+                    writer.write(date);
+                    writer.write("\",\"value\":");
+                    writer.write(value);
+                    writer.write("}\n");
+                }
+                rows++;
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+}
@@ -2,467 +2,348 @@ package com.crewmeister.cmcodingchallenge.exchangerate.service;
 
 import com.crewmeister.cmcodingchallenge.currency.model.Currency;
 import com.crewmeister.cmcodingchallenge.currency.repository.CurrencyRepository;
-import com.crewmeister.cmcodingchallenge.exchangerate.repository.ExchangeRateRepository;
+import com.crewmeister.cmcodingchallenge.exchangerate.repository.ExchangeRateBulkWriter;
 import com.crewmeister.cmcodingchallenge.exchangerate.model.ExchangeRate;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.crewmeister.cmcodingchallenge.exchangerate.sdmx.SdmxJsonReader;
+import com.crewmeister.cmcodingchallenge.exchangerate.sdmx.SdmxSeriesHandler;
+import com.crewmeister.cmcodingchallenge.exchangerate.snapshot.SnapshotSeries;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
-import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import javax.transaction.Transactional;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.net.*;
 import java.io.*;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Handles importing and updating exchange rate data.
  *
  * Sources:
- *  - CSV files from src/main/resources/data/
+ *  - CSV files from src/main/resources/data/, optionally overridden by an external data directory
  *  - Live updates via Bundesbank API
  *
  * Responsibilities:
  *  - Parse and persist currency and exchange rate data into H2 database
+ *  - Keep the in-memory RateStore in sync with every persisted rate
  *  - Maintain idempotency (avoid duplicate inserts)
- *  - Append new fetched data back to CSVs
- *  - Schedule daily automatic Bundesbank updates
+ *  - Fetch only the days after each currency's latest stored rate, or everything on a full resync
+ *  - Bulk-load CSV rows through the parallel ingestion pipeline on startup, or restore the
+ *    binary snapshot when it was built from the same CSV files
+ *  - Append every update to the snapshot
+ *  - Append new fetched data to the CSVs in importer.data-dir through the {@link JournaledCsvWriter}
+ *  - Report the progress of Bundesbank updates (run and scheduled by {@link UpdateJobService})
  */
 
 @Service
 public class ExchangeRateImporter {
     private final CurrencyRepository currencyRepository;
-    private final ExchangeRateRepository exchangeRateRepository;
-
-    public ExchangeRateImporter(CurrencyRepository currencyRepository, ExchangeRateRepository exchangeRateRepository) {
+    private final ExchangeRateBulkWriter bulkWriter;
+    private final CsvIngestionPipeline ingestionPipeline;
+    private final RateStore rateStore;
+    private final BundesbankFetcher bundesbankFetcher;
+    private final RateSnapshotService snapshotService;
+    private final JournaledCsvWriter csvWriter;
+    private final String dataDir;
+    private final int batchSize;
+
+    public ExchangeRateImporter(CurrencyRepository currencyRepository,
+                                ExchangeRateBulkWriter bulkWriter,
+                                CsvIngestionPipeline ingestionPipeline,
+                                RateStore rateStore,
+                                BundesbankFetcher bundesbankFetcher,
+                                RateSnapshotService snapshotService,
+                                JournaledCsvWriter csvWriter,
+                                @Value("${importer.data-dir:}") String dataDir,
+                                @Value("${importer.batch-size:1000}") int batchSize) {
         this.currencyRepository = currencyRepository;
-        this.exchangeRateRepository = exchangeRateRepository;
+        this.bulkWriter = bulkWriter;
+        this.ingestionPipeline = ingestionPipeline;
+        this.rateStore = rateStore;
+        this.bundesbankFetcher = bundesbankFetcher;
+        this.snapshotService = snapshotService;
+        this.csvWriter = csvWriter;
+        this.dataDir = dataDir;
+        this.batchSize = batchSize;
     }
 
     /**
-     * Imports all available FX data from CSV files under /resources/data.
-     *  - Iterates over each CSV file found in the folder
-     *  - Parses metadata (currency code, country)
-     *  - Inserts new exchange rate rows into the database
-     *  - Skips duplicates based on (currency, date)
+     * Startup import: restores the binary snapshot when it was built from the current CSV files,
+     * otherwise imports the CSV files and writes a new snapshot.
+     *
+     * @return a future that completes once the database holds all rates; the rate store and the
+     *         currencies are ready when this method returns
      */
-    public void importCsvData() {
-        System.out.println("### Starting FX data import from CSV files...");
-
+    public CompletableFuture<Void> importOnStartup() {
         try {
-            // Automatically load all CSVs under src/main/resources/data/
-            Resource[] csvFiles = new PathMatchingResourcePatternResolver()
-                    .getResources("classpath:data/*.csv");
-
-            if (csvFiles.length == 0) {
-                System.out.println("### No CSV files found in resources/data/");
-                return;
-            }
-
-            int importedCount = 0;
-
-            for (Resource file : csvFiles) {
-                String fileName = file.getFilename();
-                if (fileName == null || !fileName.endsWith(".csv")) continue;
-
-                System.out.printf("### Importing: %s%n", fileName);
-                try {
-                    parseFile(file);
-                    importedCount++;
-                } catch (Exception e) {
-                    System.err.printf("### Skipped %s due to error: %s%n", fileName, e.getMessage());
-                }
-            }
+            csvWriter.recover();
+            List<Resource> files = findCsvFiles();
+            long fingerprint = snapshotService.fingerprint(files);
 
-            System.out.printf("### Import complete! %d file(s) processed successfully.%n", importedCount);
+            CompletableFuture<Void> restored = snapshotService.restore(fingerprint);
+            if (restored != null) return restored;
 
+            importCsvData(files);
+            snapshotService.save(fingerprint);
+            return CompletableFuture.completedFuture(null);
         } catch (IOException e) {
             throw new RuntimeException("### Failed to import CSV data: " + e.getMessage(), e);
         }
     }
 
-    /** Parses a single CSV file, extracts currency metadata, and loads all daily rates */
-    private void parseFile(Resource file) {
-        String currencyCode = null;
-        String currencyName = null;
-        LocalDate lastUpdated = LocalDate.now();
-
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
-
-            String line;
-            boolean readingData = false;
-            int inserted = 0;
-            int skipped = 0;
-
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) continue;
-
-                // Header detection (before actual data lines)
-                if (!readingData) {
-                    // skip non-useful metadata lines
-                    if (line.toLowerCase().startsWith("last update")
-                            || line.toLowerCase().startsWith("comment")
-                            || line.toLowerCase().startsWith("source")
-                            || line.toLowerCase().startsWith("decimals")
-                            || line.toLowerCase().startsWith("unit")) {
-                        continue;
-                    }
-
-                    // detect currency header line
-                    if (currencyCode == null && line.contains("EUR 1 =")) {
-                        String[] parts = line.split(",", -1);
-                        String metadata = (parts.length > 1 ? parts[1] : line)
-                                .replace("\"", "")
-                                .replaceAll(",+$", "")
-                                .trim();
-
-                        // System.out.println("### HEADER DEBUG: " + metadata);
-                        currencyCode = extractCode(metadata);
-                        currencyName = extractName(metadata);
-                        // System.out.printf("### Parsed code=%s, name=%s%n", currencyCode, currencyName);
-                        continue;
-                    }
-
-                    // detect beginning of actual data lines
-                    if (line.matches("^(\\d{4}-\\d{2}-\\d{2}|\\d{1,2}/\\d{1,2}/\\d{4}).*")) {
-                        readingData = true;
-                    }
-                }
-
-                // Data section
-                if (readingData && line.matches("^(\\d{4}-\\d{2}-\\d{2}|\\d{1,2}/\\d{1,2}/\\d{4}).*")) {
-                    String[] parts = line.split(",");
-                    if (parts.length < 2 || parts[1].equals(".") || parts[1].isBlank()) continue;
-
-                    LocalDate date = null;
-                    String rawDate = parts[0].trim();
-
-                    // Try both ISO and Bundesbank date formats
-                    try {
-                        date = LocalDate.parse(rawDate); // ISO
-                    } catch (Exception e1) {
-                        try {
-                            date = LocalDate.parse(rawDate, DateTimeFormatter.ofPattern("M/d/yyyy"));
-                        } catch (Exception e2) {
-                            // System.out.printf("### Skipped invalid date '%s' in %s%n", rawDate, file.getFilename());
-                            continue;
-                        }
-                    }
-
-                    BigDecimal value;
-                    try {
-                        value = new BigDecimal(parts[1].trim());
-                    } catch (NumberFormatException e) {
-                        // System.out.printf("### Skipped invalid rate '%s' on %s%n", parts[1], rawDate);
-                        continue;
-                    }
-
-                    // Retrieve or create currency
-                    Currency currency = getOrCreateCurrency(currencyCode, currencyName, lastUpdated);
-                    if (currency == null) {
-                        // System.out.println("### Skipped " + file.getFilename() + " (invalid code: " + currencyCode + ")");
-                        return;
-                    }
-
-                    // Check for existing rate (idempotent)
-                    boolean exists = exchangeRateRepository.existsByCurrencyCodeAndRateDate(currencyCode, date);
-
-                    if (exists) {
-                        skipped++;
-                        continue;
-                    }
-
-                    try {
-                        exchangeRateRepository.save(new ExchangeRate(currency, date, value));
-                        inserted++;
-                    } catch (DataIntegrityViolationException e) {
-                        skipped++;
-                    }
-                }
-            }
-
-            System.out.printf("### %s -> %d inserted, %d skipped%n", currencyCode, inserted, skipped);
+    /**
+     * Imports all available FX data from CSV files under /resources/data.
+     *  - Takes every CSV file found in the folder (and in importer.data-dir, if configured)
+     *  - Parses the files concurrently (currency metadata and daily rates)
+     *  - Inserts new exchange rate rows into the database in JDBC batches from a single writer
+     *  - Skips duplicates based on (currency, date), checked in memory per currency
+     */
+    private void importCsvData(List<Resource> files) {
+        System.out.println("### Starting FX data import from CSV files...");
 
-        } catch (Exception e) {
-            System.out.println("### Failed to process " + file.getFilename() + ": " + e.getMessage());
+        if (files.isEmpty()) {
+            System.out.println("### No CSV files found in resources/data/");
+            return;
         }
-    }
 
+        IngestionReport report = ingestionPipeline.ingest(files);
 
-    /** Extracts 3-letter ISO currency code (e.g. "USD") from the header line. */
-    private String extractCode(String line) {
-        if (line == null || line.isBlank()) return null;
-        Pattern codePattern = Pattern.compile("EUR\\s*1\\s*=\\s*([A-Z]{3})");
-        Matcher matcher = codePattern.matcher(line);
-        if (matcher.find()) return matcher.group(1).trim();
-
-        for (String token : line.split("\\s+")) {
-            if (token.matches("^[A-Z]{3}$")) return token;
-        }
-        return null;
+        System.out.printf("### Import complete! %d file(s) processed successfully.%n", report.getFilesProcessed());
+        System.out.printf("### %d rows inserted, %d skipped in %.2f s (%.0f rows/sec)%n",
+                report.getRowsInserted(), report.getRowsSkipped(),
+                report.getElapsedNanos() / 1_000_000_000.0, report.getRowsPerSecond());
+        report.getFailures().forEach((file, reason) ->
+                System.err.printf("### Failed: %s (%s)%n", file, reason));
     }
 
-    /** Extracts country name or description from the header line. */
-    private String extractName(String line) {
-        if (line == null || line.isBlank()) return "Unknown Country";
+    /**
+     * Collects all CSVs under src/main/resources/data/. Files in importer.data-dir (e.g. a mounted
+     * historical data volume) replace bundled files with the same name and add new currencies.
+     */
+    private List<Resource> findCsvFiles() throws IOException {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        Map<String, Resource> byName = new TreeMap<>();
 
-        Pattern pattern = Pattern.compile("EUR 1 =\\s*\\w+\\s*\\.\\.\\.\\s*/\\s*(.*)$");
-        Matcher matcher = pattern.matcher(line);
-        if (matcher.find()) {
-            String desc = matcher.group(1).trim().replaceAll("[,]+$", "").trim();
-            if (desc.contains("/")) desc = desc.split("/")[0].trim();
-            return desc;
+        for (Resource file : resolver.getResources("classpath:data/*.csv")) {
+            String fileName = file.getFilename();
+            if (fileName != null && fileName.endsWith(".csv")) byName.put(fileName, file);
         }
 
-        String[] tokens = line.split("/");
-        for (int i = 0; i < tokens.length - 1; i++) {
-            if (tokens[i].contains("...")) {
-                String desc = tokens[i + 1].trim().replaceAll("[,]+$", "").trim();
-                if (desc.contains("/")) desc = desc.split("/")[0].trim();
-                return desc;
+        if (!dataDir.isBlank()) {
+            Path dir = Paths.get(dataDir);
+            if (Files.isDirectory(dir)) {
+                for (Resource file : resolver.getResources(dir.toUri() + "*.csv")) {
+                    String fileName = file.getFilename();
+                    if (fileName != null && fileName.endsWith(".csv")) byName.put(fileName, file);
+                }
+            } else {
+                System.out.println("### Data directory " + dir.toAbsolutePath() + " not found, using bundled CSVs only");
             }
         }
 
-        return "Unknown Country";
-    }
-
-    /** Retrieves existing currency from DB, or creates it if missing. */
-    private Currency getOrCreateCurrency(String code, String name, LocalDate updated) {
-        if (code == null || code.length() != 3) {
-            System.out.println("### Skipping invalid currency: code=" + code + ", name=" + name);
-            return null;
-        }
-
-        Optional<Currency> existing = currencyRepository.findById(code);
-        if (existing.isPresent()) return existing.get();
-
-        Currency c = new Currency(code, name, updated);
-        return currencyRepository.save(c);
+        return new ArrayList<>(byName.values());
     }
 
-
     /**
-     * Scheduled task — fetches and updates exchange rates from Bundesbank API daily.
-     * Runs automatically at 11:00 AM local time.
+     * Fetches new exchange rates for all currencies from the Bundesbank API.
+     *
+     * Currencies are downloaded concurrently by {@link BundesbankFetcher}, which also enforces the
+     * API rate limit; every downloaded series is parsed and persisted on this thread as it arrives.
+     * Runs are started by {@link UpdateJobService}, which makes sure only one runs at a time.
+     *
+     * @param fullResync true to download every currency's complete history instead of only the
+     *                   days after its latest stored rate, e.g. to fill gaps
+     * @param listener   receives the number of planned requests and the outcome of each one
      */
-    @Scheduled(cron = "0 0 11 * * *")
-    @CacheEvict(value = { "ratesByDate", "currencies" }, allEntries = true)
-    public void updateFromBundesbankApi() {
-        System.out.println("### Starting Bundesbank API update for all currencies...");
+    @CacheEvict(value = { "ratesByDate", "currencies", "conversions", "crossRates", "correlations" }, allEntries = true)
+    public void updateFromBundesbankApi(boolean fullResync, UpdateProgressListener listener) {
+        System.out.printf("### Starting Bundesbank API %s for all currencies...%n", fullResync ? "full resync" : "update");
 
         List<Currency> currencies = currencyRepository.findAll();
         if (currencies.isEmpty()) {
             System.out.println("### No currencies found in DB — import CSVs first.");
+            listener.onPlanned(0);
             return;
         }
 
-        int successCount = 0, failedCount = 0;
-
+        // Skip EUR (no conversion needed)
+        Map<String, LocalDate> startPeriods = new LinkedHashMap<>();
         for (Currency currency : currencies) {
-            String code = currency.getCode();
+            if ("EUR".equalsIgnoreCase(currency.getCode())) continue;
+            startPeriods.put(currency.getCode(), fullResync ? null : nextStartPeriod(currency));
+        }
+
+        Map<String, LocalDate> requests = bundesbankFetcher.groupRequests(startPeriods);
+        listener.onPlanned(requests.size());
 
-            // Skip EUR (no conversion needed)
-            if ("EUR".equalsIgnoreCase(code)) continue;
+        long startNanos = System.nanoTime();
+        List<SnapshotSeries> newRates = new ArrayList<>();
+        int[] successCount = new int[1];
+        int[] failedCount = new int[1];
+        long[] bytes = new long[1];
 
+        bundesbankFetcher.fetchRequests(requests, result -> {
+            bytes[0] += result.getBytes();
+            if (result.isNoData() && result.getStartPeriod() != null) {
+                System.out.printf("### %s already up-to-date%n", result.getCurrencyCode());
+                listener.onRequestFinished(result, 0, null);
+                return;
+            }
+            if (!result.isSuccess()) {
+                failedCount[0]++;
+                System.err.printf("### Failed for %s after %d attempt(s): %s%n",
+                        result.getCurrencyCode(), result.getAttempts(), result.getError());
+                listener.onRequestFinished(result, 0, result.getError());
+                return;
+            }
             try {
-                boolean updated = fetchAndUpdateCurrency(code);
-                if (updated) successCount++;
+                int updated = persistBundesbankResponse(result.getBody(), newRates);
+                successCount[0] += updated;
+                listener.onRequestFinished(result, updated, null);
             } catch (Exception e) {
-                failedCount++;
-                System.err.printf("### Failed for %s: %s%n", code, e.getMessage());
+                failedCount[0]++;
+                System.err.printf("### Failed for %s: %s%n", result.getCurrencyCode(), e.getMessage());
+                listener.onRequestFinished(result, 0, e.getMessage());
             }
+        });
 
-            // Respect Bundesbank API rate limits — 2 seconds pause between calls
-            try {
-                TimeUnit.SECONDS.sleep(2);
-            } catch (InterruptedException ignored) {}
-        }
+        storeNewRates(newRates);
 
-        System.out.printf("### Update finished: %d currencies updated, %d failed%n",
-                successCount, failedCount);
+        System.out.printf("### Update finished: %d currencies updated, %d request(s) failed, %d KB downloaded in %.1f s%n",
+                successCount[0], failedCount[0], bytes[0] / 1024, (System.nanoTime() - startNanos) / 1_000_000_000.0);
     }
 
-    @Transactional
-    public boolean fetchAndUpdateCurrency(String currencyCode) throws IOException {
-        String apiUrl = String.format(
-                "https://api.statistiken.bundesbank.de/rest/data/BBEX3/D.%s.EUR.BB.AC.000",
-                currencyCode
-        );
-
-        System.out.println("### Fetching " + currencyCode + " from Bundesbank...");
-
-        HttpURLConnection conn = (HttpURLConnection) new URL(apiUrl).openConnection();
-        conn.setRequestProperty("Accept", "application/vnd.sdmx.data+json");
-        conn.setRequestMethod("GET");
-        conn.setConnectTimeout(10_000);
-        conn.setReadTimeout(10_000);
+    /**
+     * Appends newly fetched rates to the CSV files in importer.data-dir and to the snapshot. The
+     * snapshot takes over the fingerprint of the changed CSV files, so it stays valid for restarts;
+     * if the CSV files could not be written, it keeps the old one and the next start imports the CSVs.
+     */
+    private void storeNewRates(List<SnapshotSeries> newRates) {
+        if (newRates.isEmpty()) return;
 
-        if (conn.getResponseCode() != 200) {
-            throw new IOException("HTTP " + conn.getResponseCode());
+        Long fingerprint = null;
+        try {
+            csvWriter.appendAll(newRates);
+            fingerprint = snapshotService.fingerprint(findCsvFiles());
+            int rows = newRates.stream().mapToInt(SnapshotSeries::size).sum();
+            System.out.printf("### Appended %d new rates to %d CSV file(s)%n", rows, newRates.size());
+        } catch (IOException | RuntimeException e) {
+            System.err.printf("### Failed to write CSV files: %s%n", e.getMessage());
         }
+        snapshotService.append(newRates, fingerprint);
+    }
 
-        String json;
-        try (InputStream in = conn.getInputStream()) {
-            json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
-        } finally {
-            conn.disconnect();
+    /** First day not stored yet for the currency, or null when nothing is known and the full series is needed. */
+    private LocalDate nextStartPeriod(Currency currency) {
+        LocalDate last = currency.getLastObservationDate();
+        if (last == null) {
+            // Currencies stored before the column existed: use the latest rate held in memory
+            last = rateStore.series(currency.getCode())
+                    .filter(series -> !series.isEmpty())
+                    .map(series -> LocalDate.ofEpochDay(series.lastEpochDay()))
+                    .orElse(null);
         }
-
-        return parseBundesbankJson(json);
+        return last == null ? null : last.plusDays(1);
     }
 
-    /** Parses Bundesbank JSON response, persists new rates and appends them to CSV files */
-    private boolean parseBundesbankJson(String jsonResponse) {
-        JSONObject root = new JSONObject(jsonResponse);
-        JSONObject data = root.getJSONObject("data");
-
-        JSONArray timePeriods = data
-                .getJSONObject("structure")
-                .getJSONObject("dimensions")
-                .getJSONArray("observation")
-                .getJSONObject(0)
-                .getJSONArray("values");
-
-        JSONArray dataSets = data.getJSONArray("dataSets");
-        JSONObject series = dataSets.getJSONObject(0).getJSONObject("series");
-
-        int insertedTotal = 0;
-
-        for (String seriesKey : series.keySet()) {
-            JSONObject serie = series.getJSONObject(seriesKey);
-            JSONObject observations = serie.getJSONObject("observations");
-
-            JSONArray seriesDims = data
-                    .getJSONObject("structure")
-                    .getJSONObject("dimensions")
-                    .getJSONArray("series");
-
-            String currencyCode = null;
-            for (int i = 0; i < seriesDims.length(); i++) {
-                JSONObject dim = seriesDims.getJSONObject(i);
-                if ("BBK_STD_CURRENCY".equals(dim.getString("id"))) {
-                    currencyCode = dim.getJSONArray("values").getJSONObject(0).getString("id");
-                    break;
-                }
-            }
-            if (currencyCode == null) currencyCode = "UNKNOWN";
-
-            Currency currency = currencyRepository.findById(currencyCode).orElse(null);
-            if (currency == null) {
-                currency = new Currency(currencyCode, currencyCode, LocalDate.now());
-                currency = currencyRepository.save(currency);
-            }
-
-            // Collect new rates to later append to CSV
-            List<ExchangeRate> newRates = new ArrayList<>();
-
-            int inserted = 0, skipped = 0;
-
-            for (String obsKey : observations.keySet()) {
-                int timeIndex = Integer.parseInt(obsKey);
-                JSONArray obsArray = observations.getJSONArray(obsKey);
-                if (obsArray.isNull(0)) {
-                    skipped++;
-                    continue;
-                }
-
-                String dateStr = timePeriods.getJSONObject(timeIndex).getString("id");
-                BigDecimal rate = new BigDecimal(obsArray.getString(0));
+    /**
+     * Streams a Bundesbank SDMX-JSON response into per-currency batches of primitive rows,
+     * then persists the new rates of every series.
+     *
+     * @param newRates collects the stored rates of every series, for the CSV files and the snapshot
+     * @return number of currencies that received new rates
+     */
+    private int persistBundesbankResponse(byte[] body, List<SnapshotSeries> newRates) throws IOException {
+        Map<String, ParsedRateFile> bySeries = new LinkedHashMap<>();
 
-                LocalDate date;
-                // Handle both date formats (ISO or M/d/yyyy)
-                try {
-                    date = LocalDate.parse(dateStr); // yyyy-MM-dd
-                } catch (Exception e) {
-                    date = LocalDate.parse(dateStr, DateTimeFormatter.ofPattern("M/d/yyyy"));
-                }
+        SdmxJsonReader.read(new ByteArrayInputStream(body), new SdmxSeriesHandler() {
+            private ParsedRateFile current;
 
-                // Use your repository method
-                if (!exchangeRateRepository.existsByCurrencyCodeAndRateDate(currencyCode, date)) {
-                    ExchangeRate saved = exchangeRateRepository.save(new ExchangeRate(currency, date, rate));
-                    newRates.add(saved);
-                    inserted++;
-                } else {
-                    skipped++;
-                }
+            @Override
+            public void onSeries(String currencyCode, String currencyName) {
+                current = bySeries.computeIfAbsent(currencyCode, code -> new ParsedRateFile("Bundesbank " + code));
+                current.onHeader(currencyCode, currencyName);
             }
 
-            insertedTotal += inserted;
-
-            // After processing all dates for this currency — append to CSV if there are new ones
-            if (!newRates.isEmpty()) {
-                appendRatesToCsv(currency, newRates);
+            @Override
+            public void onRate(int epochDay, long unscaledValue, int scale) {
+                current.onRate(epochDay, unscaledValue, scale);
             }
+        });
 
-            if (inserted == 0)
-                System.out.printf("### %s already up-to-date (%d skipped)%n", currencyCode, skipped);
-            else
-                System.out.printf("### %s -> %d new, %d skipped%n", currencyCode, inserted, skipped);
+        int updatedCurrencies = 0;
+        for (ParsedRateFile series : bySeries.values()) {
+            if (persistSeries(series, newRates) > 0) updatedCurrencies++;
         }
-
-        return insertedTotal > 0;
+        return updatedCurrencies;
     }
 
-    /** Appends new rates at the end of their respective CSV file */
-    private void appendRatesToCsv(Currency currency, List<ExchangeRate> newRates) {
-        if (newRates.isEmpty()) return;
+    /** Inserts the rates of one series that are not stored yet and advances the currency's last observation date. */
+    private int persistSeries(ParsedRateFile series, List<SnapshotSeries> snapshotRates) {
+        String currencyCode = series.getCurrencyCode();
 
-        String fileName = String.format("src/main/resources/data/BBEX3.D.%s.EUR.BB.AC.000.csv", currency.getCode());
-        Path path = Paths.get(fileName);
+        Currency currency = currencyRepository.findById(currencyCode).orElse(null);
+        if (currency == null) {
+            currency = new Currency(currencyCode, series.getCurrencyName(), LocalDate.now());
+            currency = currencyRepository.save(currency);
+        }
 
-        try {
-            if (!Files.exists(path)) {
-                Files.createFile(path);
-                Files.writeString(path,
-                        String.format("Euro foreign exchange reference rate of the ECB / EUR 1 = %s ... / %s%n",
-                                currency.getCode(), currency.getName()),
-                        StandardOpenOption.APPEND);
-                Files.writeString(path, "last update," + LocalDate.now() + "\n", StandardOpenOption.APPEND);
-            } else {
-                // Update 'last update' line if it exists
-                List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
-                for (int i = 0; i < lines.size(); i++) {
-                    if (lines.get(i).toLowerCase().startsWith("last update")) {
-                        lines.set(i, "last update," + LocalDate.now());
-                        break;
-                    }
-                }
-                Files.write(path, lines, StandardCharsets.UTF_8);
+        // Known dates are checked in memory: the rate store holds every stored rate
+        RateSeries known = rateStore.series(currencyCode).orElse(null);
+        Set<Integer> seen = new HashSet<>();
+        int[] epochDays = series.getEpochDays();
+        int latest = currency.getLastObservationDate() != null
+                ? (int) currency.getLastObservationDate().toEpochDay() : Integer.MIN_VALUE;
+
+        // Collect new rates to insert in one batch and later append to CSV
+        List<ExchangeRate> newRates = new ArrayList<>();
+        int skipped = 0;
+
+        for (int i = 0; i < series.size(); i++) {
+            latest = Math.max(latest, epochDays[i]);
+            boolean stored = known != null && known.indexOf(epochDays[i]) >= 0;
+            if (stored || !seen.add(epochDays[i])) {
+                skipped++;
+                continue;
             }
+            newRates.add(new ExchangeRate(currency, series.getDate(i), series.getValue(i)));
+        }
 
-            // Bundesbank-style date format (M/d/yyyy)
-            DateTimeFormatter fmt = DateTimeFormatter.ofPattern("M/d/yyyy");
+        newRates.sort(Comparator.comparing(ExchangeRate::getRateDate));
+        int inserted = bulkWriter.insertAll(newRates, batchSize);
+        rateStore.merge(currencyCode, epochDays, series.getScaledValues(), series.size());
 
-            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.APPEND)) {
-                for (ExchangeRate rate : newRates) {
-                    writer.write(String.format("%s,%s%n",
-                            rate.getRateDate().format(fmt),
-                            rate.getRateValue().stripTrailingZeros().toPlainString()));
-                }
-            }
+        if (latest != Integer.MIN_VALUE) currency.setLastObservationDate(LocalDate.ofEpochDay(latest));
+        currency.setLastUpdated(LocalDate.now());
+        currencyRepository.save(currency);
 
-            System.out.printf("### Appended %d new rates to %s%n", newRates.size(), path.getFileName());
-        } catch (IOException e) {
-            System.err.printf("### Failed to write CSV for %s: %s%n", currency.getCode(), e.getMessage());
+        // After processing all dates for this currency — collect new ones for the CSV files and the snapshot
+        if (!newRates.isEmpty()) {
+            snapshotRates.add(toSnapshotSeries(currency, newRates));
+        }
+
+        if (inserted == 0)
+            System.out.printf("### %s already up-to-date (%d skipped)%n", currencyCode, skipped);
+        else
+            System.out.printf("### %s -> %d new, %d skipped%n", currencyCode, inserted, skipped);
+        return inserted;
+    }
+
+    /** Converts rates sorted by date into a snapshot block. */
+    private static SnapshotSeries toSnapshotSeries(Currency currency, List<ExchangeRate> rates) {
+        int[] epochDays = new int[rates.size()];
+        long[] scaledValues = new long[rates.size()];
+        for (int i = 0; i < rates.size(); i++) {
+            epochDays[i] = (int) rates.get(i).getRateDate().toEpochDay();
+            scaledValues[i] = RateSeries.toScaled(rates.get(i).getRateValue());
         }
+        return new SnapshotSeries(currency.getCode(), currency.getName(), epochDays, scaledValues, rates.size());
     }
 }
@@ -0,0 +1,52 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Summary of one CSV ingestion run: processed files, row counts and per-file failures. */
+public class IngestionReport {
+    private int filesProcessed;
+    private long rowsInserted;
+    private long rowsSkipped;
+    private long elapsedNanos;
+    private final Map<String, String> failures = new LinkedHashMap<>();
+
+    void fileProcessed(int inserted, int skipped) {
+        filesProcessed++;
+        rowsInserted += inserted;
+        rowsSkipped += skipped;
+    }
+
+    void fileFailed(String fileName, String reason) {
+        failures.put(fileName, reason);
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getFilesProcessed() {
+        return filesProcessed;
+    }
+
+    public long getRowsInserted() {
+        return rowsInserted;
+    }
+
+    public long getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public Map<String, String> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    public double getRowsPerSecond() {
+        return rowsInserted / (Math.max(elapsedNanos, 1) / 1_000_000_000.0);
+    }
+}
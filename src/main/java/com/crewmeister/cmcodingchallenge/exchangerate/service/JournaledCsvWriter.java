@@ -0,0 +1,339 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.snapshot.SnapshotSeries;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends new rates to the BBEX3 CSV files in importer.data-dir without rewriting them.
+ *
+ *  - A file missing from the data directory is first copied there from the bundled CSVs, or
+ *    created with a Bundesbank-style header for a new currency (temp file + atomic rename)
+ *  - Before any CSV file is touched, every file's current length and new rows are written to a
+ *    journal and forced to disk; the journal is deleted once all files are written and forced
+ *  - After a crash, {@link #recover()} truncates each journaled file back to its recorded length
+ *    and appends the rows again, so a torn last line never survives
+ *  - The fixed-width "last update" header line is overwritten in place
+ *  - Rows use ISO dates and the file's "Decimals", like the bundled rows; all files of a batch
+ *    are forced once, at the end
+ */
+@Component
+public class JournaledCsvWriter {
+    static final String JOURNAL_FILE = ".csv-journal";
+    static final int JOURNAL_MAGIC = 0x46584A31;
+    private static final String FILE_NAME = "BBEX3.D.%s.EUR.BB.AC.000.csv";
+    private static final String LAST_UPDATE = "last update,";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int TIMESTAMP_LENGTH = 19;
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+    private static final int DEFAULT_DECIMALS = 4;
+
+    /** Rows to append to one file, and the file length they are appended at. */
+    private static class JournalEntry {
+        final String fileName;
+        final long length;
+        final byte[] rows;
+
+        JournalEntry(String fileName, long length, byte[] rows) {
+            this.fileName = fileName;
+            this.length = length;
+            this.rows = rows;
+        }
+    }
+
+    private final Path dataDir;
+
+    public JournaledCsvWriter(@Value("${importer.data-dir:}") String dataDir) {
+        this.dataDir = dataDir.isBlank() ? null : Paths.get(dataDir);
+    }
+
+    /** CSV file name of a currency, e.g. BBEX3.D.USD.EUR.BB.AC.000.csv. */
+    public static String fileName(String currencyCode) {
+        return String.format(FILE_NAME, currencyCode);
+    }
+
+    /**
+     * Appends the given rates to the CSV files of their currencies and forces them to disk.
+     * Each series must hold rates that are not in its file yet, sorted by date.
+     */
+    public synchronized void appendAll(Collection<SnapshotSeries> newRates) throws IOException {
+        if (dataDir == null || newRates.isEmpty()) return;
+        Files.createDirectories(dataDir);
+
+        // Rows of several series of one currency go into a single entry
+        Map<String, StringBuilder> rowsByFile = new LinkedHashMap<>();
+        Map<String, Integer> decimalsByFile = new LinkedHashMap<>();
+        for (SnapshotSeries series : newRates) {
+            String fileName = fileName(series.getCurrencyCode());
+            int decimals = decimalsByFile.computeIfAbsent(fileName, name -> prepare(name, series));
+            appendRows(rowsByFile.computeIfAbsent(fileName, name -> new StringBuilder()), series, decimals);
+        }
+
+        List<JournalEntry> entries = new ArrayList<>();
+        for (Map.Entry<String, StringBuilder> rows : rowsByFile.entrySet()) {
+            Path file = dataDir.resolve(rows.getKey());
+            String prefix = endsWithNewline(file) ? "" : "\n";
+            entries.add(new JournalEntry(rows.getKey(), Files.size(file),
+                    (prefix + rows.getValue()).getBytes(StandardCharsets.US_ASCII)));
+        }
+
+        String timestamp = LocalDateTime.now().format(TIMESTAMP);
+        writeJournal(entries, timestamp);
+        apply(entries, timestamp);
+        Files.delete(dataDir.resolve(JOURNAL_FILE));
+    }
+
+    /** Completes a batch that was interrupted after its journal had been written. */
+    public synchronized void recover() throws IOException {
+        if (dataDir == null) return;
+        Path journal = dataDir.resolve(JOURNAL_FILE);
+        if (!Files.isRegularFile(journal)) return;
+
+        List<JournalEntry> entries = new ArrayList<>();
+        String timestamp;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(journal))) {
+            if (in.readInt() != JOURNAL_MAGIC) throw new IOException("Not a CSV journal: " + journal);
+            timestamp = in.readUTF();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String fileName = in.readUTF();
+                long length = in.readLong();
+                byte[] rows = new byte[in.readInt()];
+                in.readFully(rows);
+                entries.add(new JournalEntry(fileName, length, rows));
+            }
+        }
+
+        apply(entries, timestamp);
+        Files.delete(journal);
+        System.out.printf("### Replayed CSV journal for %d file(s)%n", entries.size());
+    }
+
+    /**
+     * Makes sure the file exists in the data directory with a fixed-width "last update" line,
+     * and returns its number of decimals.
+     */
+    private int prepare(String fileName, SnapshotSeries series) {
+        Path file = dataDir.resolve(fileName);
+        try {
+            if (!Files.exists(file)) {
+                ClassPathResource bundled = new ClassPathResource("data/" + fileName);
+                if (bundled.exists()) {
+                    try (InputStream in = bundled.getInputStream()) {
+                        replaceAtomically(file, in.readAllBytes());
+                    }
+                } else {
+                    replaceAtomically(file, newFileHeader(series).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+
+            byte[] head = readHead(file);
+            int dataStart = dataStart(head);
+            String header = new String(head, 0, dataStart, StandardCharsets.UTF_8);
+            if (lastUpdateOffset(head, dataStart) < 0) rewriteHeader(file, header, dataStart);
+            return decimals(header);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot prepare " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /** Header of a new currency's file, following the layout of the bundled files. */
+    private static String newFileHeader(SnapshotSeries series) {
+        String key = String.format("BBEX3.D.%s.EUR.BB.AC.000", series.getCurrencyCode());
+        return "\"\"," + key + "," + key + "_FLAGS\n"
+                + "\"\",Euro foreign exchange reference rate of the ECB / EUR 1 = " + series.getCurrencyCode()
+                + " ... / " + series.getCurrencyName() + ",\n"
+                + "Decimals," + DEFAULT_DECIMALS + ",\n"
+                + LAST_UPDATE + LocalDateTime.now().format(TIMESTAMP) + ",\n";
+    }
+
+    /** Replaces a "last update" line that is missing or not fixed-width, copying the rows unchanged. */
+    private static void rewriteHeader(Path file, String header, int dataStart) throws IOException {
+        String line = LAST_UPDATE + LocalDateTime.now().format(TIMESTAMP) + ",";
+        StringBuilder fixed = new StringBuilder();
+        boolean replaced = false;
+        for (String existing : header.split("\n", -1)) {
+            if (existing.isEmpty()) continue;
+            if (existing.toLowerCase().startsWith(LAST_UPDATE)) {
+                existing = line;
+                replaced = true;
+            }
+            fixed.append(existing).append('\n');
+        }
+        if (!replaced) fixed.append(line).append('\n');
+
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE);
+                 FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                writeFully(out, ByteBuffer.wrap(fixed.toString().getBytes(StandardCharsets.UTF_8)), 0);
+                long position = out.size();
+                for (long copied = dataStart; copied < in.size(); ) {
+                    long n = in.transferTo(copied, in.size() - copied, out.position(position));
+                    copied += n;
+                    position += n;
+                }
+                out.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void appendRows(StringBuilder rows, SnapshotSeries series, int decimals) {
+        int[] days = series.getEpochDays();
+        long[] values = series.getScaledValues();
+        for (int i = 0; i < series.size(); i++) {
+            BigDecimal value = BigDecimal.valueOf(values[i], RateSeries.SCALE).stripTrailingZeros();
+            rows.append(LocalDate.ofEpochDay(days[i])).append(',')
+                    .append(value.setScale(Math.max(decimals, value.scale())).toPlainString()).append(",\n");
+        }
+    }
+
+    private void writeJournal(List<JournalEntry> entries, String timestamp) throws IOException {
+        Path journal = dataDir.resolve(JOURNAL_FILE);
+        Path temp = Files.createTempFile(dataDir, JOURNAL_FILE, ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+                 DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel))) {
+                out.writeInt(JOURNAL_MAGIC);
+                out.writeUTF(timestamp);
+                out.writeInt(entries.size());
+                for (JournalEntry entry : entries) {
+                    out.writeUTF(entry.fileName);
+                    out.writeLong(entry.length);
+                    out.writeInt(entry.rows.length);
+                    out.write(entry.rows);
+                }
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temp, journal, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** Writes every entry at its recorded length, stamps the headers, then forces all files. */
+    private void apply(List<JournalEntry> entries, String timestamp) throws IOException {
+        List<FileChannel> channels = new ArrayList<>();
+        try {
+            for (JournalEntry entry : entries) {
+                FileChannel channel = FileChannel.open(dataDir.resolve(entry.fileName), StandardOpenOption.READ, StandardOpenOption.WRITE);
+                channels.add(channel);
+                // Drops whatever an interrupted run left after the recorded length
+                channel.truncate(entry.length);
+                writeFully(channel, ByteBuffer.wrap(entry.rows), entry.length);
+                stampLastUpdate(channel, timestamp);
+            }
+            for (FileChannel channel : channels) channel.force(false);
+        } finally {
+            for (FileChannel channel : channels) channel.close();
+        }
+    }
+
+    private static void stampLastUpdate(FileChannel channel, String timestamp) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate((int) Math.min(channel.size(), MAX_HEADER_BYTES));
+        while (head.hasRemaining() && channel.read(head, head.position()) > 0) { }
+        byte[] bytes = head.array();
+        int offset = lastUpdateOffset(bytes, dataStart(bytes));
+        if (offset >= 0) writeFully(channel, ByteBuffer.wrap(timestamp.getBytes(StandardCharsets.US_ASCII)), offset);
+    }
+
+    /** Offset of the timestamp in a fixed-width "last update,yyyy-MM-dd HH:mm:ss" line, or -1. */
+    private static int lastUpdateOffset(byte[] head, int dataStart) {
+        int lineStart = 0;
+        while (lineStart < dataStart) {
+            int lineEnd = lineStart;
+            while (lineEnd < dataStart && head[lineEnd] != '\n') lineEnd++;
+            String line = new String(head, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8).trim();
+            if (line.toLowerCase().startsWith(LAST_UPDATE)) {
+                String value = line.substring(LAST_UPDATE.length()).replaceAll(",+$", "");
+                return value.length() == TIMESTAMP_LENGTH ? lineStart + LAST_UPDATE.length() : -1;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return -1;
+    }
+
+    /** Offset of the first data line (a line starting with a digit), or the end of the given bytes. */
+    private static int dataStart(byte[] head) {
+        int lineStart = 0;
+        while (lineStart < head.length) {
+            if (head[lineStart] >= '0' && head[lineStart] <= '9') return lineStart;
+            while (lineStart < head.length && head[lineStart] != '\n') lineStart++;
+            lineStart++;
+        }
+        return head.length;
+    }
+
+    private static int decimals(String header) {
+        for (String line : header.split("\n")) {
+            if (!line.toLowerCase().startsWith("decimals,")) continue;
+            try {
+                return Integer.parseInt(line.substring("decimals,".length()).replaceAll("[,\\s]", ""));
+            } catch (NumberFormatException e) {
+                return DEFAULT_DECIMALS;
+            }
+        }
+        return DEFAULT_DECIMALS;
+    }
+
+    private static byte[] readHead(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return in.readNBytes(MAX_HEADER_BYTES);
+        }
+    }
+
+    private static boolean endsWithNewline(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() == 0) return true;
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, channel.size() - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    private static void replaceAtomically(Path file, byte[] content) throws IOException {
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                writeFully(channel, ByteBuffer.wrap(content), 0);
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) position += channel.write(buffer, position);
+    }
+}
@@ -0,0 +1,101 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.csv.RateRowHandler;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Output of the parse stage for one CSV file (or one series of a Bundesbank API response):
+ * currency metadata plus its daily rates in input order. Rows are kept in primitive columns;
+ * a file that could not be parsed carries the error instead, so the writer stage can report it.
+ */
+class ParsedRateFile implements RateRowHandler {
+    private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L };
+
+    private final String fileName;
+    private String currencyCode;
+    private String currencyName;
+    private int[] epochDays = new int[1024];
+    private long[] unscaledValues = new long[1024];
+    private byte[] scales = new byte[1024];
+    private int size;
+    private Throwable error;
+
+    ParsedRateFile(String fileName) {
+        this.fileName = fileName;
+    }
+
+    static ParsedRateFile failed(String fileName, Throwable error) {
+        ParsedRateFile file = new ParsedRateFile(fileName);
+        file.error = error;
+        return file;
+    }
+
+    @Override
+    public void onHeader(String currencyCode, String currencyName) {
+        this.currencyCode = currencyCode;
+        this.currencyName = currencyName;
+    }
+
+    @Override
+    public void onRate(int epochDay, long unscaledValue, int scale) {
+        if (size == epochDays.length) {
+            int capacity = size * 2;
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            unscaledValues = Arrays.copyOf(unscaledValues, capacity);
+            scales = Arrays.copyOf(scales, capacity);
+        }
+        epochDays[size] = epochDay;
+        unscaledValues[size] = unscaledValue;
+        scales[size] = (byte) scale;
+        size++;
+    }
+
+    String getFileName() {
+        return fileName;
+    }
+
+    String getCurrencyCode() {
+        return currencyCode;
+    }
+
+    String getCurrencyName() {
+        return currencyName;
+    }
+
+    int size() {
+        return size;
+    }
+
+    LocalDate getDate(int i) {
+        return LocalDate.ofEpochDay(epochDays[i]);
+    }
+
+    BigDecimal getValue(int i) {
+        return BigDecimal.valueOf(unscaledValues[i], scales[i]);
+    }
+
+    /** Dates of all rows as epoch days; only the first {@link #size()} entries are valid. */
+    int[] getEpochDays() {
+        return epochDays;
+    }
+
+    /** Rates of all rows rescaled to {@link RateSeries#SCALE} decimal places, aligned with {@link #getEpochDays()}. */
+    long[] getScaledValues() {
+        long[] scaled = new long[size];
+        for (int i = 0; i < size; i++) {
+            int shift = RateSeries.SCALE - scales[i];
+            scaled[i] = shift >= 0
+                    ? unscaledValues[i] * POWERS_OF_TEN[shift]
+                    : RateSeries.toScaled(getValue(i));
+        }
+        return scaled;
+    }
+
+    Throwable getError() {
+        return error;
+    }
+}
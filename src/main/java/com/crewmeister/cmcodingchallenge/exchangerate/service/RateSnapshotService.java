@@ -0,0 +1,220 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import com.crewmeister.cmcodingchallenge.currency.model.Currency;
+import com.crewmeister.cmcodingchallenge.currency.repository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.exchangerate.model.ExchangeRate;
+import com.crewmeister.cmcodingchallenge.exchangerate.repository.ExchangeRateBulkWriter;
+import com.crewmeister.cmcodingchallenge.exchangerate.snapshot.RateSnapshot;
+import com.crewmeister.cmcodingchallenge.exchangerate.snapshot.SnapshotSeries;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps a {@link RateSnapshot} of all rate series next to the CSV files for fast restarts.
+ *
+ *  - Written after a CSV import, and appended to after every Bundesbank update
+ *  - Records a fingerprint of the CSV files it matches, updated whenever an update appended the
+ *    same rates to both; a snapshot whose fingerprint no longer matches the CSV files is stale and ignored
+ *  - On restore, the {@link RateStore} and the currencies are rebuilt on the calling thread, while
+ *    the exchange_rates table is filled in the background
+ *  - Disabled when importer.snapshot-file is empty
+ */
+@Service
+public class RateSnapshotService {
+    private final RateStore rateStore;
+    private final CurrencyRepository currencyRepository;
+    private final ExchangeRateBulkWriter bulkWriter;
+    private final Path snapshotFile;
+    private final int batchSize;
+    private Long sourceFingerprint;
+
+    public RateSnapshotService(RateStore rateStore,
+                               CurrencyRepository currencyRepository,
+                               ExchangeRateBulkWriter bulkWriter,
+                               @Value("${importer.snapshot-file:}") String snapshotFile,
+                               @Value("${importer.batch-size:1000}") int batchSize) {
+        this.rateStore = rateStore;
+        this.currencyRepository = currencyRepository;
+        this.bulkWriter = bulkWriter;
+        this.snapshotFile = snapshotFile.isBlank() ? null : Paths.get(snapshotFile);
+        this.batchSize = batchSize;
+    }
+
+    /** Fingerprint of the given CSV files: CRC32 over their names and contents, plus the total size. */
+    public long fingerprint(List<Resource> files) throws IOException {
+        CRC32 crc = new CRC32();
+        long totalBytes = 0;
+        byte[] chunk = new byte[64 * 1024];
+        for (Resource file : files) {
+            crc.update(String.valueOf(file.getFilename()).getBytes(StandardCharsets.UTF_8));
+            try (InputStream in = file.getInputStream()) {
+                int read;
+                while ((read = in.read(chunk)) > 0) {
+                    crc.update(chunk, 0, read);
+                    totalBytes += read;
+                }
+            }
+        }
+        return crc.getValue() << 32 | (totalBytes & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Restores the rate store and the currencies from the snapshot, if there is one built from
+     * CSV files with the given fingerprint.
+     *
+     * @return a future that completes once the exchange_rates table holds every snapshot row,
+     *         or null when there is no usable snapshot and the CSV files must be imported
+     */
+    public synchronized CompletableFuture<Void> restore(long fingerprint) {
+        if (snapshotFile == null || !Files.isRegularFile(snapshotFile)) return null;
+
+        long startNanos = System.nanoTime();
+        RateSnapshot.Contents contents;
+        try {
+            contents = RateSnapshot.read(snapshotFile);
+        } catch (IOException | RuntimeException e) {
+            System.err.printf("### Ignoring snapshot %s: %s%n", snapshotFile, e.getMessage());
+            return null;
+        }
+        if (contents.getSourceFingerprint() != fingerprint) {
+            System.out.println("### Snapshot is stale (CSV files changed), importing CSV files");
+            return null;
+        }
+
+        Map<String, String> names = new LinkedHashMap<>();
+        long rows = 0;
+        for (SnapshotSeries block : contents.getBlocks()) {
+            rateStore.merge(block.getCurrencyCode(), block.getEpochDays(), block.getScaledValues(), block.size());
+            names.put(block.getCurrencyCode(), block.getCurrencyName());
+            rows += block.size();
+        }
+
+        Map<String, Currency> currencies = new HashMap<>();
+        names.forEach((code, name) -> {
+            Currency currency = currencyRepository.findById(code).orElseGet(() -> new Currency(code, name, LocalDate.now()));
+            rateStore.series(code).filter(series -> !series.isEmpty())
+                    .ifPresent(series -> currency.setLastObservationDate(LocalDate.ofEpochDay(series.lastEpochDay())));
+            currencies.put(code, currencyRepository.save(currency));
+        });
+        sourceFingerprint = fingerprint;
+
+        System.out.printf("### Restored %d rates of %d currencies from snapshot in %.0f ms%n",
+                rows, names.size(), (System.nanoTime() - startNanos) / 1_000_000.0);
+
+        // Appended updates leave several blocks per currency; rewrite them as one block each
+        boolean compact = contents.getBlocks().size() > 2 * names.size();
+        return CompletableFuture.runAsync(() -> {
+            loadDatabase(contents.getBlocks(), currencies);
+            if (compact) compact();
+        }, runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-db-loader");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /** Writes a new snapshot of the whole rate store, built from CSV files with the given fingerprint. */
+    public synchronized void save(long fingerprint) {
+        if (snapshotFile == null) return;
+
+        long startNanos = System.nanoTime();
+        Map<String, String> names = new HashMap<>();
+        for (Currency currency : currencyRepository.findAll()) names.put(currency.getCode(), currency.getName());
+
+        List<SnapshotSeries> series = new ArrayList<>();
+        for (RateSeries s : rateStore.allSeries()) {
+            int[] days = new int[s.size()];
+            long[] values = new long[s.size()];
+            for (int i = 0; i < s.size(); i++) {
+                days[i] = s.epochDayAt(i);
+                values[i] = s.scaledValueAt(i);
+            }
+            series.add(new SnapshotSeries(s.getCurrencyCode(), names.get(s.getCurrencyCode()), days, values, s.size()));
+        }
+
+        try {
+            RateSnapshot.write(snapshotFile, fingerprint, series);
+            sourceFingerprint = fingerprint;
+            System.out.printf("### Wrote snapshot %s (%d KB) in %.0f ms%n", snapshotFile,
+                    Files.size(snapshotFile) / 1024, (System.nanoTime() - startNanos) / 1_000_000.0);
+        } catch (IOException e) {
+            System.err.printf("### Failed to write snapshot %s: %s%n", snapshotFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrites the snapshot with one block per currency. Takes the fingerprint under the lock that
+     * {@link #append} holds, so updates that arrived since the restore keep the snapshot valid.
+     */
+    private synchronized void compact() {
+        if (sourceFingerprint != null) save(sourceFingerprint);
+    }
+
+    /**
+     * Appends newly stored rates; rewrites the whole snapshot if the file has gone missing.
+     *
+     * @param fingerprint fingerprint of the CSV files after they received the same rates, or null
+     *                    when they could not be written; the snapshot then no longer matches them
+     */
+    public synchronized void append(Collection<SnapshotSeries> newRates, Long fingerprint) {
+        if (snapshotFile == null || newRates.isEmpty() || sourceFingerprint == null) return;
+
+        long newFingerprint = fingerprint != null ? fingerprint : ~sourceFingerprint;
+        if (!Files.isRegularFile(snapshotFile)) {
+            save(newFingerprint);
+            return;
+        }
+        try {
+            RateSnapshot.append(snapshotFile, newRates);
+            RateSnapshot.updateSourceFingerprint(snapshotFile, newFingerprint);
+            sourceFingerprint = newFingerprint;
+        } catch (IOException e) {
+            System.err.printf("### Failed to append to snapshot %s: %s%n", snapshotFile, e.getMessage());
+        }
+    }
+
+    /** Inserts the snapshot rows into the exchange_rates table; rows repeated in later blocks are skipped. */
+    private void loadDatabase(List<SnapshotSeries> blocks, Map<String, Currency> currencies) {
+        long startNanos = System.nanoTime();
+        Map<String, BitSet> storedDays = new HashMap<>();
+        int inserted = 0;
+
+        for (SnapshotSeries block : blocks) {
+            Currency currency = currencies.get(block.getCurrencyCode());
+            BitSet stored = storedDays.computeIfAbsent(block.getCurrencyCode(), code -> new BitSet());
+            int[] days = block.getEpochDays();
+            long[] values = block.getScaledValues();
+
+            List<ExchangeRate> rates = new ArrayList<>(block.size());
+            for (int i = 0; i < block.size(); i++) {
+                if (days[i] >= 0 && stored.get(days[i])) continue;
+                if (days[i] >= 0) stored.set(days[i]);
+                rates.add(new ExchangeRate(currency, LocalDate.ofEpochDay(days[i]), RateSeries.toDecimal(values[i])));
+            }
+            inserted += bulkWriter.insertAll(rates, batchSize);
+        }
+
+        System.out.printf("### Loaded %d snapshot rates into the database in %.2f s%n",
+                inserted, (System.nanoTime() - startNanos) / 1_000_000_000.0);
+    }
+}
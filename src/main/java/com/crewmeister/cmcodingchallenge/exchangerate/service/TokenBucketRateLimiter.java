@@ -0,0 +1,42 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket shared by all fetch threads. It holds up to {@code burst} permits and refills at
+ * {@code permitsPerSecond}. Once the burst is used up, {@link #acquire()} hands out permits at
+ * evenly spaced times, no matter how many threads are waiting.
+ */
+public class TokenBucketRateLimiter {
+    private final double nanosPerPermit;
+    private final double burst;
+    private double permits;
+    private long lastRefillNanos;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        this.nanosPerPermit = 1_000_000_000.0 / permitsPerSecond;
+        this.burst = Math.max(burst, 1);
+        this.permits = this.burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /** Blocks until the next permit is due. */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve(System.nanoTime());
+        if (waitNanos > 0) TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+
+    /**
+     * Takes one permit and returns how long the caller has to wait for it. Permits may go negative:
+     * every waiting caller holds a reservation further in the future, so waiters never race.
+     */
+    synchronized long reserve(long nowNanos) {
+        permits = Math.min(burst, permits + (nowNanos - lastRefillNanos) / nanosPerPermit);
+        lastRefillNanos = nowNanos;
+        permits -= 1;
+        return permits >= 0 ? 0 : (long) Math.ceil(-permits * nanosPerPermit);
+    }
+}
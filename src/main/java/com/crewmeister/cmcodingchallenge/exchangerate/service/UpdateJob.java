@@ -0,0 +1,184 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One Bundesbank update run submitted to {@link UpdateJobService}.
+ *
+ * The job thread records progress through the {@link UpdateProgressListener} callbacks while
+ * HTTP threads read the status, so all accessors are synchronized.
+ */
+public class UpdateJob implements UpdateProgressListener {
+    public enum State { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    /** Outcome of one API request; in bulk mode one request covers several currencies. */
+    public static class RequestRecord {
+        private final String currencies;
+        private final LocalDate startPeriod;
+        private final int statusCode;
+        private final int attempts;
+        private final int bytes;
+        private final long elapsedMillis;
+        private final int currenciesUpdated;
+        private final String error;
+
+        RequestRecord(BundesbankFetchResult result, int currenciesUpdated, String error) {
+            this.currencies = result.getCurrencyCode();
+            this.startPeriod = result.getStartPeriod();
+            this.statusCode = result.getStatusCode();
+            this.attempts = result.getAttempts();
+            this.bytes = result.getBytes();
+            this.elapsedMillis = result.getElapsedNanos() / 1_000_000;
+            this.currenciesUpdated = currenciesUpdated;
+            this.error = error;
+        }
+
+        /** Requested currency code, or several joined by '+'. */
+        public String getCurrencies() {
+            return currencies;
+        }
+
+        public LocalDate getStartPeriod() {
+            return startPeriod;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public int getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public int getCurrenciesUpdated() {
+            return currenciesUpdated;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    private final String id;
+    private final boolean fullResync;
+    private final Instant submittedAt;
+    private final List<RequestRecord> requests = new ArrayList<>();
+    private State state = State.QUEUED;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private int coalescedTriggers;
+    private int requestsPlanned;
+    private int requestsFailed;
+    private int currenciesUpdated;
+    private long bytesFetched;
+    private String error;
+
+    UpdateJob(String id, boolean fullResync, Instant submittedAt) {
+        this.id = id;
+        this.fullResync = fullResync;
+        this.submittedAt = submittedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public boolean isFullResync() {
+        return fullResync;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized boolean isFinished() {
+        return state == State.SUCCEEDED || state == State.FAILED;
+    }
+
+    public synchronized Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public synchronized Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /** Number of further triggers that arrived while this job was queued or running and were merged into it. */
+    public synchronized int getCoalescedTriggers() {
+        return coalescedTriggers;
+    }
+
+    /** Number of API requests the run makes; 0 until the run has planned them. */
+    public synchronized int getRequestsPlanned() {
+        return requestsPlanned;
+    }
+
+    public synchronized int getRequestsCompleted() {
+        return requests.size();
+    }
+
+    public synchronized int getRequestsFailed() {
+        return requestsFailed;
+    }
+
+    public synchronized int getCurrenciesUpdated() {
+        return currenciesUpdated;
+    }
+
+    public synchronized long getBytesFetched() {
+        return bytesFetched;
+    }
+
+    /** Reason the whole run failed, or null. Failures of single requests are listed in {@link #getRequests()}. */
+    public synchronized String getError() {
+        return error;
+    }
+
+    /** Finished requests in completion order. */
+    public synchronized List<RequestRecord> getRequests() {
+        return new ArrayList<>(requests);
+    }
+
+    synchronized void coalesce() {
+        coalescedTriggers++;
+    }
+
+    synchronized void markRunning(Instant now) {
+        state = State.RUNNING;
+        startedAt = now;
+    }
+
+    synchronized void markFinished(Instant now, String failure) {
+        state = failure == null ? State.SUCCEEDED : State.FAILED;
+        finishedAt = now;
+        error = failure;
+    }
+
+    @Override
+    public synchronized void onPlanned(int requests) {
+        requestsPlanned = requests;
+    }
+
+    @Override
+    public synchronized void onRequestFinished(BundesbankFetchResult result, int currenciesUpdated, String error) {
+        requests.add(new RequestRecord(result, currenciesUpdated, error));
+        this.currenciesUpdated += currenciesUpdated;
+        bytesFetched += result.getBytes();
+        if (error != null) requestsFailed++;
+    }
+}
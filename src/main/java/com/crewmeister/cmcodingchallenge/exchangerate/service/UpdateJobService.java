@@ -0,0 +1,116 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs Bundesbank updates as asynchronous jobs, one at a time.
+ *
+ *  - Manual and scheduled triggers submit a job and return at once
+ *  - A trigger that arrives while a job is queued or running joins that job instead of starting another,
+ *    so two updates never write the same rows and CSV files concurrently
+ *  - Jobs wait until the startup CSV import has finished
+ *  - After each job the cross rates of the most recent dates are precomputed again
+ *  - The last {@value #MAX_HISTORY} jobs are kept for status queries
+ */
+@Service
+public class UpdateJobService {
+    private static final int MAX_HISTORY = 20;
+
+    private final ExchangeRateImporter importer;
+    private final CrossRateService crossRateService;
+    private final ExecutorService executor;
+    private final CountDownLatch startupImport = new CountDownLatch(1);
+    private final Map<String, UpdateJob> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, UpdateJob> eldest) {
+            return size() > MAX_HISTORY;
+        }
+    };
+    private UpdateJob current;
+
+    public UpdateJobService(ExchangeRateImporter importer, CrossRateService crossRateService) {
+        this.importer = importer;
+        this.crossRateService = crossRateService;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bundesbank-update");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Scheduled task — fetches and updates exchange rates from Bundesbank API daily.
+     * Runs automatically at 11:00 AM local time and only asks for the days after
+     * the latest stored rate of each currency.
+     */
+    @Scheduled(cron = "0 0 11 * * *")
+    public void scheduledUpdate() {
+        submit(false);
+    }
+
+    /**
+     * Starts an update job, or returns the queued or running job if there is one.
+     * A coalesced trigger keeps the running job's mode, even if it asked for a full resync.
+     *
+     * @param fullResync true to download every currency's complete history
+     */
+    public synchronized UpdateJob submit(boolean fullResync) {
+        if (current != null && !current.isFinished()) {
+            current.coalesce();
+            return current;
+        }
+
+        UpdateJob job = new UpdateJob(UUID.randomUUID().toString(), fullResync, Instant.now());
+        jobs.put(job.getId(), job);
+        current = job;
+        executor.execute(() -> run(job));
+        return job;
+    }
+
+    public synchronized Optional<UpdateJob> findJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /** Releases the jobs submitted so far; called once the startup CSV import has finished. */
+    public void startupImportFinished() {
+        startupImport.countDown();
+    }
+
+    private void run(UpdateJob job) {
+        String failure = null;
+        try {
+            startupImport.await();
+            job.markRunning(Instant.now());
+            importer.updateFromBundesbankApi(job.isFullResync(), job);
+            crossRateService.precomputeHotDates();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = "Interrupted";
+        } catch (RuntimeException e) {
+            failure = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            System.err.printf("### Update job %s failed: %s%n", job.getId(), failure);
+        } catch (Error e) {
+            failure = e.getClass().getSimpleName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+            throw e;
+        } finally {
+            // Always, or a job that died on an Error would stay running and swallow every later trigger
+            job.markFinished(Instant.now(), failure);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
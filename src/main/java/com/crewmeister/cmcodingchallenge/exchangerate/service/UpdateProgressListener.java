@@ -0,0 +1,17 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+/**
+ * Receives progress events of a Bundesbank update run, on the thread that runs the update.
+ */
+public interface UpdateProgressListener {
+    /** Called once before the first request with the number of API requests the update will make. */
+    void onPlanned(int requests);
+
+    /**
+     * Called for every finished API request, in completion order.
+     *
+     * @param currenciesUpdated number of currencies that received new rates from this response
+     * @param error             reason the request or its persisting failed, or null on success or no new data
+     */
+    void onRequestFinished(BundesbankFetchResult result, int currenciesUpdated, String error);
+}
@@ -0,0 +1,231 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary snapshot of rate series, for restarts without re-parsing the CSV files.
+ *
+ * Layout (big-endian):
+ * <pre>
+ * header  magic "FXRS" (int), version (short), reserved (short), source fingerprint (long),
+ *         created at in epoch millis (long), CRC32 of the preceding 24 bytes (int)
+ * block*  payload length (int), payload, CRC32 of the payload (int)
+ * payload code length (byte), code (ASCII), name length (short), name (UTF-8), row count (int),
+ *         first epoch day (int), scaled rates (long per row),
+ *         day gaps to the previous row (unsigned varint per row after the first)
+ * </pre>
+ * A full write replaces the file atomically; updates append further blocks, so a currency can
+ * span several blocks, and then rewrite the fingerprint in place. Any checksum mismatch or
+ * truncated block makes {@link #read} fail, and the caller falls back to the CSV files.
+ */
+public final class RateSnapshot {
+    static final int MAGIC = 0x46585253;
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 28;
+
+    /** Decoded snapshot: the fingerprint of the sources it was built from, and all blocks in file order. */
+    public static class Contents {
+        private final long sourceFingerprint;
+        private final long createdAtMillis;
+        private final List<SnapshotSeries> blocks;
+
+        Contents(long sourceFingerprint, long createdAtMillis, List<SnapshotSeries> blocks) {
+            this.sourceFingerprint = sourceFingerprint;
+            this.createdAtMillis = createdAtMillis;
+            this.blocks = blocks;
+        }
+
+        public long getSourceFingerprint() {
+            return sourceFingerprint;
+        }
+
+        public long getCreatedAtMillis() {
+            return createdAtMillis;
+        }
+
+        public List<SnapshotSeries> getBlocks() {
+            return blocks;
+        }
+    }
+
+    private RateSnapshot() {
+    }
+
+    /** Writes a new snapshot with one block per series through a temporary file and an atomic rename. */
+    public static void write(Path path, long sourceFingerprint, Collection<SnapshotSeries> series) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                        .putLong(sourceFingerprint).putLong(System.currentTimeMillis());
+                header.putInt(crc(header, 0, HEADER_BYTES - 4));
+                writeFully(channel, header.flip());
+                writeBlocks(channel, series);
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** Appends one block per series to an existing snapshot and forces it to disk. */
+    public static void append(Path path, Collection<SnapshotSeries> series) throws IOException {
+        if (series.isEmpty()) return;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            writeBlocks(channel, series);
+            channel.force(false);
+        }
+    }
+
+    /** Overwrites the source fingerprint in the header, e.g. after the CSV files received the appended rates. */
+    public static void updateSourceFingerprint(Path path, long sourceFingerprint) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) { }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) throw new IOException("Not a rate snapshot");
+
+            header.putLong(8, sourceFingerprint);
+            header.putInt(HEADER_BYTES - 4, crc(header, 0, HEADER_BYTES - 4));
+            header.clear();
+            while (header.hasRemaining()) channel.write(header, header.position());
+            channel.force(false);
+        }
+    }
+
+    /** Memory-maps and decodes a snapshot, verifying the header and every block checksum. */
+    public static Contents read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Unexpected snapshot size " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            int magic = buffer.getInt();
+            short version = buffer.getShort();
+            buffer.getShort();
+            long fingerprint = buffer.getLong();
+            long createdAt = buffer.getLong();
+            int headerCrc = buffer.getInt();
+            if (magic != MAGIC) throw new IOException("Not a rate snapshot");
+            if (version != VERSION) throw new IOException("Unsupported snapshot version " + version);
+            if (crc(buffer, 0, HEADER_BYTES - 4) != headerCrc) throw new IOException("Snapshot header checksum mismatch");
+
+            List<SnapshotSeries> blocks = new ArrayList<>();
+            while (buffer.hasRemaining()) {
+                if (buffer.remaining() < 4) throw new IOException("Truncated snapshot block");
+                int length = buffer.getInt();
+                int start = buffer.position();
+                if (length < 0 || buffer.remaining() < length + 4L) throw new IOException("Truncated snapshot block");
+                if (crc(buffer, start, length) != buffer.getInt(start + length)) {
+                    throw new IOException("Snapshot block checksum mismatch at offset " + (start - 4));
+                }
+
+                blocks.add(readBlock(buffer));
+                if (buffer.position() != start + length) throw new IOException("Malformed snapshot block");
+                buffer.position(start + length + 4);
+            }
+            return new Contents(fingerprint, createdAt, blocks);
+        }
+    }
+
+    private static SnapshotSeries readBlock(ByteBuffer buffer) throws IOException {
+        String code = readString(buffer, buffer.get() & 0xFF);
+        String name = readString(buffer, buffer.getShort() & 0xFFFF);
+        int count = buffer.getInt();
+        int day = buffer.getInt();
+        if (count < 0 || count > buffer.remaining() / 8) throw new IOException("Malformed snapshot block");
+
+        long[] values = new long[count];
+        buffer.asLongBuffer().get(values);
+        buffer.position(buffer.position() + count * 8);
+
+        int[] days = new int[count];
+        for (int i = 0; i < count; i++) {
+            if (i > 0) day += readVarint(buffer);
+            days[i] = day;
+        }
+        return new SnapshotSeries(code, name, days, values, count);
+    }
+
+    private static void writeBlocks(FileChannel channel, Collection<SnapshotSeries> series) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(64 * 1024);
+        for (SnapshotSeries s : series) {
+            byte[] code = s.getCurrencyCode().getBytes(StandardCharsets.US_ASCII);
+            byte[] name = s.getCurrencyName() == null ? new byte[0] : s.getCurrencyName().getBytes(StandardCharsets.UTF_8);
+            if (code.length > 0xFF || name.length > 0xFFFF) throw new IllegalArgumentException("Currency code or name too long");
+
+            int maxLength = 4 + 1 + code.length + 2 + name.length + 8 + s.size() * 13 + 4;
+            if (block.capacity() < maxLength) block = ByteBuffer.allocate(maxLength);
+            block.clear();
+
+            int[] days = s.getEpochDays();
+            long[] values = s.getScaledValues();
+            block.putInt(0);
+            block.put((byte) code.length).put(code).putShort((short) name.length).put(name);
+            block.putInt(s.size()).putInt(s.size() > 0 ? days[0] : 0);
+            for (int i = 0; i < s.size(); i++) block.putLong(values[i]);
+            for (int i = 1; i < s.size(); i++) {
+                if (days[i] <= days[i - 1]) throw new IllegalArgumentException("Epoch days must be strictly ascending");
+                writeVarint(block, days[i] - days[i - 1]);
+            }
+
+            int length = block.position() - 4;
+            block.putInt(0, length);
+            block.putInt(crc(block, 4, length));
+            writeFully(channel, block.flip());
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    private static void writeVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int readVarint(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("Malformed varint in snapshot");
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        ByteBuffer range = buffer.duplicate();
+        range.limit(offset + length).position(offset);
+        CRC32 crc = new CRC32();
+        crc.update(range);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,42 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.snapshot;
+
+/**
+ * Rates of one currency as stored in one snapshot block: ascending epoch days and rates scaled
+ * by 10^{@value com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries#SCALE}.
+ * A currency may appear in several blocks when updates were appended.
+ */
+public class SnapshotSeries {
+    private final String currencyCode;
+    private final String currencyName;
+    private final int[] epochDays;
+    private final long[] scaledValues;
+    private final int size;
+
+    public SnapshotSeries(String currencyCode, String currencyName, int[] epochDays, long[] scaledValues, int size) {
+        this.currencyCode = currencyCode;
+        this.currencyName = currencyName;
+        this.epochDays = epochDays;
+        this.scaledValues = scaledValues;
+        this.size = size;
+    }
+
+    public String getCurrencyCode() {
+        return currencyCode;
+    }
+
+    public String getCurrencyName() {
+        return currencyName;
+    }
+
+    public int[] getEpochDays() {
+        return epochDays;
+    }
+
+    public long[] getScaledValues() {
+        return scaledValues;
+    }
+
+    public int size() {
+        return size;
+    }
+}
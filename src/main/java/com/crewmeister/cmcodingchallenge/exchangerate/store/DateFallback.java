@@ -0,0 +1,25 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.store;
+
+import java.util.Locale;
+
+/** How a lookup treats a date without rates, e.g. a weekend or a TARGET holiday. */
+public enum DateFallback {
+    /** Only the requested date is used. */
+    EXACT,
+    /** The latest date with rates on or before the requested date. */
+    PREVIOUS,
+    /** The earliest date with rates on or after the requested date. */
+    NEXT,
+    /** The closer of PREVIOUS and NEXT; PREVIOUS on a tie. */
+    NEAREST;
+
+    /**
+     * Parses "previous", "next" or "nearest" in any case; null or blank means {@link #EXACT}.
+     *
+     * @throws IllegalArgumentException for any other value
+     */
+    public static DateFallback parse(String value) {
+        if (value == null || value.isBlank()) return EXACT;
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
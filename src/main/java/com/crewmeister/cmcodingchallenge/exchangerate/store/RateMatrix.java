@@ -0,0 +1,115 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.store;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Dense, row-major rate matrix: one row per calendar day since {@value #BASE_DATE}, one column
+ * per currency (sorted by code). Missing observations hold {@link #MISSING}.
+ *
+ * "All rates on a date" is a single contiguous slice copy of one row. Writes are copy-on-write
+ * for rows that readers can already see; new days are appended into spare capacity and become
+ * visible when the new layout is published. Only {@link RateStore} writes, under its lock.
+ */
+final class RateMatrix {
+    static final String BASE_DATE = "1999-01-01";
+    static final int BASE_EPOCH_DAY = (int) LocalDate.parse(BASE_DATE).toEpochDay();
+    static final long MISSING = Long.MIN_VALUE;
+
+    /** Immutable snapshot of the matrix shape; cells beyond {@code rows} are not yet visible. */
+    private static final class Layout {
+        final String[] codes;
+        final long[] cells;
+        final int rows;
+
+        Layout(String[] codes, long[] cells, int rows) {
+            this.codes = codes;
+            this.cells = cells;
+            this.rows = rows;
+        }
+    }
+
+    private volatile Layout layout = new Layout(new String[0], new long[0], 0);
+
+    /** Copies the row of the given day, or returns null when the day lies outside the matrix. */
+    RatesOnDate slice(LocalDate date) {
+        Layout current = layout;
+        int row = (int) date.toEpochDay() - BASE_EPOCH_DAY;
+        if (row < 0 || row >= current.rows) return null;
+
+        int columns = current.codes.length;
+        long[] values = new long[columns];
+        System.arraycopy(current.cells, row * columns, values, 0, columns);
+
+        String[] codes = new String[columns];
+        int size = 0;
+        for (int column = 0; column < columns; column++) {
+            if (values[column] == MISSING) continue;
+            codes[size] = current.codes[column];
+            values[size++] = values[column];
+        }
+        return new RatesOnDate(date, codes, values, size);
+    }
+
+    /** Fills the cells of one currency for the given days; existing values are kept. */
+    void merge(String currencyCode, int[] epochDays, long[] scaledValues, int count) {
+        Layout current = layout;
+        int column = Arrays.binarySearch(current.codes, currencyCode);
+        if (column < 0) {
+            current = withColumn(current, currencyCode);
+            column = Arrays.binarySearch(current.codes, currencyCode);
+        }
+
+        int columns = current.codes.length;
+        int lastRow = current.rows - 1;
+        boolean touchesVisibleRows = false;
+        for (int i = 0; i < count; i++) {
+            int row = epochDays[i] - BASE_EPOCH_DAY;
+            if (row < 0) continue;
+            lastRow = Math.max(lastRow, row);
+            if (row < current.rows && current.cells[row * columns + column] == MISSING) touchesVisibleRows = true;
+        }
+
+        long[] cells = current.cells;
+        int needed = (lastRow + 1) * columns;
+        if (touchesVisibleRows || needed > cells.length) {
+            int capacity = needed > cells.length ? Math.max(needed, cells.length + (cells.length >> 1)) : cells.length;
+            cells = Arrays.copyOf(cells, capacity);
+            Arrays.fill(cells, current.cells.length, capacity, MISSING);
+        }
+
+        for (int i = 0; i < count; i++) {
+            int row = epochDays[i] - BASE_EPOCH_DAY;
+            if (row < 0) continue;
+            int cell = row * columns + column;
+            if (cells[cell] == MISSING) cells[cell] = scaledValues[i];
+        }
+
+        layout = new Layout(current.codes, cells, lastRow + 1);
+    }
+
+    void clear() {
+        layout = new Layout(new String[0], new long[0], 0);
+    }
+
+    /** Rebuilds the cells with an extra column, keeping the columns sorted by currency code. */
+    private static Layout withColumn(Layout current, String currencyCode) {
+        int oldColumns = current.codes.length;
+        int insertAt = -Arrays.binarySearch(current.codes, currencyCode) - 1;
+
+        String[] codes = new String[oldColumns + 1];
+        System.arraycopy(current.codes, 0, codes, 0, insertAt);
+        codes[insertAt] = currencyCode;
+        System.arraycopy(current.codes, insertAt, codes, insertAt + 1, oldColumns - insertAt);
+
+        long[] cells = new long[current.rows * codes.length];
+        Arrays.fill(cells, MISSING);
+        for (int row = 0; row < current.rows; row++) {
+            int from = row * oldColumns;
+            int to = row * codes.length;
+            System.arraycopy(current.cells, from, cells, to, insertAt);
+            System.arraycopy(current.cells, from + insertAt, cells, to + insertAt + 1, oldColumns - insertAt);
+        }
+        return new Layout(codes, cells, current.rows);
+    }
+}
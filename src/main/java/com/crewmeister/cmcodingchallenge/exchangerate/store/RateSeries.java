@@ -0,0 +1,141 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.store;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Immutable view of one currency's daily rate series.
+ *
+ * Dates are stored as ascending epoch days in an {@code int[]}, rates as longs scaled by
+ * 10^{@value #SCALE} in a parallel {@code long[]}. Appending newer dates creates a new view that
+ * shares the arrays while they have spare capacity; older views never read past their own size,
+ * so readers need no locking as long as there is a single writer (see {@link RateStore}).
+ */
+public final class RateSeries {
+    /** Number of decimal places kept for every rate. */
+    public static final int SCALE = 6;
+
+    private final String currencyCode;
+    private final int[] epochDays;
+    private final long[] values;
+    private final int size;
+
+    private RateSeries(String currencyCode, int[] epochDays, long[] values, int size) {
+        this.currencyCode = currencyCode;
+        this.epochDays = epochDays;
+        this.values = values;
+        this.size = size;
+    }
+
+    static RateSeries empty(String currencyCode) {
+        return new RateSeries(currencyCode, new int[0], new long[0], 0);
+    }
+
+    public String getCurrencyCode() {
+        return currencyCode;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int epochDayAt(int index) {
+        return epochDays[index];
+    }
+
+    public long scaledValueAt(int index) {
+        return values[index];
+    }
+
+    public LocalDate dateAt(int index) {
+        return LocalDate.ofEpochDay(epochDays[index]);
+    }
+
+    public BigDecimal valueAt(int index) {
+        return toDecimal(values[index]);
+    }
+
+    /** Epoch day of the latest observation, or {@link Integer#MIN_VALUE} when empty. */
+    public int lastEpochDay() {
+        return size == 0 ? Integer.MIN_VALUE : epochDays[size - 1];
+    }
+
+    /** Binary search for an exact date; returns the index or a negative insertion point as in {@link Arrays#binarySearch}. */
+    public int indexOf(int epochDay) {
+        return Arrays.binarySearch(epochDays, 0, size, epochDay);
+    }
+
+    /** Index of the latest observation on or before the given day, or -1 when there is none. */
+    public int floorIndex(int epochDay) {
+        int index = indexOf(epochDay);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /** Index of the earliest observation on or after the given day, or -1 when there is none. */
+    public int ceilingIndex(int epochDay) {
+        int index = indexOf(epochDay);
+        if (index >= 0) return index;
+        return -index - 1 < size ? -index - 1 : -1;
+    }
+
+    /** Scaled rate on the given day, or {@link Long#MIN_VALUE} when there is no observation. */
+    public long scaledValueOn(int epochDay) {
+        int index = indexOf(epochDay);
+        return index >= 0 ? values[index] : Long.MIN_VALUE;
+    }
+
+    /**
+     * Returns a series containing this series' rows plus the given rows. Rows whose date already
+     * exists are ignored. The input must be sorted by date and free of duplicates.
+     */
+    RateSeries merge(int[] newDays, long[] newValues, int count) {
+        if (count == 0) return this;
+
+        // Fast path: everything is newer than the current tail, so the rows can be appended
+        if (newDays[0] > lastEpochDay()) {
+            int[] days = epochDays;
+            long[] vals = values;
+            if (size + count > days.length) {
+                int capacity = Math.max(size + count, size + (size >> 1) + 16);
+                days = Arrays.copyOf(days, capacity);
+                vals = Arrays.copyOf(vals, capacity);
+            }
+            System.arraycopy(newDays, 0, days, size, count);
+            System.arraycopy(newValues, 0, vals, size, count);
+            return new RateSeries(currencyCode, days, vals, size + count);
+        }
+
+        // Slow path: sorted merge into fresh arrays, keeping existing rows on equal dates
+        int[] days = new int[size + count];
+        long[] vals = new long[size + count];
+        int i = 0, j = 0, n = 0;
+        while (i < size || j < count) {
+            if (j >= count || (i < size && epochDays[i] <= newDays[j])) {
+                if (j < count && epochDays[i] == newDays[j]) j++;
+                days[n] = epochDays[i];
+                vals[n++] = values[i++];
+            } else {
+                days[n] = newDays[j];
+                vals[n++] = newValues[j++];
+            }
+        }
+        return new RateSeries(currencyCode, days, vals, n);
+    }
+
+    /** Converts a rate to the store's fixed scale. */
+    public static long toScaled(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /** Converts a scaled rate back to a BigDecimal without trailing zeros (and never in exponent form). */
+    public static BigDecimal toDecimal(long scaled) {
+        BigDecimal value = BigDecimal.valueOf(scaled, SCALE).stripTrailingZeros();
+        return value.scale() < 0 ? value.setScale(0) : value;
+    }
+}
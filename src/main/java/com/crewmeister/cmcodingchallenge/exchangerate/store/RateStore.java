@@ -0,0 +1,172 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.store;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory, append-mostly store of all daily EUR-FX rate series, keyed by currency code.
+ *
+ * Filled by the CSV import and by the Bundesbank updater, and used by the read endpoints so
+ * that lookups are a binary search over primitive arrays instead of a JPA query.
+ * Writes are serialized; reads are lock-free and always see a consistent {@link RateSeries}.
+ * A dense {@link RateMatrix} mirrors the series so that all rates of a date are one row copy.
+ * {@link RateStoreListener}s can maintain derived data incrementally.
+ */
+@Component
+public class RateStore {
+    private final ConcurrentNavigableMap<String, RateSeries> seriesByCode = new ConcurrentSkipListMap<>();
+    private final RateMatrix matrix = new RateMatrix();
+    private final List<RateStoreListener> listeners = new CopyOnWriteArrayList<>();
+
+    /** Registers a listener for all later writes. */
+    public void addListener(RateStoreListener listener) {
+        listeners.add(listener);
+    }
+
+    /** Returns the series of a currency, if any rates are known for it. */
+    public Optional<RateSeries> series(String currencyCode) {
+        return Optional.ofNullable(seriesByCode.get(currencyCode));
+    }
+
+    /** All series, ordered by currency code. */
+    public Collection<RateSeries> allSeries() {
+        return seriesByCode.values();
+    }
+
+    /** Rate of a currency on an exact date, in O(log n). */
+    public Optional<BigDecimal> findRate(String currencyCode, LocalDate date) {
+        RateSeries series = seriesByCode.get(currencyCode);
+        if (series == null) return Optional.empty();
+
+        int index = series.indexOf((int) date.toEpochDay());
+        return index >= 0 ? Optional.of(series.valueAt(index)) : Optional.empty();
+    }
+
+    /** All rates on an exact date, ordered by currency code, in O(1) for dates since 1999-01-01. */
+    public RatesOnDate ratesOn(LocalDate date) {
+        int epochDay = (int) date.toEpochDay();
+        if (epochDay >= RateMatrix.BASE_EPOCH_DAY) {
+            RatesOnDate slice = matrix.slice(date);
+            return slice != null ? slice : new RatesOnDate(date, new String[0], new long[0], 0);
+        }
+
+        // Dates before the matrix range are answered from the individual series
+        List<RateSeries> all = new ArrayList<>(seriesByCode.values());
+        String[] codes = new String[all.size()];
+        long[] values = new long[all.size()];
+        int size = 0;
+
+        for (RateSeries series : all) {
+            long value = series.scaledValueOn(epochDay);
+            if (value != Long.MIN_VALUE) {
+                codes[size] = series.getCurrencyCode();
+                values[size++] = value;
+            }
+        }
+        return new RatesOnDate(date, codes, values, size);
+    }
+
+    /**
+     * Date a lookup should use: the requested date if it has a rate, otherwise the closest
+     * earlier or later date with a rate, as the fallback allows. Costs a floor and a ceiling
+     * binary search per series involved.
+     *
+     * @param currencyCode the currency whose rates count, or null for a rate of any currency
+     * @return the effective date, or empty when there is no rate to fall back to
+     */
+    public Optional<LocalDate> resolveDate(String currencyCode, LocalDate date, DateFallback fallback) {
+        Collection<RateSeries> candidates;
+        if (currencyCode == null) {
+            candidates = seriesByCode.values();
+        } else {
+            RateSeries series = seriesByCode.get(currencyCode);
+            if (series == null) return Optional.empty();
+            candidates = List.of(series);
+        }
+
+        int day = (int) date.toEpochDay();
+        long previous = Long.MIN_VALUE;
+        long next = Long.MAX_VALUE;
+        for (RateSeries series : candidates) {
+            int floor = series.floorIndex(day);
+            if (floor >= 0) previous = Math.max(previous, series.epochDayAt(floor));
+            int ceiling = series.ceilingIndex(day);
+            if (ceiling >= 0) next = Math.min(next, series.epochDayAt(ceiling));
+        }
+
+        long effective;
+        if (previous == day || fallback == DateFallback.PREVIOUS) {
+            effective = previous;
+        } else if (fallback == DateFallback.NEXT) {
+            effective = next;
+        } else if (fallback == DateFallback.NEAREST) {
+            effective = previous != Long.MIN_VALUE && (next == Long.MAX_VALUE || day - previous <= next - day) ? previous : next;
+        } else {
+            return Optional.empty();
+        }
+        return effective == Long.MIN_VALUE || effective == Long.MAX_VALUE
+                ? Optional.empty()
+                : Optional.of(LocalDate.ofEpochDay(effective));
+    }
+
+    /** Adds a single rate; ignored when the currency already has a rate on that date. */
+    public void put(String currencyCode, LocalDate date, BigDecimal value) {
+        merge(currencyCode, new int[] { (int) date.toEpochDay() }, new long[] { RateSeries.toScaled(value) }, 1);
+    }
+
+    /**
+     * Merges rates into a currency series. Input rows may be in any order; rows whose date is
+     * already known (or repeated within the input) are ignored.
+     */
+    public synchronized void merge(String currencyCode, int[] epochDays, long[] scaledValues, int count) {
+        if (count == 0) return;
+
+        int[] days = epochDays;
+        long[] values = scaledValues;
+        if (!isStrictlyAscending(days, count)) {
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Integer.compare(epochDays[a], epochDays[b]));
+
+            days = new int[count];
+            values = new long[count];
+            int unique = 0;
+            for (Integer i : order) {
+                if (unique > 0 && days[unique - 1] == epochDays[i]) continue;
+                days[unique] = epochDays[i];
+                values[unique++] = scaledValues[i];
+            }
+            count = unique;
+        }
+
+        RateSeries current = seriesByCode.getOrDefault(currencyCode, RateSeries.empty(currencyCode));
+        RateSeries merged = current.merge(days, values, count);
+        seriesByCode.put(currencyCode, merged);
+        matrix.merge(currencyCode, days, values, count);
+        for (RateStoreListener listener : listeners) listener.onMerge(merged, days, count);
+    }
+
+    /** Drops all series. */
+    public synchronized void clear() {
+        seriesByCode.clear();
+        matrix.clear();
+        for (RateStoreListener listener : listeners) listener.onClear();
+    }
+
+    private static boolean isStrictlyAscending(int[] days, int count) {
+        for (int i = 1; i < count; i++) {
+            if (days[i] <= days[i - 1]) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,21 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.store;
+
+/**
+ * Notified by {@link RateStore} after every write, on the writing thread and under its lock,
+ * so listeners see writes one at a time and in order.
+ */
+public interface RateStoreListener {
+
+    /**
+     * Called after rates were merged into a series.
+     *
+     * @param series     the series as published after the merge
+     * @param epochDays  the merged dates in ascending order; dates that were already known are included
+     * @param count      number of valid entries in {@code epochDays}
+     */
+    void onMerge(RateSeries series, int[] epochDays, int count);
+
+    /** Called after all series were dropped. */
+    default void onClear() {
+    }
+}
@@ -0,0 +1,49 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.store;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/** All rates available on one date, as parallel currency-code and scaled-value columns. */
+public final class RatesOnDate {
+    private final LocalDate date;
+    private final String[] currencyCodes;
+    private final long[] scaledValues;
+    private final int size;
+
+    RatesOnDate(LocalDate date, String[] currencyCodes, long[] scaledValues, int size) {
+        this.date = date;
+        this.currencyCodes = currencyCodes;
+        this.scaledValues = scaledValues;
+        this.size = size;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public String currencyAt(int index) {
+        return currencyCodes[index];
+    }
+
+    public long scaledValueAt(int index) {
+        return scaledValues[index];
+    }
+
+    /** Index of a currency (codes are sorted), or a negative value when it has no rate on this date. */
+    public int indexOf(String currencyCode) {
+        return Arrays.binarySearch(currencyCodes, 0, size, currencyCode);
+    }
+
+    public BigDecimal valueAt(int index) {
+        return RateSeries.toDecimal(scaledValues[index]);
+    }
+}
@@ -0,0 +1,197 @@
+package com.crewmeister.cmcodingchallenge.analytics.controller;
+
+import com.crewmeister.cmcodingchallenge.analytics.service.AggregationInterval;
+import com.crewmeister.cmcodingchallenge.analytics.service.CorrelationMeasure;
+import com.crewmeister.cmcodingchallenge.analytics.service.CorrelationService;
+import com.crewmeister.cmcodingchallenge.analytics.service.RangeStatsService;
+import com.crewmeister.cmcodingchallenge.analytics.service.RateAggregationService;
+import com.crewmeister.cmcodingchallenge.analytics.service.RollingIndicatorService;
+import com.crewmeister.cmcodingchallenge.config.CacheConfig;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit tests for {@link RateAnalyticsController}.
+ *
+ * The analytics services are mocked; their results are covered by their own tests.
+ */
+@WebMvcTest(value = RateAnalyticsController.class, properties = "analytics.stats-max-windows=4")
+public class RateAnalyticsControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RateAggregationService aggregationService;
+
+    @MockBean
+    private RangeStatsService statsService;
+
+    @MockBean
+    private RollingIndicatorService indicatorService;
+
+    @MockBean
+    private CorrelationService correlationService;
+
+    /**
+     * Ensures that GET /api/analytics/rates/{currency} returns labelled OHLC buckets.
+     */
+    @Test
+    void testGetRateRange_Weekly() throws Exception {
+        RateStore rateStore = new RateStore();
+        rateStore.put("USD", LocalDate.of(2024, 1, 15), new BigDecimal("1.09"));
+        rateStore.put("USD", LocalDate.of(2024, 1, 16), new BigDecimal("1.11"));
+        rateStore.put("USD", LocalDate.of(2024, 1, 17), new BigDecimal("1.08"));
+        RateAggregationService realService = new RateAggregationService(rateStore);
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        when(aggregationService.aggregate("USD", from, null, AggregationInterval.WEEK))
+                .thenReturn(realService.aggregate("USD", from, null, AggregationInterval.WEEK));
+
+        mockMvc.perform(get("/api/analytics/rates/usd")
+                        .param("from", "2024-01-01")
+                        .param("interval", "week"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.currency").value("USD"))
+                .andExpect(jsonPath("$.interval").value("week"))
+                .andExpect(jsonPath("$.buckets[0].period").value("2024-W03"))
+                .andExpect(jsonPath("$.buckets[0].count").value(3))
+                .andExpect(jsonPath("$.buckets[0].open").value(1.09))
+                .andExpect(jsonPath("$.buckets[0].high").value(1.11))
+                .andExpect(jsonPath("$.buckets[0].low").value(1.08))
+                .andExpect(jsonPath("$.buckets[0].close").value(1.08))
+                .andExpect(jsonPath("$.buckets[0].mean").value(1.093333));
+    }
+
+    /**
+     * Ensures that an unknown currency and an invalid interval return explanatory messages.
+     */
+    @Test
+    void testGetRateRange_Messages() throws Exception {
+        when(aggregationService.aggregate(any(), any(), any(), any())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/analytics/rates/XXX"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("No exchange rates found for XXX"));
+        mockMvc.perform(get("/api/analytics/rates/USD").param("interval", "hour"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Invalid interval hour, expected day, week, month or year"));
+    }
+
+    /**
+     * Ensures that POST /api/analytics/stats answers every window in request order,
+     * resolving days windows and reporting problems inline, and that too many windows get a message.
+     */
+    @Test
+    void testGetWindowStats() throws Exception {
+        RateStore rateStore = new RateStore();
+        rateStore.put("USD", LocalDate.of(2025, 10, 8), new BigDecimal("1.16"));
+        rateStore.put("USD", LocalDate.of(2025, 10, 9), new BigDecimal("1.17"));
+        rateStore.put("USD", LocalDate.of(2025, 10, 10), new BigDecimal("1.15"));
+        RangeStatsService realService = new RangeStatsService(rateStore);
+        when(statsService.stats(any(), any(), any())).thenAnswer(invocation -> realService.stats(
+                invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+
+        mockMvc.perform(post("/api/analytics/stats")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"currency\": \"usd\", \"to\": \"2025-10-10\", \"days\": 2},"
+                                + "{\"currency\": \"USD\", \"from\": \"2025-10-11\"},"
+                                + "{\"currency\": \"USD\", \"to\": \"2025-13-01\"},"
+                                + "{\"currency\": \"XXX\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].from").value("2025-10-09"))
+                .andExpect(jsonPath("$[0].count").value(2))
+                .andExpect(jsonPath("$[0].mean").value(1.16))
+                .andExpect(jsonPath("$[0].min").value(1.15))
+                .andExpect(jsonPath("$[0].max").value(1.17))
+                .andExpect(jsonPath("$[0].stdDev").value(0.01))
+                .andExpect(jsonPath("$[1].count").value(0))
+                .andExpect(jsonPath("$[1].mean").doesNotExist())
+                .andExpect(jsonPath("$[2].error").value("Invalid date: 2025-13-01"))
+                .andExpect(jsonPath("$[3].error").value("No exchange rates found for XXX"));
+
+        mockMvc.perform(post("/api/analytics/stats")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"currency\": \"USD\"}, {\"currency\": \"USD\"}, {\"currency\": \"USD\"},"
+                                + "{\"currency\": \"USD\"}, {\"currency\": \"USD\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Too many windows: 5, at most 4 per request"));
+    }
+
+    /**
+     * Ensures that GET /api/analytics/indicators/{currency} returns the indicators of the
+     * latest rate on or before the date, leaving out the ones whose window is not filled.
+     */
+    @Test
+    void testGetIndicators() throws Exception {
+        RateStore rateStore = new RateStore();
+        RollingIndicatorService realService = new RollingIndicatorService(rateStore, 1);
+        for (int i = 0; i < 25; i++) {
+            rateStore.put("USD", LocalDate.of(2025, 9, 1).plusDays(i), new BigDecimal(i % 2 == 0 ? "1.16" : "1.17"));
+        }
+        realService.backfill();
+        when(indicatorService.indicatorsAsOf(any(), any())).thenAnswer(invocation -> realService.indicatorsAsOf(
+                invocation.getArgument(0), invocation.getArgument(1)));
+
+        mockMvc.perform(get("/api/analytics/indicators/usd").param("date", "2025-10-10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.currency").value("USD"))
+                .andExpect(jsonPath("$.date").value("2025-09-25"))
+                .andExpect(jsonPath("$.rate").value(1.16))
+                .andExpect(jsonPath("$.sma20").value(1.165))
+                .andExpect(jsonPath("$.sma50").doesNotExist())
+                .andExpect(jsonPath("$.volatility20").exists());
+        mockMvc.perform(get("/api/analytics/indicators/USD").param("date", "2025-08-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("No indicators found for USD on or before 2025-08-01"));
+    }
+
+    /**
+     * Ensures that GET /api/analytics/correlation returns the currencies with their matrix,
+     * and explanatory messages for invalid parameters.
+     */
+    @Test
+    void testGetCorrelationMatrix() throws Exception {
+        RateStore rateStore = new RateStore();
+        String[] usd = { "1.16", "1.17", "1.15", "1.18" };
+        String[] jpy = { "170", "172", "168", "174" };
+        for (int i = 0; i < usd.length; i++) {
+            rateStore.put("USD", LocalDate.of(2025, 10, 6 + i), new BigDecimal(usd[i]));
+            rateStore.put("JPY", LocalDate.of(2025, 10, 6 + i), new BigDecimal(jpy[i]));
+        }
+        CacheManager cacheManager = new CacheConfig().cacheManager("11:00", 10, 10, 10, 10);
+        ((SimpleCacheManager) cacheManager).afterPropertiesSet();
+        CorrelationService realService = new CorrelationService(rateStore, cacheManager, 1);
+        when(correlationService.matrix(null, 3, CorrelationMeasure.CORRELATION))
+                .thenReturn(realService.matrix(null, 3, CorrelationMeasure.CORRELATION));
+
+        mockMvc.perform(get("/api/analytics/correlation").param("window", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measure").value("correlation"))
+                .andExpect(jsonPath("$.window").value(3))
+                .andExpect(jsonPath("$.from").value("2025-10-06"))
+                .andExpect(jsonPath("$.to").value("2025-10-09"))
+                .andExpect(jsonPath("$.currencies[0]").value("JPY"))
+                .andExpect(jsonPath("$.matrix[0][0]").value(1.0))
+                .andExpect(jsonPath("$.matrix[1][1]").value(1.0));
+        mockMvc.perform(get("/api/analytics/correlation").param("measure", "beta"))
+                .andExpect(jsonPath("$.message").value("Invalid measure beta, expected correlation or covariance"));
+        mockMvc.perform(get("/api/analytics/correlation").param("window", "1"))
+                .andExpect(jsonPath("$.message").value("Invalid window 1, expected 2 to 10000 daily returns"));
+    }
+}
@@ -0,0 +1,180 @@
+package com.crewmeister.cmcodingchallenge.analytics.service;
+
+import com.crewmeister.cmcodingchallenge.config.CacheConfig;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link CorrelationService}.
+ *
+ * Uses a real {@link RateStore} with random, partly correlated rates on weekdays, and the
+ * correlations cache from {@link CacheConfig}. Matrices are compared with a plain two-pass
+ * computation per pair.
+ */
+public class CorrelationServiceTest {
+    private static final LocalDate FIRST_DATE = LocalDate.of(2010, 1, 4);
+    private static final int CURRENCIES = 40;
+    private static final int DAYS = 6000;
+
+    private final Random random = new Random(11);
+    private double[][] rates;
+    private int[] dates;
+    private RateStore rateStore;
+    private CorrelationService service;
+
+    @BeforeEach
+    void setup() {
+        rateStore = new RateStore();
+        dates = new int[DAYS];
+        rates = new double[CURRENCIES][DAYS];
+        LocalDate date = FIRST_DATE;
+        for (int t = 0; t < DAYS; t++) {
+            dates[t] = (int) date.toEpochDay();
+            date = date.plusDays(date.getDayOfWeek().getValue() == 5 ? 3 : 1);
+        }
+
+        // Every currency follows a common factor to a different degree, plus its own noise
+        double[] levels = new double[CURRENCIES];
+        long[][] scaled = new long[CURRENCIES][DAYS];
+        for (int c = 0; c < CURRENCIES; c++) levels[c] = 0.5 + c;
+        for (int t = 0; t < DAYS; t++) {
+            double common = random.nextGaussian() * 0.004;
+            for (int c = 0; c < CURRENCIES; c++) {
+                levels[c] *= Math.exp(common * c / CURRENCIES + random.nextGaussian() * 0.003);
+                scaled[c][t] = RateSeries.toScaled(BigDecimal.valueOf(levels[c]));
+                rates[c][t] = RateSeries.toDecimal(scaled[c][t]).doubleValue();
+            }
+        }
+        for (int c = 1; c < CURRENCIES; c++) rateStore.merge(code(c), dates, scaled[c], DAYS);
+        // XAA misses one recent date and must be left out of recent windows
+        rateStore.merge(code(0), dates, scaled[0], DAYS - 10);
+        rateStore.merge(code(0), Arrays.copyOfRange(dates, DAYS - 9, DAYS),
+                Arrays.copyOfRange(scaled[0], DAYS - 9, DAYS), 9);
+
+        CacheManager cacheManager = new CacheConfig().cacheManager("11:00", 10, 10, 10, 10);
+        ((SimpleCacheManager) cacheManager).afterPropertiesSet();
+        service = new CorrelationService(rateStore, cacheManager, 2);
+    }
+
+    /**
+     * Ensures that correlations and covariances match a plain computation, and that a
+     * currency without a rate on one of the window dates is left out.
+     */
+    @Test
+    void testMatrixMatchesPlainComputation() {
+        CorrelationMatrix correlation = service.matrix(null, 250, CorrelationMeasure.CORRELATION).orElseThrow();
+        CorrelationMatrix covariance = service.matrix(null, 250, CorrelationMeasure.COVARIANCE).orElseThrow();
+
+        assertEquals(CURRENCIES - 1, correlation.getCurrencies().size());
+        assertEquals(code(1), correlation.getCurrencies().get(0));
+        assertEquals(250, correlation.getReturns());
+        assertEquals(LocalDate.ofEpochDay(dates[DAYS - 251]), correlation.getFirstDate());
+        assertEquals(LocalDate.ofEpochDay(dates[DAYS - 1]), correlation.getLastDate());
+
+        for (int a = 1; a < CURRENCIES; a += 3) {
+            for (int b = 1; b < CURRENCIES; b += 5) {
+                double[] expected = plainStatistics(a, b, DAYS - 1, 250);
+                assertEquals(expected[0], correlation.value(code(a), code(b)), 1e-9);
+                assertEquals(expected[1], covariance.value(code(a), code(b)), 1e-12);
+            }
+        }
+        assertEquals(1.0, correlation.value(code(5), code(5)), 1e-12);
+        assertTrue(correlation.value(code(39), code(38)) > correlation.value(code(2), code(1)));
+
+        CorrelationMatrix older = service.matrix(LocalDate.ofEpochDay(dates[DAYS - 20]), 100,
+                CorrelationMeasure.CORRELATION).orElseThrow();
+        assertEquals(CURRENCIES, older.getCurrencies().size());
+        assertEquals(plainStatistics(0, 7, DAYS - 20, 100)[0], older.value(code(0), code(7)), 1e-9);
+    }
+
+    /**
+     * Ensures that matrices are cached per measure, window and end date, with a date
+     * without rates sharing the entry of the latest earlier date.
+     */
+    @Test
+    void testMatricesAreCachedPerWindowAndEndDate() {
+        LocalDate friday = LocalDate.ofEpochDay(dates[DAYS - 30]);
+        while (friday.getDayOfWeek().getValue() != 5) friday = friday.plusDays(1);
+
+        CorrelationMatrix first = service.matrix(friday, 60, CorrelationMeasure.CORRELATION).orElseThrow();
+
+        assertSame(first, service.matrix(friday.plusDays(1), 60, CorrelationMeasure.CORRELATION).orElseThrow());
+        assertTrue(first != service.matrix(friday, 61, CorrelationMeasure.CORRELATION).orElseThrow());
+        assertTrue(service.matrix(LocalDate.ofEpochDay(dates[1]), 5, CorrelationMeasure.CORRELATION).isEmpty());
+        assertTrue(service.matrix(FIRST_DATE.minusDays(1), 5, CorrelationMeasure.CORRELATION).isEmpty());
+    }
+
+    /**
+     * Benchmarks the uncached computation for growing windows on 1, 2 and 4 threads, and
+     * ensures that every thread count gives the same matrix.
+     */
+    @Test
+    void testKernelScalesWithWindowAndThreads() {
+        int[] threadCounts = { 1, 2, 4 };
+        System.out.printf("### Correlation matrix of %d currencies (best of 5, ms)%n", CURRENCIES);
+        System.out.printf("### %8s %8s %8s %8s%n", "window", "1 thr", "2 thr", "4 thr");
+        for (int window : new int[] { 250, 1000, 5000 }) {
+            double[][] reference = null;
+            double[] millis = new double[threadCounts.length];
+            for (int k = 0; k < threadCounts.length; k++) {
+                ForkJoinPool pool = new ForkJoinPool(threadCounts[k]);
+                long best = Long.MAX_VALUE;
+                double[][] values = null;
+                for (int run = 0; run < 5; run++) {
+                    long start = System.nanoTime();
+                    values = service.compute(dates[DAYS - 1], window, CorrelationMeasure.CORRELATION, pool)
+                            .orElseThrow().getValues();
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                pool.shutdown();
+                millis[k] = best / 1_000_000.0;
+                if (reference == null) reference = values;
+                for (int row = 0; row < reference.length; row++) assertArrayEquals(reference[row], values[row]);
+            }
+            System.out.printf("### %8d %8.2f %8.2f %8.2f%n", window, millis[0], millis[1], millis[2]);
+        }
+    }
+
+    private static String code(int currency) {
+        return "X" + (char) ('A' + currency / 26) + (char) ('A' + currency % 26);
+    }
+
+    /** Correlation and sample covariance of the log returns of two currencies, by definition. */
+    private double[] plainStatistics(int a, int b, int last, int window) {
+        double[] x = new double[window];
+        double[] y = new double[window];
+        double meanX = 0;
+        double meanY = 0;
+        for (int i = 0; i < window; i++) {
+            int t = last - window + 1 + i;
+            x[i] = Math.log(rates[a][t] / rates[a][t - 1]);
+            y[i] = Math.log(rates[b][t] / rates[b][t - 1]);
+            meanX += x[i] / window;
+            meanY += y[i] / window;
+        }
+        double sxy = 0;
+        double sxx = 0;
+        double syy = 0;
+        for (int i = 0; i < window; i++) {
+            sxy += (x[i] - meanX) * (y[i] - meanY);
+            sxx += (x[i] - meanX) * (x[i] - meanX);
+            syy += (y[i] - meanY) * (y[i] - meanY);
+        }
+        return new double[] { sxy / Math.sqrt(sxx * syy), sxy / (window - 1) };
+    }
+}
@@ -0,0 +1,143 @@
+package com.crewmeister.cmcodingchallenge.analytics.service;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link RangeStatsService} and {@link RangeStatsIndex}.
+ *
+ * Uses a real {@link RateStore} with random rates; every window is compared
+ * with statistics computed by a plain scan in BigDecimal.
+ */
+public class RangeStatsServiceTest {
+    private static final LocalDate FIRST_DATE = LocalDate.of(2015, 1, 1);
+
+    private final Random random = new Random(42);
+    private final List<LocalDate> dates = new ArrayList<>();
+    private final List<BigDecimal> values = new ArrayList<>();
+    private RateStore rateStore;
+    private RangeStatsService service;
+
+    @BeforeEach
+    void setup() {
+        rateStore = new RateStore();
+        LocalDate date = FIRST_DATE;
+        for (int i = 0; i < 2500; i++) {
+            addRate(date);
+            date = date.plusDays(1 + random.nextInt(3));
+        }
+        service = new RangeStatsService(rateStore);
+    }
+
+    /**
+     * Ensures that random windows, including empty, single-rate and open-ended ones,
+     * match a plain scan.
+     */
+    @Test
+    void testWindowsMatchScan() {
+        int span = (int) (dates.get(dates.size() - 1).toEpochDay() - FIRST_DATE.toEpochDay());
+        for (int i = 0; i < 2000; i++) {
+            LocalDate from = FIRST_DATE.plusDays(random.nextInt(span + 20) - 10);
+            LocalDate to = from.plusDays(random.nextInt(i % 2 == 0 ? 40 : span));
+            assertStatsMatch(from, to);
+        }
+        assertStatsMatch(null, null);
+        assertStatsMatch(dates.get(7), dates.get(7));
+        assertTrue(service.stats("USD", FIRST_DATE.minusDays(9), FIRST_DATE.minusDays(1)).orElseThrow().isEmpty());
+        assertTrue(service.stats("GBP", null, null).isEmpty());
+    }
+
+    /**
+     * Ensures that appended rates extend the index, and that a rate inserted before
+     * existing ones is taken into account as well.
+     */
+    @Test
+    void testIndexFollowsStoreUpdates() {
+        LocalDate date = dates.get(dates.size() - 1);
+        for (int i = 0; i < 40; i++) {
+            date = date.plusDays(1);
+            addRate(date);
+        }
+        assertStatsMatch(null, null);
+        assertStatsMatch(dates.get(dates.size() - 45), null);
+        assertStatsMatch(dates.get(1000), dates.get(2520));
+
+        LocalDate gap = dates.get(1200).plusDays(1);
+        if (!dates.contains(gap)) {
+            rateStore.put("USD", gap, new BigDecimal("9.5"));
+            dates.add(1201, gap);
+            values.add(1201, new BigDecimal("9.5"));
+        }
+        rateStore.put("USD", FIRST_DATE.minusDays(1), new BigDecimal("0.5"));
+        dates.add(0, FIRST_DATE.minusDays(1));
+        values.add(0, new BigDecimal("0.5"));
+
+        assertEquals(new BigDecimal("9.5"), service.stats("USD", null, null).orElseThrow().getMax());
+        assertStatsMatch(null, null);
+        assertStatsMatch(dates.get(1100), dates.get(1300));
+        assertStatsMatch(FIRST_DATE.minusDays(5), dates.get(300));
+    }
+
+    /**
+     * Ensures that window queries take constant time: however long the window, min and max
+     * read at most two blocks of rates one by one and take the rest from the sparse table.
+     */
+    @Test
+    void testQueryCostDoesNotGrowWithWindowLength() {
+        RangeStatsIndex index = RangeStatsIndex.of(rateStore.series("USD").orElseThrow());
+        int span = (int) (dates.get(dates.size() - 1).toEpochDay() - FIRST_DATE.toEpochDay());
+        for (int days : new int[] { 7, 365, span }) {
+            for (int i = 0; i < 500; i++) {
+                LocalDate to = dates.get(dates.size() - 1 - i);
+                long before = index.ratesScanned();
+                WindowStats stats = index.stats((int) to.minusDays(days - 1).toEpochDay(), (int) to.toEpochDay());
+                long scanned = index.ratesScanned() - before;
+                assertTrue(stats.getCount() > 0);
+                assertTrue(scanned <= 4 * RangeStatsIndex.BLOCK_SIZE,
+                        days + "-day window read " + scanned + " of " + stats.getCount() + " rates one by one");
+            }
+        }
+    }
+
+    private void addRate(LocalDate date) {
+        BigDecimal value = BigDecimal.valueOf(100_000 + random.nextInt(90_000), 5);
+        rateStore.put("USD", date, value);
+        dates.add(date);
+        values.add(value);
+    }
+
+    private void assertStatsMatch(LocalDate from, LocalDate to) {
+        List<BigDecimal> window = new ArrayList<>();
+        for (int i = 0; i < dates.size(); i++) {
+            if ((from == null || !dates.get(i).isBefore(from)) && (to == null || !dates.get(i).isAfter(to))) {
+                window.add(values.get(i));
+            }
+        }
+        WindowStats stats = service.stats("USD", from, to).orElseThrow();
+        assertEquals(window.size(), stats.getCount());
+        if (window.isEmpty()) return;
+
+        BigDecimal sum = window.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal mean = sum.divide(BigDecimal.valueOf(window.size()), 6, RoundingMode.HALF_UP);
+        BigDecimal squares = window.stream().map(v -> v.subtract(sum.divide(BigDecimal.valueOf(window.size()),
+                MathContext.DECIMAL128)).pow(2)).reduce(BigDecimal.ZERO, BigDecimal::add);
+        double stdDev = Math.sqrt(squares.divide(BigDecimal.valueOf(window.size()), MathContext.DECIMAL128).doubleValue());
+
+        assertEquals(0, mean.compareTo(stats.getMean()));
+        assertEquals(0, window.stream().min(BigDecimal::compareTo).orElseThrow().compareTo(stats.getMin()));
+        assertEquals(0, window.stream().max(BigDecimal::compareTo).orElseThrow().compareTo(stats.getMax()));
+        assertEquals(stdDev, stats.getStdDev().doubleValue(), 0.000001);
+    }
+}
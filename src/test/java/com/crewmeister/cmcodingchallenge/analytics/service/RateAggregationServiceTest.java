@@ -0,0 +1,134 @@
+package com.crewmeister.cmcodingchallenge.analytics.service;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link RateAggregationService}.
+ *
+ * Uses a real {@link RateStore} with two years of weekday rates; the aggregated
+ * buckets are compared with buckets built by a plain scan over the same rates.
+ */
+public class RateAggregationServiceTest {
+    private static final LocalDate FIRST_DATE = LocalDate.of(2023, 1, 2);
+    private static final LocalDate LAST_DATE = LocalDate.of(2024, 12, 31);
+
+    private RateStore rateStore;
+    private RateAggregationService service;
+    private final List<LocalDate> dates = new ArrayList<>();
+    private final List<BigDecimal> values = new ArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        rateStore = new RateStore();
+        for (LocalDate date = FIRST_DATE; !date.isAfter(LAST_DATE); date = date.plusDays(1)) {
+            if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) continue;
+            BigDecimal value = new BigDecimal("1.05").add(BigDecimal.valueOf((date.toEpochDay() * 7919) % 1000, 5));
+            rateStore.put("USD", date, value);
+            dates.add(date);
+            values.add(value);
+        }
+        service = new RateAggregationService(rateStore);
+    }
+
+    /**
+     * Ensures that monthly and yearly buckets built from the rollups, including
+     * the partial months at both ends of a range, match a plain scan.
+     */
+    @Test
+    void testMonthAndYearBucketsMatchScan() {
+        LocalDate from = LocalDate.of(2023, 3, 15);
+        LocalDate to = LocalDate.of(2024, 2, 10);
+
+        assertBucketsMatch(expected(from, to, date -> date.withDayOfMonth(1)),
+                service.aggregate("USD", from, to, AggregationInterval.MONTH).orElseThrow());
+        assertBucketsMatch(expected(from, to, date -> date.withDayOfYear(1)),
+                service.aggregate("USD", from, to, AggregationInterval.YEAR).orElseThrow());
+        assertEquals(24, service.aggregate("USD", null, null, AggregationInterval.MONTH).orElseThrow().size());
+    }
+
+    /**
+     * Ensures that daily buckets hold single rates and weekly buckets start on Monday,
+     * also across a year boundary.
+     */
+    @Test
+    void testDayAndWeekBucketsMatchScan() {
+        LocalDate from = LocalDate.of(2023, 12, 20);
+        LocalDate to = LocalDate.of(2024, 1, 17);
+
+        List<RateBucket> days = service.aggregate("USD", from, to, AggregationInterval.DAY).orElseThrow();
+        assertBucketsMatch(expected(from, to, Function.identity()), days);
+        assertTrue(days.stream().allMatch(bucket -> bucket.getCount() == 1));
+
+        List<RateBucket> weeks = service.aggregate("USD", from, to, AggregationInterval.WEEK).orElseThrow();
+        assertBucketsMatch(expected(from, to, date -> date.with(DayOfWeek.MONDAY)), weeks);
+        assertEquals(LocalDate.of(2024, 1, 1), weeks.get(2).getFirstDate());
+    }
+
+    /**
+     * Ensures that rates written after startup update the affected monthly rollup,
+     * and that unknown currencies and empty ranges are told apart.
+     */
+    @Test
+    void testRollupsFollowStoreUpdates() {
+        rateStore.put("USD", LocalDate.of(2024, 6, 15), new BigDecimal("2.5"));
+        rateStore.put("USD", LocalDate.of(2025, 1, 2), new BigDecimal("1.01"));
+
+        List<RateBucket> june = service.aggregate("USD", LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 30),
+                AggregationInterval.MONTH).orElseThrow();
+        assertEquals(1, june.size());
+        assertEquals(new BigDecimal("2.5"), june.get(0).getHigh());
+
+        List<RateBucket> years = service.aggregate("USD", null, null, AggregationInterval.YEAR).orElseThrow();
+        assertEquals(3, years.size());
+        assertEquals(new BigDecimal("1.01"), years.get(2).getClose());
+
+        assertTrue(service.aggregate("GBP", null, null, AggregationInterval.DAY).isEmpty());
+        assertTrue(service.aggregate("USD", LocalDate.of(2022, 1, 1), LocalDate.of(2022, 12, 31),
+                AggregationInterval.MONTH).orElseThrow().isEmpty());
+    }
+
+    /** Buckets of the test rates between two dates, grouped by the given period start. */
+    private List<RateBucket> expected(LocalDate from, LocalDate to, Function<LocalDate, LocalDate> periodStart) {
+        List<RateBucket> buckets = new ArrayList<>();
+        LocalDate currentPeriod = null;
+        for (int i = 0; i < dates.size(); i++) {
+            LocalDate date = dates.get(i);
+            if (date.isBefore(from) || date.isAfter(to)) continue;
+            if (!periodStart.apply(date).equals(currentPeriod)) {
+                currentPeriod = periodStart.apply(date);
+                buckets.add(new RateBucket());
+            }
+            buckets.get(buckets.size() - 1).add((int) date.toEpochDay(),
+                    values.get(i).movePointRight(6).longValueExact());
+        }
+        return buckets;
+    }
+
+    private static void assertBucketsMatch(List<RateBucket> expected, List<RateBucket> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            RateBucket want = expected.get(i);
+            RateBucket got = actual.get(i);
+            assertEquals(want.getFirstDate(), got.getFirstDate());
+            assertEquals(want.getLastDate(), got.getLastDate());
+            assertEquals(want.getCount(), got.getCount());
+            assertEquals(want.getOpen(), got.getOpen());
+            assertEquals(want.getHigh(), got.getHigh());
+            assertEquals(want.getLow(), got.getLow());
+            assertEquals(want.getClose(), got.getClose());
+            assertEquals(want.getMean(), got.getMean());
+        }
+    }
+}
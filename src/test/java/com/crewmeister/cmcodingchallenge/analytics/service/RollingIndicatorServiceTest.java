@@ -0,0 +1,136 @@
+package com.crewmeister.cmcodingchallenge.analytics.service;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link RollingIndicatorService} and {@link RollingIndicators}.
+ *
+ * Uses a real {@link RateStore} with random rates for several currencies; every
+ * indicator is compared with a plain computation over the same rates.
+ */
+public class RollingIndicatorServiceTest {
+    private static final LocalDate FIRST_DATE = LocalDate.of(2020, 1, 1);
+    private static final List<String> CURRENCIES = List.of("USD", "JPY", "GBP", "CHF", "SEK");
+
+    private final Random random = new Random(7);
+    private final Map<String, List<LocalDate>> dates = new HashMap<>();
+    private final Map<String, List<BigDecimal>> values = new HashMap<>();
+    private RateStore rateStore;
+    private RollingIndicatorService service;
+
+    @BeforeEach
+    void setup() {
+        rateStore = new RateStore();
+        service = new RollingIndicatorService(rateStore, 4);
+        for (String currency : CURRENCIES) {
+            dates.put(currency, new ArrayList<>());
+            values.put(currency, new ArrayList<>());
+            for (int i = 0; i < 600; i++) addRate(currency, FIRST_DATE.plusDays(i));
+        }
+    }
+
+    /**
+     * Ensures that indicators are only available after the backfill, and that the
+     * backfilled moving averages, returns and volatilities match a plain computation.
+     */
+    @Test
+    void testBackfillMatchesPlainComputation() {
+        assertTrue(service.indicatorsAsOf("USD", null).isEmpty());
+
+        service.backfill();
+
+        for (String currency : CURRENCIES) {
+            for (int i = 0; i < 600; i += 7) assertIndicatorsMatch(currency, i);
+            assertIndicatorsMatch(currency, 599);
+        }
+        RateIndicators first = service.indicatorsAsOf("USD", FIRST_DATE).orElseThrow();
+        assertNull(first.getDailyReturn());
+        assertNull(first.getSma20());
+        assertNull(first.getVolatility20());
+        assertNull(service.indicatorsAsOf("USD", FIRST_DATE.plusDays(198)).orElseThrow().getSma200());
+        assertTrue(service.indicatorsAsOf("USD", FIRST_DATE.minusDays(1)).isEmpty());
+    }
+
+    /**
+     * Ensures that rates appended after the backfill extend the indicators, that a date
+     * between rates resolves to the earlier rate, and that a rate inserted before
+     * existing ones recomputes the currency.
+     */
+    @Test
+    void testIndicatorsFollowStoreUpdates() {
+        service.backfill();
+
+        for (int i = 0; i < 30; i++) addRate("USD", FIRST_DATE.plusDays(600 + 2 * i));
+        for (int i = 600; i < 630; i++) assertIndicatorsMatch("USD", i);
+        assertEquals(FIRST_DATE.plusDays(600), service.indicatorsAsOf("USD", FIRST_DATE.plusDays(601)).orElseThrow().getDate());
+
+        addRate("USD", FIRST_DATE.plusDays(601));
+        dates.get("USD").sort(null);
+        List<BigDecimal> usd = values.get("USD");
+        usd.add(601, usd.remove(usd.size() - 1));
+        for (int i = 595; i < 631; i++) assertIndicatorsMatch("USD", i);
+        assertIndicatorsMatch("JPY", 599);
+    }
+
+    private void addRate(String currency, LocalDate date) {
+        BigDecimal value = BigDecimal.valueOf(100_000 + random.nextInt(20_000), 5);
+        rateStore.put(currency, date, value);
+        dates.get(currency).add(date);
+        values.get(currency).add(value);
+    }
+
+    private void assertIndicatorsMatch(String currency, int index) {
+        List<BigDecimal> rates = values.get(currency);
+        RateIndicators indicators = service.indicatorsAsOf(currency, dates.get(currency).get(index)).orElseThrow();
+
+        assertEquals(dates.get(currency).get(index), indicators.getDate());
+        assertEquals(0, rates.get(index).compareTo(indicators.getRate()));
+        assertAverage(rates, index, 20, indicators.getSma20());
+        assertAverage(rates, index, 50, indicators.getSma50());
+        assertAverage(rates, index, 200, indicators.getSma200());
+
+        if (index == 0) return;
+        double dailyReturn = rates.get(index).doubleValue() / rates.get(index - 1).doubleValue() - 1;
+        assertEquals(dailyReturn, indicators.getDailyReturn().doubleValue(), 0.00000001);
+
+        if (index < 20) {
+            assertNull(indicators.getVolatility20());
+            return;
+        }
+        double[] logReturns = new double[20];
+        double mean = 0;
+        for (int i = 0; i < 20; i++) {
+            int at = index - 19 + i;
+            logReturns[i] = Math.log(rates.get(at).doubleValue() / rates.get(at - 1).doubleValue());
+            mean += logReturns[i] / 20;
+        }
+        double squares = 0;
+        for (double logReturn : logReturns) squares += (logReturn - mean) * (logReturn - mean);
+        assertEquals(Math.sqrt(squares / 19), indicators.getVolatility20().doubleValue(), 0.00000001);
+    }
+
+    private static void assertAverage(List<BigDecimal> rates, int index, int window, BigDecimal actual) {
+        if (index + 1 < window) {
+            assertNull(actual);
+            return;
+        }
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = index - window + 1; i <= index; i++) sum = sum.add(rates.get(i));
+        assertEquals(0, sum.divide(BigDecimal.valueOf(window), 6, RoundingMode.HALF_UP).compareTo(actual));
+    }
+}
@@ -0,0 +1,84 @@
+package com.crewmeister.cmcodingchallenge.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link CacheConfig} and {@link DailyRefreshExpiry}.
+ *
+ * Simulates a client walking through dates (and sending junk keys) to show that
+ * the caches stay within their size bounds, and checks the daily expiry time.
+ */
+public class CacheConfigTest {
+    private static final long MAX_SIZE = 500;
+
+    /**
+     * Ensures that a date-scanning workload never grows the ratesByDate
+     * cache beyond its maximum size and that evictions are recorded.
+     */
+    @Test
+    void testRatesByDateStaysBoundedUnderDateScan() {
+        CacheManager cacheManager = createCacheManager();
+        org.springframework.cache.Cache ratesByDate = cacheManager.getCache(CacheConfig.RATES_BY_DATE);
+        Cache<Object, Object> nativeCache = ((CaffeineCache) ratesByDate).getNativeCache();
+
+        LocalDate date = LocalDate.of(1999, 1, 1);
+        for (int i = 0; i < 50_000; i++) {
+            ratesByDate.put(date.plusDays(i).toString(), Map.of("rates", new byte[256]));
+            ratesByDate.put("junk-" + i, Map.of());
+        }
+        nativeCache.cleanUp();
+
+        assertTrue(nativeCache.estimatedSize() <= MAX_SIZE,
+                "cache size " + nativeCache.estimatedSize() + " exceeds " + MAX_SIZE);
+        assertTrue(nativeCache.stats().evictionCount() >= 100_000 - MAX_SIZE);
+    }
+
+    /**
+     * Ensures that only the declared caches exist, so no cache name can grow unbounded.
+     */
+    @Test
+    void testUnknownCacheNamesAreNotCreated() {
+        CacheManager cacheManager = createCacheManager();
+
+        assertEquals(5, cacheManager.getCacheNames().size());
+        assertNull(cacheManager.getCache("somethingElse"));
+    }
+
+    /**
+     * Ensures that entries expire at the next refresh time, today or tomorrow.
+     */
+    @Test
+    void testExpiryAlignsWithDailyRefresh() {
+        ZoneId zone = ZoneId.of("Europe/Berlin");
+        ZonedDateTime morning = ZonedDateTime.of(2025, 11, 4, 9, 30, 0, 0, zone);
+        ZonedDateTime afternoon = ZonedDateTime.of(2025, 11, 4, 15, 0, 0, 0, zone);
+
+        DailyRefreshExpiry beforeRefresh = new DailyRefreshExpiry(LocalTime.of(11, 0), Clock.fixed(morning.toInstant(), zone));
+        DailyRefreshExpiry afterRefresh = new DailyRefreshExpiry(LocalTime.of(11, 0), Clock.fixed(afternoon.toInstant(), zone));
+
+        assertEquals(Duration.ofMinutes(90).toNanos(), beforeRefresh.nanosUntilNextRefresh());
+        assertEquals(Duration.ofHours(20).toNanos(), afterRefresh.nanosUntilNextRefresh());
+    }
+
+    private static CacheManager createCacheManager() {
+        CacheManager cacheManager = new CacheConfig().cacheManager("11:00", MAX_SIZE, MAX_SIZE, MAX_SIZE, MAX_SIZE);
+        ((SimpleCacheManager) cacheManager).afterPropertiesSet();
+        return cacheManager;
+    }
+}
@@ -0,0 +1,155 @@
+package com.crewmeister.cmcodingchallenge.config;
+
+import org.apache.coyote.AbstractProtocol;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test for {@link RequestExecutionConfig}.
+ *
+ * Starts an embedded Tomcat with a small worker pool and a servlet with a slow, blocking
+ * endpoint (like a database call or a Bundesbank request) and a fast in-memory one. Bursts of
+ * concurrent requests measure throughput and the tail latency of the fast requests, once per
+ * execution mode. The load run is a benchmark, skipped unless -Dbenchmarks=true is given;
+ * the virtual mode only runs on Java 21 or newer.
+ */
+public class RequestExecutionLoadTest {
+    private static final int POOL_THREADS = 16;
+    private static final int CONCURRENCY = 200;
+    private static final long SLOW_MILLIS = 200;
+
+    /**
+     * Ensures that the virtual mode finds its executor exactly when the runtime has virtual
+     * threads, and otherwise leaves Tomcat's pool in place.
+     */
+    @Test
+    void testVirtualModeNeedsJava21() {
+        boolean supported = Runtime.version().feature() >= 21;
+        assertEquals(supported, RequestExecutionConfig.virtualThreadExecutor().isPresent());
+
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        new RequestExecutionConfig().requestExecutionCustomizer(RequestExecutionConfig.ExecutionMode.VIRTUAL)
+                .customize(factory);
+        assertEquals(supported ? 1 : 0, factory.getTomcatProtocolHandlerCustomizers().size());
+    }
+
+    /**
+     * Compares throughput and fast-request latency of both modes under bursts where half of
+     * the requests block. Virtual threads must keep fast requests from queueing behind slow ones.
+     * Compares wall-clock latencies, so it only runs as a benchmark (-Dbenchmarks=true).
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void testLoadPerExecutionMode() throws Exception {
+        long[] platform = runLoad(RequestExecutionConfig.ExecutionMode.PLATFORM);
+        report("platform", platform);
+
+        if (RequestExecutionConfig.virtualThreadExecutor().isEmpty()) {
+            System.out.printf("### virtual : skipped, needs Java 21 (running %s)%n", Runtime.version());
+            return;
+        }
+        long[] virtual = runLoad(RequestExecutionConfig.ExecutionMode.VIRTUAL);
+        report("virtual", virtual);
+        assertTrue(percentile(virtual, 0.99) < percentile(platform, 0.99),
+                "fast requests should not wait for pool threads on virtual threads");
+    }
+
+    /** Latencies (nanos) of the fast requests of three bursts; the last element is the total elapsed time. */
+    private static long[] runLoad(RequestExecutionConfig.ExecutionMode mode) throws Exception {
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        factory.addConnectorCustomizers(connector -> {
+            AbstractProtocol<?> protocol = (AbstractProtocol<?>) connector.getProtocolHandler();
+            protocol.setMaxThreads(POOL_THREADS);
+            protocol.setMinSpareThreads(POOL_THREADS);
+        });
+        new RequestExecutionConfig().requestExecutionCustomizer(mode).customize(factory);
+        WebServer server = factory.getWebServer(context -> context.addServlet("load", new LoadServlet()).addMapping("/*"));
+        server.start();
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        String base = "http://localhost:" + server.getPort();
+        List<Long> fastLatencies = new ArrayList<>();
+        try {
+            burst(client, base, new ArrayList<>()); // warm-up
+            long start = System.nanoTime();
+            for (int round = 0; round < 3; round++) burst(client, base, fastLatencies);
+            long elapsed = System.nanoTime() - start;
+
+            long[] result = new long[fastLatencies.size() + 1];
+            for (int i = 0; i < fastLatencies.size(); i++) result[i] = fastLatencies.get(i);
+            result[result.length - 1] = elapsed;
+            return result;
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static void burst(HttpClient client, String base, List<Long> fastLatencies) {
+        List<CompletableFuture<Long>> fast = new ArrayList<>();
+        List<CompletableFuture<?>> all = new ArrayList<>();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            boolean slow = i % 2 == 0;
+            long sent = System.nanoTime();
+            CompletableFuture<Long> latency = client.sendAsync(
+                    HttpRequest.newBuilder(URI.create(base + (slow ? "/slow" : "/fast"))).build(),
+                    HttpResponse.BodyHandlers.ofString()
+            ).thenApply(response -> {
+                assertEquals(200, response.statusCode());
+                return System.nanoTime() - sent;
+            });
+            all.add(latency);
+            if (!slow) fast.add(latency);
+        }
+        CompletableFuture.allOf(all.toArray(new CompletableFuture[0])).join();
+        for (CompletableFuture<Long> latency : fast) fastLatencies.add(latency.join());
+    }
+
+    private static void report(String mode, long[] result) {
+        long[] latencies = Arrays.copyOf(result, result.length - 1);
+        double seconds = result[result.length - 1] / 1e9;
+        System.out.printf("### %-8s: %4.0f req/s, fast requests p50 %6.1f ms, p99 %6.1f ms (%d threads max, %d concurrent)%n",
+                mode, 3 * CONCURRENCY / seconds, percentile(latencies, 0.5) / 1e6, percentile(latencies, 0.99) / 1e6,
+                POOL_THREADS, CONCURRENCY);
+    }
+
+    private static long percentile(long[] values, double fraction) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    /** /slow blocks like a database or Bundesbank call, /fast answers from memory. */
+    private static final class LoadServlet extends HttpServlet {
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            if (request.getRequestURI().startsWith("/slow")) {
+                try {
+                    Thread.sleep(SLOW_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            response.setContentType("application/json");
+            response.getWriter().write("{\"currency\":\"USD\",\"rate\":1.1602}");
+        }
+    }
+}
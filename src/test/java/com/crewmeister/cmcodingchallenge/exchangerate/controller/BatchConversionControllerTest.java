@@ -0,0 +1,157 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.controller;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.service.BatchConversionService;
+import com.crewmeister.cmcodingchallenge.exchangerate.service.ConversionPolicy;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit tests for {@link BatchConversionController}.
+ *
+ * Results are streamed asynchronously, so each test waits for the async
+ * result and then checks the written body against a small RateStore.
+ */
+@WebMvcTest(BatchConversionController.class)
+@Import({ BatchConversionService.class, ConversionPolicy.class, RateStore.class })
+public class BatchConversionControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RateStore rateStore;
+
+    @Autowired
+    private BatchConversionService conversionService;
+
+    @BeforeEach
+    void setup() {
+        rateStore.clear();
+        rateStore.put("USD", LocalDate.of(2025, 10, 10), new BigDecimal("1.1602"));
+        rateStore.put("USD", LocalDate.of(2025, 10, 13), new BigDecimal("1.1572"));
+        rateStore.put("JPY", LocalDate.of(2025, 10, 10), new BigDecimal("176.77"));
+    }
+
+    /**
+     * Ensures that a JSON array is answered with a JSON array in request order,
+     * with inline errors for unknown rates and invalid items.
+     */
+    @Test
+    void testConvertJsonArray() throws Exception {
+        String request = "["
+                + "{\"currency\":\"usd\",\"date\":\"2025-10-13\",\"amount\":100},"
+                + "{\"currency\":\"JPY\",\"date\":\"2025-10-10\",\"amount\":\"1000\"},"
+                + "{\"currency\":\"USD\",\"date\":\"2025-10-11\",\"amount\":5},"
+                + "{\"currency\":\"USD\",\"date\":\"10/10/2025\",\"amount\":5},"
+                + "{\"currency\":\"USD\",\"date\":\"2025-10-10\",\"amount\":122.65},"
+                + "42"
+                + "]";
+
+        MvcResult result = mockMvc.perform(post("/api/rates/convert/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/json"))
+                .andExpect(jsonPath("$.length()").value(6))
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].currency").value("USD"))
+                .andExpect(jsonPath("$[0].rate").value(1.1572))
+                .andExpect(jsonPath("$[0].eurAmount").value(86.4155))
+                .andExpect(jsonPath("$[1].eurAmount").value(5.6571))
+                .andExpect(jsonPath("$[2].error").value("No exchange rate found for USD on 2025-10-11"))
+                .andExpect(jsonPath("$[3].error", containsString("Invalid date 10/10/2025")))
+                .andExpect(jsonPath("$[4].eurAmount").value(105.7145))
+                .andExpect(jsonPath("$[5].error", containsString("must be an object")));
+    }
+
+    /**
+     * Ensures that an NDJSON body is answered with one NDJSON line per item.
+     */
+    @Test
+    void testConvertNdjson() throws Exception {
+        String request = "{\"currency\":\"USD\",\"date\":\"2025-10-10\",\"amount\":1}\n"
+                + "{\"currency\":\"CHF\",\"date\":\"2025-10-10\",\"amount\":1}\n";
+
+        MvcResult result = mockMvc.perform(post("/api/rates/convert/batch")
+                        .contentType("application/x-ndjson")
+                        .content(request))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(content().string(
+                        "{\"index\":0,\"currency\":\"USD\",\"date\":\"2025-10-10\",\"amount\":1,\"rate\":1.1602,\"eurAmount\":0.8619}\n"
+                        + "{\"index\":1,\"currency\":\"CHF\",\"date\":\"2025-10-10\",\"amount\":1,"
+                        + "\"error\":\"No exchange rate found for CHF on 2025-10-10\"}\n"));
+    }
+
+    /**
+     * Ensures that a body that is not valid JSON is rejected as a whole.
+     */
+    @Test
+    void testMalformedBatch() throws Exception {
+        mockMvc.perform(post("/api/rates/convert/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"currency\":\"USD\","))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("Invalid conversion batch")));
+    }
+
+    /**
+     * Ensures that a large batch with few distinct rates looks each rate up once,
+     * and reports how long reading, converting and writing took.
+     */
+    @Test
+    void testLargeBatchResolvesEachRateOnce() throws Exception {
+        StringBuilder request = new StringBuilder();
+        int items = 50_000;
+        for (int i = 0; i < items; i++) {
+            String currency = i % 2 == 0 ? "USD" : "JPY";
+            request.append("{\"currency\":\"").append(currency)
+                    .append("\",\"date\":\"2025-10-10\",\"amount\":").append(i % 1000).append(".25}\n");
+        }
+
+        byte[] body = request.toString().getBytes(StandardCharsets.UTF_8);
+        BatchConversionService.Batch batch = null;
+        ByteArrayOutputStream out = null;
+        long bestNanos = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            batch = conversionService.read(new ByteArrayInputStream(body));
+            conversionService.convert(batch);
+            out = new ByteArrayOutputStream();
+            conversionService.write(batch, out, true);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+        System.out.printf("### Converted %d items (%d distinct rates) in %.1f ms%n",
+                batch.size(), batch.getDistinctRates(), bestNanos / 1_000_000.0);
+
+        assertEquals(items, batch.size());
+        assertEquals(2, batch.getDistinctRates());
+        assertEquals(items, out.toString(StandardCharsets.UTF_8).split("\n").length);
+    }
+}
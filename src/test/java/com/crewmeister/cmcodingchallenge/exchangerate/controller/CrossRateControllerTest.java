@@ -0,0 +1,71 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.controller;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.service.ConversionPolicy;
+import com.crewmeister.cmcodingchallenge.exchangerate.service.CrossRateService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit tests for {@link CrossRateController}.
+ *
+ * The cross rate service is mocked; the real {@link ConversionPolicy}
+ * rounds the converted amounts.
+ */
+@WebMvcTest(CrossRateController.class)
+@Import(ConversionPolicy.class)
+public class CrossRateControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CrossRateService crossRateService;
+
+    /**
+     * Ensures that GET /api/rates/convert/cross returns the cross rate
+     * and the converted amount rounded to four decimals.
+     */
+    @Test
+    void testConvertCrossRate_Success() throws Exception {
+        when(crossRateService.crossRate("USD", "JPY", LocalDate.of(2025, 10, 10)))
+                .thenReturn(Optional.of(new BigDecimal("152.3616618")));
+
+        mockMvc.perform(get("/api/rates/convert/cross")
+                        .param("from", "usd")
+                        .param("to", "JPY")
+                        .param("date", "2025-10-10")
+                        .param("amount", "122.65"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.from").value("USD"))
+                .andExpect(jsonPath("$.to").value("JPY"))
+                .andExpect(jsonPath("$.date").value("2025-10-10"))
+                .andExpect(jsonPath("$.rate").value(152.3616618))
+                .andExpect(jsonPath("$.convertedAmount").value(18687.1578));
+    }
+
+    /**
+     * Ensures that a pair without rates on the date returns an explanatory message.
+     */
+    @Test
+    void testConvertCrossRate_NoRateFound() throws Exception {
+        when(crossRateService.crossRate("GBP", "USD", LocalDate.of(2025, 10, 11))).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/rates/convert/cross")
+                        .param("from", "GBP")
+                        .param("to", "USD")
+                        .param("date", "2025-10-11"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("No exchange rate found for GBP/USD on 2025-10-11"));
+    }
+}
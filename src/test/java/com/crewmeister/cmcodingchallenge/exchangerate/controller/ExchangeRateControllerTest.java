@@ -1,9 +1,11 @@
 package com.crewmeister.cmcodingchallenge.exchangerate.controller;
 
-import com.crewmeister.cmcodingchallenge.currency.model.Currency;
-import com.crewmeister.cmcodingchallenge.exchangerate.model.ExchangeRate;
 import com.crewmeister.cmcodingchallenge.exchangerate.repository.ExchangeRateRepository;
-import com.crewmeister.cmcodingchallenge.exchangerate.service.ExchangeRateImporter;
+import com.crewmeister.cmcodingchallenge.exchangerate.repository.ExchangeRateView;
+import com.crewmeister.cmcodingchallenge.exchangerate.service.ConversionPolicy;
+import com.crewmeister.cmcodingchallenge.exchangerate.service.UpdateJob;
+import com.crewmeister.cmcodingchallenge.exchangerate.service.UpdateJobService;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
 
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,18 +13,23 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -35,12 +42,14 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * - Listing all exchange rates
  * - Fetching rates by specific date
  * - Converting an amount to EUR
- * - Triggering manual data update
+ * - Triggering manual data update and querying its status
  *
  * MockMvc simulates HTTP requests without starting the full web server,
- * while repository and service dependencies are mocked.
+ * while repository and service dependencies are mocked. Date and conversion
+ * lookups are served by a real {@link RateStore} filled with test data.
  */
 @WebMvcTest(ExchangeRateController.class)
+@Import({ RateStore.class, ConversionPolicy.class })
 public class ExchangeRateControllerTest {
     @Autowired
     private MockMvc mockMvc;
@@ -49,15 +58,22 @@ public class ExchangeRateControllerTest {
     private ExchangeRateRepository rateRepo;
 
     @MockBean
-    private ExchangeRateImporter importer;
+    private UpdateJobService updateJobService;
 
-    private Currency usd;
-    private ExchangeRate rateUSD;
+    @Autowired
+    private RateStore rateStore;
+
+    private ExchangeRateView rateUSD;
 
     @BeforeEach
     void setup() {
-        usd = new Currency("USD", "United States", LocalDate.now());
-        rateUSD = new ExchangeRate(usd, LocalDate.of(2021, 1, 4), BigDecimal.valueOf(1.2265));
+        rateUSD = new SpelAwareProxyProjectionFactory().createProjection(ExchangeRateView.class, Map.of(
+                "currencyCode", "USD",
+                "rateDate", LocalDate.of(2021, 1, 4),
+                "rateValue", BigDecimal.valueOf(1.2265)));
+
+        rateStore.clear();
+        rateStore.put("USD", LocalDate.of(2021, 1, 4), BigDecimal.valueOf(1.2265));
     }
 
     /**
@@ -66,8 +82,8 @@ public class ExchangeRateControllerTest {
      */
     @Test
     void testGetAllExchangeRates() throws Exception {
-        Page<ExchangeRate> mockPage = new PageImpl<>(List.of(rateUSD), PageRequest.of(0, 1), 1);
-        when(rateRepo.findAllByOrderByRateDateAsc(any())).thenReturn(mockPage);
+        Page<ExchangeRateView> mockPage = new PageImpl<>(List.of(rateUSD), PageRequest.of(0, 1), 1);
+        when(rateRepo.findAllViewsOrderByRateDate(any())).thenReturn(mockPage);
 
         mockMvc.perform(get("/api/rates/all-exchange-rates"))
                 .andExpect(status().isOk())
@@ -76,15 +92,48 @@ public class ExchangeRateControllerTest {
                 .andExpect(jsonPath("$.content[0].value").value(1.2265));
     }
 
+    /**
+     * Ensures that cursor mode returns a first page with a next cursor,
+     * and that following that cursor seeks past the last returned row.
+     */
+    @Test
+    void testGetAllExchangeRatesByCursor() throws Exception {
+        when(rateRepo.findFirstKeysetPage(any())).thenReturn(List.of(rateUSD));
+        when(rateRepo.findKeysetPageAfter(eq(LocalDate.of(2021, 1, 4)), eq("USD"), any())).thenReturn(List.of());
+        String expectedCursor = Base64.getUrlEncoder().withoutPadding().encodeToString("2021-01-04:USD".getBytes());
+
+        mockMvc.perform(get("/api/rates/all-exchange-rates")
+                        .param("cursor", "")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].currency").value("USD"))
+                .andExpect(jsonPath("$.nextCursor").value(expectedCursor));
+
+        mockMvc.perform(get("/api/rates/all-exchange-rates")
+                        .param("cursor", expectedCursor)
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(0))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    /**
+     * Ensures that a malformed cursor is reported instead of failing.
+     */
+    @Test
+    void testGetAllExchangeRatesByCursor_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/api/rates/all-exchange-rates")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Invalid cursor not-a-cursor"));
+    }
+
     /**
      * Ensures that GET /api/rates?date=YYYY-MM-DD returns
      * the exchange rates for the specified date.
      */
     @Test
     void testGetExchangeRatesByDate() throws Exception {
-        when(rateRepo.findAllByRateDate(LocalDate.of(2021, 1, 4)))
-                .thenReturn(List.of(rateUSD));
-
         mockMvc.perform(get("/api/rates")
                         .param("date", "2021-01-04"))
                 .andExpect(status().isOk())
@@ -99,29 +148,74 @@ public class ExchangeRateControllerTest {
      */
     @Test
     void testGetExchangeRatesByDate_NoData() throws Exception {
-        when(rateRepo.findAllByRateDate(any())).thenReturn(List.of());
-
         mockMvc.perform(get("/api/rates")
                         .param("date", "2025-01-01"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.message").value("No exchange rate records found for date 2025-01-01"));
     }
 
+    /**
+     * Ensures that a weekend date with a fallback is answered with the rates of
+     * the chosen date, reported as effectiveDate, and that unknown modes are rejected.
+     */
+    @Test
+    void testGetExchangeRatesByDate_Fallback() throws Exception {
+        rateStore.put("USD", LocalDate.of(2021, 1, 8), BigDecimal.valueOf(1.2250));
+        rateStore.put("USD", LocalDate.of(2021, 1, 11), BigDecimal.valueOf(1.2163));
+
+        mockMvc.perform(get("/api/rates")
+                        .param("date", "2021-01-09")
+                        .param("fallback", "previous"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.date").value("2021-01-09"))
+                .andExpect(jsonPath("$.effectiveDate").value("2021-01-08"))
+                .andExpect(jsonPath("$.rates[0].value").value(1.225));
+
+        mockMvc.perform(get("/api/rates")
+                        .param("date", "2021-01-10")
+                        .param("fallback", "nearest"))
+                .andExpect(jsonPath("$.effectiveDate").value("2021-01-11"));
+
+        mockMvc.perform(get("/api/rates")
+                        .param("date", "2021-01-04"))
+                .andExpect(jsonPath("$.effectiveDate").doesNotExist());
+
+        mockMvc.perform(get("/api/rates")
+                        .param("date", "2021-01-09")
+                        .param("fallback", "sideways"))
+                .andExpect(jsonPath("$.message").value("Invalid fallback sideways, expected previous, next or nearest"));
+    }
+
     /**
      * Ensures that GET /api/rates/convert successfully performs
      * conversion when a valid exchange rate exists.
      */
     @Test
     void testConvertToEuro_Success() throws Exception {
-        when(rateRepo.findByCurrency_CodeAndRateDate(anyString(), any()))
-                .thenReturn(Optional.of(rateUSD));
-
         mockMvc.perform(get("/api/rates/convert")
                         .param("currency", "USD")
                         .param("date", "2021-01-04")
                         .param("amount", "122.65"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.message").exists());
+                .andExpect(jsonPath("$.message").value("On 2021-01-04, 122.65 USD = 100.00 EUR"));
+    }
+
+    /**
+     * Ensures that a conversion on a date without a rate uses the next
+     * rate of that currency when fallback=next is given.
+     */
+    @Test
+    void testConvertToEuro_Fallback() throws Exception {
+        rateStore.put("USD", LocalDate.of(2021, 1, 11), BigDecimal.valueOf(1.2265));
+
+        mockMvc.perform(get("/api/rates/convert")
+                        .param("currency", "usd")
+                        .param("date", "2021-01-09")
+                        .param("amount", "122.65")
+                        .param("fallback", "next"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("On 2021-01-11, 122.65 USD = 100.00 EUR"))
+                .andExpect(jsonPath("$.effectiveDate").value("2021-01-11"));
     }
 
     /**
@@ -130,8 +224,6 @@ public class ExchangeRateControllerTest {
      */
     @Test
     void testConvertToEuro_NoRateFound() throws Exception {
-        when(rateRepo.findByCurrency_CodeAndRateDate(anyString(), any())).thenReturn(Optional.empty());
-
         mockMvc.perform(get("/api/rates/convert")
                         .param("currency", "GBP")
                         .param("date", "2021-01-04")
@@ -141,15 +233,62 @@ public class ExchangeRateControllerTest {
     }
 
     /**
-     * Ensures that POST /api/rates/update triggers the importer
-     * and returns the expected confirmation message.
+     * Ensures that POST /api/rates/update submits an update job
+     * and answers 202 with the job id instead of waiting for the update.
      */
     @Test
     void testUpdateRates() throws Exception {
-        Mockito.doNothing().when(importer).updateFromBundesbankApi();
+        UpdateJob job = mockJob("job-1", UpdateJob.State.QUEUED);
+        when(updateJobService.submit(false)).thenReturn(job);
 
         mockMvc.perform(post("/api/rates/update"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/rates/update/job-1"))
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.state").value("QUEUED"));
+
+        Mockito.verify(updateJobService).submit(false);
+    }
+
+    /**
+     * Ensures that GET /api/rates/update/{jobId} reports the progress and
+     * per-request details of a job, and a message for unknown ids.
+     */
+    @Test
+    void testGetUpdateStatus() throws Exception {
+        UpdateJob job = mockJob("job-2", UpdateJob.State.RUNNING);
+        UpdateJob.RequestRecord request = Mockito.mock(UpdateJob.RequestRecord.class);
+        when(request.getCurrencies()).thenReturn("USD+JPY");
+        when(request.getStartPeriod()).thenReturn(LocalDate.of(2025, 11, 4));
+        when(request.getStatusCode()).thenReturn(200);
+        when(request.getBytes()).thenReturn(2048);
+        when(request.getElapsedMillis()).thenReturn(150L);
+        when(request.getCurrenciesUpdated()).thenReturn(2);
+        when(job.getRequestsPlanned()).thenReturn(3);
+        when(job.getRequests()).thenReturn(List.of(request));
+        when(updateJobService.findJob("job-2")).thenReturn(Optional.of(job));
+
+        mockMvc.perform(get("/api/rates/update/job-2"))
                 .andExpect(status().isOk())
-                .andExpect(content().string("Bundesbank update triggered."));
+                .andExpect(jsonPath("$.state").value("RUNNING"))
+                .andExpect(jsonPath("$.requestsPlanned").value(3))
+                .andExpect(jsonPath("$.requestsCompleted").value(1))
+                .andExpect(jsonPath("$.currenciesUpdated").value(2))
+                .andExpect(jsonPath("$.bytesFetched").value(2048))
+                .andExpect(jsonPath("$.requests[0].currencies").value("USD+JPY"))
+                .andExpect(jsonPath("$.requests[0].startPeriod").value("2025-11-04"))
+                .andExpect(jsonPath("$.requests[0].elapsedMillis").value(150));
+
+        mockMvc.perform(get("/api/rates/update/unknown"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("No update job found with id unknown"));
+    }
+
+    private static UpdateJob mockJob(String id, UpdateJob.State state) {
+        UpdateJob job = Mockito.mock(UpdateJob.class);
+        when(job.getId()).thenReturn(id);
+        when(job.getState()).thenReturn(state);
+        when(job.getSubmittedAt()).thenReturn(Instant.parse("2025-11-04T10:00:00Z"));
+        return job;
     }
 }
@@ -0,0 +1,100 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.controller;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.service.ExchangeRateExportService;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Unit tests for {@link ExchangeRateExportController}.
+ *
+ * The export is streamed asynchronously, so each test waits for the
+ * async result and then checks the written body against a small RateStore.
+ */
+@WebMvcTest(ExchangeRateExportController.class)
+@Import({ ExchangeRateExportService.class, RateStore.class })
+public class ExchangeRateExportControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RateStore rateStore;
+
+    @BeforeEach
+    void setup() {
+        rateStore.clear();
+        rateStore.put("USD", LocalDate.of(2021, 1, 4), new BigDecimal("1.2296"));
+        rateStore.put("USD", LocalDate.of(2021, 1, 5), new BigDecimal("1.2271"));
+        rateStore.put("JPY", LocalDate.of(2021, 1, 4), new BigDecimal("126.62"));
+    }
+
+    /**
+     * Ensures that the default export writes one NDJSON line per rate.
+     */
+    @Test
+    void testExportNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/rates/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(content().string(
+                        "{\"currency\":\"JPY\",\"date\":\"2021-01-04\",\"value\":126.62}\n"
+                        + "{\"currency\":\"USD\",\"date\":\"2021-01-04\",\"value\":1.2296}\n"
+                        + "{\"currency\":\"USD\",\"date\":\"2021-01-05\",\"value\":1.2271}\n"));
+    }
+
+    /**
+     * Ensures that currency and date filters apply and that gzip output decompresses to CSV.
+     */
+    @Test
+    void testExportFilteredGzipCsv() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/rates/export")
+                        .param("format", "csv")
+                        .param("currency", "usd")
+                        .param("from", "2021-01-05")
+                        .param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals("currency,date,value\nUSD,2021-01-05,1.2271\n", csv);
+    }
+
+    /**
+     * Ensures that an unknown format is rejected with a message instead of falling back to NDJSON.
+     */
+    @Test
+    void testExportInvalidFormat() throws Exception {
+        mockMvc.perform(get("/api/rates/export").param("format", "xlsx"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Invalid format xlsx, expected ndjson or csv"));
+    }
+}
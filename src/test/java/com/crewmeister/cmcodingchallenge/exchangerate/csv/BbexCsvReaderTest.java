@@ -0,0 +1,113 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.csv;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link BbexCsvReader}.
+ *
+ * Covers header extraction, both supported date formats, skipped lines,
+ * and a throughput run over all CSV files bundled under resources/data.
+ */
+public class BbexCsvReaderTest {
+    private static final String SAMPLE = "\uFEFF\"\",BBEX3.D.USD.EUR.BB.AC.000,BBEX3.D.USD.EUR.BB.AC.000_FLAGS\n"
+            + "\"\",Euro foreign exchange reference rate of the ECB / EUR 1 = USD ... / United States,\n"
+            + "Comment (in english),\"irrevocable euro conversion rate: EUR 1 = XXX 1.0\",\n"
+            + "Decimals,4,\n"
+            + "last update,2025-11-03 15:57:31,\n"
+            + "1999-01-02,.,No value available\r\n"
+            + "1999-01-04,1.1789,\r\n"
+            + "1/5/1999,1.1790\n"
+            + "2021-02-30,1.2000,\n"
+            + "2021-01-04,abc,\n"
+            + "2021-01-05, 1.2296 ,\n";
+
+    /**
+     * Ensures that the header yields code and country, and that only
+     * valid data lines in ISO or M/d/yyyy format are reported.
+     */
+    @Test
+    void testReadsHeaderAndRates() {
+        List<String> headers = new ArrayList<>();
+        List<String> rows = new ArrayList<>();
+
+        long count = BbexCsvReader.read(ByteBuffer.wrap(SAMPLE.getBytes(StandardCharsets.UTF_8)), new RateRowHandler() {
+            @Override
+            public void onHeader(String currencyCode, String currencyName) {
+                headers.add(currencyCode + "/" + currencyName);
+            }
+
+            @Override
+            public void onRate(int epochDay, long unscaledValue, int scale) {
+                rows.add(LocalDate.ofEpochDay(epochDay) + "=" + BigDecimal.valueOf(unscaledValue, scale));
+            }
+        });
+
+        assertEquals(List.of("USD/United States"), headers);
+        assertEquals(List.of("1999-01-04=1.1789", "1999-01-05=1.1790", "2021-01-05=1.2296"), rows);
+        assertEquals(3, count);
+    }
+
+    /**
+     * Ensures that the arithmetic epoch-day conversion agrees with java.time.
+     */
+    @Test
+    void testEpochDayMatchesLocalDate() {
+        for (LocalDate d = LocalDate.of(1899, 12, 25); d.isBefore(LocalDate.of(2101, 1, 5)); d = d.plusDays(1)) {
+            assertEquals(d.toEpochDay(), BbexCsvReader.toEpochDay(d.getYear(), d.getMonthValue(), d.getDayOfMonth()));
+        }
+    }
+
+    /**
+     * Parses all bundled CSV files repeatedly and reports the throughput.
+     * The files are read into memory first so that only parsing is measured.
+     */
+    @Test
+    void testThroughputOnBundledFiles() throws Exception {
+        Resource[] files = new PathMatchingResourcePatternResolver().getResources("classpath:data/*.csv");
+        List<ByteBuffer> contents = new ArrayList<>();
+        long bytes = 0;
+        for (Resource file : files) {
+            try (InputStream in = file.getInputStream()) {
+                byte[] content = in.readAllBytes();
+                contents.add(ByteBuffer.wrap(content));
+                bytes += content.length;
+            }
+        }
+
+        long[] checksum = new long[1];
+        RateRowHandler handler = (epochDay, unscaledValue, scale) -> checksum[0] += epochDay;
+
+        long rows = 0;
+        for (int warmup = 0; warmup < 3; warmup++) {
+            rows = 0;
+            for (ByteBuffer content : contents) rows += BbexCsvReader.read(content, handler);
+        }
+
+        int iterations = 5;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (ByteBuffer content : contents) BbexCsvReader.read(content, handler);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("### Parsed %d files, %d rows per pass: %.0f rows/sec, %.1f MB/sec%n",
+                contents.size(), rows, rows * iterations / seconds, bytes * iterations / seconds / (1024 * 1024));
+
+        assertEquals(42, contents.size());
+        assertEquals(234_934, rows);
+        assertTrue(checksum[0] != 0);
+    }
+}
@@ -0,0 +1,173 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.repository;
+
+import com.crewmeister.cmcodingchallenge.currency.model.Currency;
+import com.crewmeister.cmcodingchallenge.currency.repository.CurrencyRepository;
+import com.crewmeister.cmcodingchallenge.exchangerate.model.ExchangeRate;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for the read queries of {@link ExchangeRateRepository}.
+ *
+ * Loads a few years of rates for a set of currencies into H2 and compares, per page,
+ * the number of SQL statements and the latency of loading full entities with their
+ * currency (as the former eager mapping did) against the {@link ExchangeRateView}
+ * projections used by the API. Each page runs in a fresh persistence context, as it
+ * would for a separate HTTP request.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(ExchangeRateBulkWriter.class)
+public class ExchangeRateRepositoryTest {
+    private static final int CURRENCIES = 30;
+    private static final int DAYS = 1000;
+    private static final int PAGE_SIZE = 500;
+    private static final int PAGES = 20;
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @Autowired
+    private ExchangeRateBulkWriter bulkWriter;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        List<ExchangeRate> rates = new ArrayList<>(CURRENCIES * DAYS);
+        LocalDate first = LocalDate.of(2015, 1, 1);
+        for (int c = 0; c < CURRENCIES; c++) {
+            Currency currency = currencyRepository.save(
+                    new Currency("C" + (char) ('A' + c / 26) + (char) ('A' + c % 26), "Country " + c, first));
+            for (int d = 0; d < DAYS; d++) {
+                rates.add(new ExchangeRate(currency, first.plusDays(d), BigDecimal.valueOf(1_000_000 + c * 1000 + d, 6)));
+            }
+        }
+        currencyRepository.flush();
+        bulkWriter.insertAll(rates, 1000);
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Ensures that an offset page of projections costs exactly one select and one count
+     * and materializes no entities, while loading entities together with their currency
+     * issues additional selects.
+     */
+    @Test
+    void testProjectionPagesAvoidPerRowCurrencyQueries() {
+        // Warm up both paths so that query plans and JIT do not skew the first measurement
+        readEntityPages(2);
+        readViewPages(2);
+
+        statistics.clear();
+        long start = System.nanoTime();
+        long entityChecksum = readEntityPages(PAGES);
+        long entityNanos = System.nanoTime() - start;
+        long entityStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        start = System.nanoTime();
+        long viewChecksum = readViewPages(PAGES);
+        long viewNanos = System.nanoTime() - start;
+        long viewStatements = statistics.getPrepareStatementCount();
+        long viewEntities = statistics.getEntityLoadCount();
+
+        System.out.printf("### %d pages of %d rows: entities %d statements in %.1f ms, projections %d statements in %.1f ms%n",
+                PAGES, PAGE_SIZE, entityStatements, entityNanos / 1e6, viewStatements, viewNanos / 1e6);
+
+        assertEquals(entityChecksum, viewChecksum);
+        assertEquals(2L * PAGES, viewStatements);
+        assertEquals(0, viewEntities);
+        assertTrue(entityStatements > viewStatements,
+                "entity path used " + entityStatements + " statements, projection path " + viewStatements);
+    }
+
+    /**
+     * Ensures that walking the keyset pages issues a single statement per page,
+     * and reports its latency against OFFSET pages at the same depth.
+     */
+    @Test
+    void testKeysetPagesUseOneStatementPerPage() {
+        int firstPage = CURRENCIES * DAYS / PAGE_SIZE - PAGES;
+
+        statistics.clear();
+        long start = System.nanoTime();
+        List<ExchangeRateView> lastOffsetPage = null;
+        for (int page = firstPage; page < firstPage + PAGES; page++) {
+            lastOffsetPage = exchangeRateRepository.findAllViewsOrderByRateDate(PageRequest.of(page, PAGE_SIZE)).getContent();
+            entityManager.clear();
+        }
+        long offsetNanos = System.nanoTime() - start;
+
+        ExchangeRateView seek = exchangeRateRepository
+                .findAllViewsOrderByRateDate(PageRequest.of(firstPage - 1, PAGE_SIZE)).getContent().get(PAGE_SIZE - 1);
+        statistics.clear();
+        start = System.nanoTime();
+        List<ExchangeRateView> keysetPage = null;
+        for (int page = 0; page < PAGES; page++) {
+            keysetPage = exchangeRateRepository.findKeysetPageAfter(seek.getRateDate(), seek.getCurrencyCode(),
+                    PageRequest.of(0, PAGE_SIZE));
+            seek = keysetPage.get(keysetPage.size() - 1);
+            entityManager.clear();
+        }
+        long keysetNanos = System.nanoTime() - start;
+        long keysetStatements = statistics.getPrepareStatementCount();
+
+        System.out.printf("### Last %d pages: offset %.1f ms, keyset %.1f ms%n", PAGES, offsetNanos / 1e6, keysetNanos / 1e6);
+
+        assertEquals(PAGES, keysetStatements);
+        assertEquals(lastOffsetPage.get(PAGE_SIZE - 1).getCurrencyCode(), keysetPage.get(PAGE_SIZE - 1).getCurrencyCode());
+        assertEquals(lastOffsetPage.get(PAGE_SIZE - 1).getRateDate(), keysetPage.get(PAGE_SIZE - 1).getRateDate());
+    }
+
+    private long readEntityPages(int pages) {
+        Sort order = Sort.by("rateDate", "currency.code");
+        long checksum = 0;
+        for (int page = 0; page < pages; page++) {
+            Page<ExchangeRate> rates = exchangeRateRepository.findAll(PageRequest.of(page, PAGE_SIZE, order));
+            for (ExchangeRate rate : rates) {
+                Hibernate.initialize(rate.getCurrency());
+                checksum += rate.getCurrency().getCode().hashCode() + rate.getRateDate().toEpochDay();
+            }
+            entityManager.clear();
+        }
+        return checksum;
+    }
+
+    private long readViewPages(int pages) {
+        long checksum = 0;
+        for (int page = 0; page < pages; page++) {
+            Page<ExchangeRateView> rates = exchangeRateRepository.findAllViewsOrderByRateDate(PageRequest.of(page, PAGE_SIZE));
+            for (ExchangeRateView rate : rates) {
+                checksum += rate.getCurrencyCode().hashCode() + rate.getRateDate().toEpochDay();
+            }
+            entityManager.clear();
+        }
+        return checksum;
+    }
+}
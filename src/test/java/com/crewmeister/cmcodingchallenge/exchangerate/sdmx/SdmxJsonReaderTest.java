@@ -0,0 +1,170 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.sdmx;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link SdmxJsonReader}.
+ *
+ * Uses sample responses in the Bundesbank SDMX-JSON layout under resources/sdmx
+ * (data sets before structure, null observations, several series per message) and
+ * compares memory and throughput with reading the same message into a JSON tree.
+ */
+public class SdmxJsonReaderTest {
+    private static final String STRUCTURE_FIRST = "{\"data\":{\"structure\":{\"dimensions\":{"
+            + "\"series\":[{\"id\":\"BBK_STD_FREQ\",\"values\":[{\"id\":\"D\"}]},"
+            + "{\"id\":\"BBK_STD_CURRENCY\",\"values\":[{\"id\":\"USD\",\"name\":\"US dollar\"},{\"id\":\"JPY\"}]}],"
+            + "\"observation\":[{\"id\":\"TIME_PERIOD\",\"values\":[{\"id\":\"2021-01-04\"},{\"id\":\"1/5/2021\"}]}]}},"
+            + "\"dataSets\":[{\"series\":{"
+            + "\"0:1\":{\"observations\":{\"1\":[126.62,0],\"0\":[\"NaN\",1]}},"
+            + "\"0:0\":{\"attributes\":[0],\"observations\":{\"0\":[\"1.2296\",0,{\"x\":[1]}],\"1\":[null]}}}}]}}";
+
+    /**
+     * Ensures that a multi-series message whose data sets precede the structure is
+     * labelled per series key and skips observations without a value.
+     */
+    @Test
+    void testReadsMultiSeriesWithStructureAfterData() throws Exception {
+        List<String> rows = new ArrayList<>();
+        long count;
+        try (InputStream in = new ClassPathResource("sdmx/BBEX3.D.USD+JPY+GBP.delta.json").getInputStream()) {
+            count = SdmxJsonReader.read(in, collector(rows));
+        }
+
+        assertEquals(18, count);
+        assertEquals(21, rows.size());
+        assertEquals("USD US dollar", rows.get(0));
+        assertEquals("USD 2025-10-27=1.1640", rows.get(1));
+        assertEquals("USD 2025-11-03=1.1514", rows.get(6));
+        assertEquals("JPY Japanese yen", rows.get(7));
+        assertEquals("JPY 2025-10-30=178.37", rows.get(11));
+        assertEquals("GBP Pound sterling", rows.get(14));
+        assertEquals("GBP 2025-11-03=0.87650", rows.get(20));
+    }
+
+    /**
+     * Ensures that a structure-first message is emitted directly, with numeric, string
+     * and US-style dates handled and invalid values skipped.
+     */
+    @Test
+    void testReadsStructureFirst() throws Exception {
+        List<String> rows = new ArrayList<>();
+        long count = SdmxJsonReader.read(
+                new ByteArrayInputStream(STRUCTURE_FIRST.getBytes(StandardCharsets.UTF_8)), collector(rows));
+
+        assertEquals(2, count);
+        assertEquals(List.of("JPY JPY", "JPY 2021-01-05=126.62", "USD US dollar", "USD 2021-01-04=1.2296"), rows);
+    }
+
+    /**
+     * Reads a full-history sample both with the streaming reader and into a JSON tree
+     * (as the former org.json code did), and compares allocated bytes and throughput.
+     */
+    @Test
+    void testMemoryAndThroughputAgainstTreeModel() throws Exception {
+        byte[] body;
+        try (InputStream in = new ClassPathResource("sdmx/BBEX3.D.USD.full.json").getInputStream()) {
+            body = in.readAllBytes();
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        long[] checksum = new long[1];
+        SdmxSeriesHandler handler = new SdmxSeriesHandler() {
+            @Override
+            public void onSeries(String currencyCode, String currencyName) {
+            }
+
+            @Override
+            public void onRate(int epochDay, long unscaledValue, int scale) {
+                checksum[0] += epochDay + unscaledValue;
+            }
+        };
+
+        long streamed = 0;
+        long tree = 0;
+        for (int warmup = 0; warmup < 5; warmup++) {
+            streamed = SdmxJsonReader.read(new ByteArrayInputStream(body), handler);
+            tree = readTree(mapper, body);
+        }
+        assertEquals(6873, streamed);
+        assertEquals(streamed, tree);
+
+        int iterations = 20;
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) SdmxJsonReader.read(new ByteArrayInputStream(body), handler);
+        long streamNanos = System.nanoTime() - start;
+        long streamBytes = (allocatedBytes() - allocatedBefore) / iterations;
+
+        allocatedBefore = allocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) readTree(mapper, body);
+        long treeNanos = System.nanoTime() - start;
+        long treeBytes = (allocatedBytes() - allocatedBefore) / iterations;
+
+        System.out.printf("### SDMX-JSON %d KB, %d observations: streaming %.2f ms and %d KB allocated per message, "
+                        + "tree %.2f ms and %d KB%n", body.length / 1024, streamed,
+                streamNanos / 1e6 / iterations, streamBytes / 1024, treeNanos / 1e6 / iterations, treeBytes / 1024);
+
+        assertTrue(checksum[0] != 0);
+        assertTrue(streamBytes * 3 < treeBytes, "streaming allocated " + streamBytes + " bytes, tree " + treeBytes);
+    }
+
+    private static SdmxSeriesHandler collector(List<String> rows) {
+        return new SdmxSeriesHandler() {
+            private String currency;
+
+            @Override
+            public void onSeries(String currencyCode, String currencyName) {
+                currency = currencyCode;
+                rows.add(currencyCode + " " + currencyName);
+            }
+
+            @Override
+            public void onRate(int epochDay, long unscaledValue, int scale) {
+                rows.add(currency + " " + LocalDate.ofEpochDay(epochDay) + "=" + BigDecimal.valueOf(unscaledValue, scale));
+            }
+        };
+    }
+
+    /** The former approach: the body as one String, parsed into a tree, observations looked up per key. */
+    private static long readTree(ObjectMapper mapper, byte[] body) throws IOException {
+        JsonNode data = mapper.readTree(new String(body, StandardCharsets.UTF_8)).get("data");
+        JsonNode times = data.get("structure").get("dimensions").get("observation").get(0).get("values");
+        long count = 0;
+        Iterator<Map.Entry<String, JsonNode>> series = data.get("dataSets").get(0).get("series").fields();
+        while (series.hasNext()) {
+            Iterator<Map.Entry<String, JsonNode>> observations = series.next().getValue().get("observations").fields();
+            while (observations.hasNext()) {
+                Map.Entry<String, JsonNode> observation = observations.next();
+                JsonNode value = observation.getValue().get(0);
+                if (value.isNull()) continue;
+                LocalDate.parse(times.get(Integer.parseInt(observation.getKey())).get("id").asText());
+                new BigDecimal(value.asText());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
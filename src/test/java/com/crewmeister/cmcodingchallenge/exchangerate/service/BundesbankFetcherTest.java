@@ -0,0 +1,245 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link BundesbankFetcher} and {@link TokenBucketRateLimiter}.
+ *
+ * Runs the fetcher against a local stub HTTP server that answers with a short
+ * delay and can be told to fail a currency a number of times before succeeding.
+ */
+public class BundesbankFetcherTest {
+    private static final long RESPONSE_DELAY_MILLIS = 100;
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final Map<String, AtomicInteger> failuresLeft = new ConcurrentHashMap<>();
+    private final Map<String, String> queries = new ConcurrentHashMap<>();
+    private final Map<String, String> retryAfter = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverThreads = Executors.newFixedThreadPool(16);
+        server.setExecutor(serverThreads);
+        server.createContext("/rest/data/BBEX3/", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    /**
+     * Ensures that all currencies are fetched, that no more than the configured
+     * number of requests run at the same time, and that they do overlap.
+     */
+    @Test
+    void testFetchRequestsRunsConcurrentlyWithinLimit() {
+        BundesbankFetcher fetcher = createFetcher(4, 1000, 3);
+        List<String> codes = List.of("USD", "JPY", "GBP", "CHF", "AUD", "CAD", "SEK", "NOK");
+        List<BundesbankFetchResult> results = new ArrayList<>();
+
+        long start = System.nanoTime();
+        Map<String, LocalDate> startPeriods = new LinkedHashMap<>();
+        codes.forEach(code -> startPeriods.put(code, null));
+        fetcher.fetchRequests(fetcher.groupRequests(startPeriods), results::add);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(codes.size(), results.size());
+        for (BundesbankFetchResult result : results) {
+            assertTrue(result.isSuccess(), result.getCurrencyCode() + ": " + result.getError());
+            assertEquals("{\"series\":\"" + result.getCurrencyCode() + "\"}",
+                    new String(result.getBody(), StandardCharsets.UTF_8));
+        }
+        assertEquals(4, maxInFlight.get());
+        assertTrue(elapsedMillis < codes.size() * RESPONSE_DELAY_MILLIS, "took " + elapsedMillis + " ms");
+    }
+
+    /**
+     * Ensures that 503 responses are retried until they succeed, while a 404
+     * fails immediately and a persistent 503 gives up after the last attempt.
+     */
+    @Test
+    void testRetriesTransientErrors() {
+        BundesbankFetcher fetcher = createFetcher(2, 1000, 3);
+        failuresLeft.put("USD", new AtomicInteger(2));
+        failuresLeft.put("JPY", new AtomicInteger(10));
+
+        BundesbankFetchResult usd = fetcher.fetch("USD", null);
+        assertTrue(usd.isSuccess());
+        assertEquals(3, usd.getAttempts());
+
+        BundesbankFetchResult jpy = fetcher.fetch("JPY", null);
+        assertFalse(jpy.isSuccess());
+        assertEquals("HTTP 503", jpy.getError());
+        assertEquals(3, jpy.getAttempts());
+
+        BundesbankFetchResult unknown = fetcher.fetch("XXX", null);
+        assertFalse(unknown.isSuccess());
+        assertEquals("HTTP 404", unknown.getError());
+        assertEquals(1, unknown.getAttempts());
+    }
+
+    /**
+     * Ensures that a 429 whose Retry-After is an HTTP-date falls back to the
+     * normal backoff and is retried, instead of failing the fetch task.
+     */
+    @Test
+    void testRetryAfterHttpDateFallsBackToBackoff() {
+        BundesbankFetcher fetcher = createFetcher(2, 1000, 3);
+        failuresLeft.put("USD", new AtomicInteger(1));
+        retryAfter.put("USD", "Wed, 21 Oct 2026 07:28:00 GMT");
+        List<BundesbankFetchResult> results = new ArrayList<>();
+
+        fetcher.fetchRequests(Map.of("USD", LocalDate.of(2025, 11, 4)), results::add);
+
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).isSuccess(), results.get(0).getError());
+        assertEquals(2, results.get(0).getAttempts());
+    }
+
+    /**
+     * Ensures that a delta fetch asks only for the days from the start period on,
+     * and that "no observations" is reported as such rather than as an error.
+     */
+    @Test
+    void testDeltaFetchSendsStartPeriod() {
+        BundesbankFetcher fetcher = createFetcher(2, 1000, 3);
+
+        BundesbankFetchResult usd = fetcher.fetch("USD", LocalDate.of(2025, 11, 4));
+        assertTrue(usd.isSuccess());
+        assertEquals("startPeriod=2025-11-04", queries.get("USD"));
+
+        BundesbankFetchResult unknown = fetcher.fetch("XXX", LocalDate.of(2025, 11, 4));
+        assertTrue(unknown.isNoData());
+        assertEquals(1, unknown.getAttempts());
+    }
+
+    /**
+     * Ensures that bulk mode sends one OR'ed key per group of close start periods,
+     * starting each group at its earliest start period.
+     */
+    @Test
+    void testBulkModeGroupsCurrencies() {
+        BundesbankFetcher fetcher = createFetcher(2, 3, 1000, 3);
+        Map<String, LocalDate> startPeriods = new LinkedHashMap<>();
+        startPeriods.put("USD", LocalDate.of(2025, 11, 4));
+        startPeriods.put("JPY", LocalDate.of(2025, 11, 4));
+        startPeriods.put("CYP", LocalDate.of(2008, 1, 1));
+        startPeriods.put("GBP", LocalDate.of(2025, 11, 3));
+        startPeriods.put("CHF", LocalDate.of(2025, 11, 4));
+        startPeriods.put("NEW", null);
+        startPeriods.put("SEK", LocalDate.of(2025, 11, 4));
+        List<BundesbankFetchResult> results = new ArrayList<>();
+
+        fetcher.fetchRequests(fetcher.groupRequests(startPeriods), results::add);
+
+        assertEquals(4, results.size());
+        assertNull(queries.get("NEW"));
+        assertEquals("startPeriod=2008-01-01", queries.get("CYP"));
+        assertEquals("startPeriod=2025-11-03", queries.get("GBP+USD+JPY"));
+        assertEquals("startPeriod=2025-11-04", queries.get("CHF+SEK"));
+        for (BundesbankFetchResult result : results) {
+            assertTrue(result.isSuccess());
+        }
+    }
+
+    /**
+     * Ensures that the token bucket allows the burst at once and then
+     * hands out one permit per interval, also to callers queued behind each other.
+     */
+    @Test
+    void testRateLimiterSpacesPermitsAfterBurst() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 2);
+        long now = System.nanoTime();
+
+        assertEquals(0, limiter.reserve(now));
+        assertEquals(0, limiter.reserve(now));
+        assertEquals(100_000_000L, limiter.reserve(now));
+        assertEquals(200_000_000L, limiter.reserve(now));
+        // After one second the debt of two permits is repaid and the bucket refilled to its burst size
+        assertEquals(0, limiter.reserve(now + 1_000_000_000L));
+        assertEquals(0, limiter.reserve(now + 1_000_000_000L));
+        assertEquals(100_000_000L, limiter.reserve(now + 1_000_000_000L));
+    }
+
+    private BundesbankFetcher createFetcher(int concurrency, double requestsPerSecond, int maxAttempts) {
+        return createFetcher(concurrency, 1, requestsPerSecond, maxAttempts);
+    }
+
+    private BundesbankFetcher createFetcher(int concurrency, int groupSize, double requestsPerSecond, int maxAttempts) {
+        String baseUrl = "http://localhost:" + server.getAddress().getPort() + "/rest/";
+        return new BundesbankFetcher(baseUrl, concurrency, groupSize, requestsPerSecond, concurrency, maxAttempts, 10, 5_000);
+    }
+
+    /**
+     * Answers /rest/data/BBEX3/D.{code}.EUR.BB.AC.000 after a short delay; XXX is unknown.
+     * Failures are 503s, or 429s with the currency's Retry-After header if one is set.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            Thread.sleep(RESPONSE_DELAY_MILLIS);
+            // Leave the count before responding: the client may send its next request as soon as it has the response
+            inFlight.decrementAndGet();
+            String path = exchange.getRequestURI().getPath();
+            String code = path.substring(path.indexOf("D.") + 2, path.indexOf(".EUR"));
+            String query = exchange.getRequestURI().getQuery();
+            if (query != null) queries.put(code, query);
+
+            AtomicInteger failures = failuresLeft.get(code);
+            if (code.equals("XXX")) {
+                respond(exchange, 404, "not found");
+            } else if (failures != null && failures.getAndDecrement() > 0) {
+                String after = retryAfter.get(code);
+                if (after != null) exchange.getResponseHeaders().add("Retry-After", after);
+                respond(exchange, after != null ? 429 : 503, "busy");
+            } else {
+                respond(exchange, 200, "{\"series\":\"" + code + "\"}");
+            }
+        } catch (InterruptedException e) {
+            inFlight.decrementAndGet();
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import com.crewmeister.cmcodingchallenge.config.CacheConfig;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link CrossRateService} and {@link ConversionPolicy}.
+ *
+ * Uses a real {@link RateStore} with a few rates, and the crossRates cache
+ * from {@link CacheConfig} to observe memoisation.
+ */
+public class CrossRateServiceTest {
+    private static final LocalDate OLD_DATE = LocalDate.of(2025, 10, 1);
+    private static final LocalDate LATEST_DATE = LocalDate.of(2025, 10, 10);
+
+    private RateStore rateStore;
+    private CacheManager cacheManager;
+    private CrossRateService service;
+
+    @BeforeEach
+    void setup() {
+        rateStore = new RateStore();
+        for (LocalDate date : List.of(OLD_DATE, LATEST_DATE)) {
+            rateStore.put("USD", date, new BigDecimal("1.1602"));
+            rateStore.put("JPY", date, new BigDecimal("176.77"));
+        }
+        rateStore.put("GBP", LATEST_DATE, new BigDecimal("0.86905"));
+
+        cacheManager = new CacheConfig().cacheManager("11:00", 10, 10, 100, 10);
+        ((SimpleCacheManager) cacheManager).afterPropertiesSet();
+        service = new CrossRateService(rateStore, new ConversionPolicy(4, 10, RoundingMode.HALF_UP), cacheManager, 1);
+    }
+
+    /**
+     * Ensures that pairs are triangulated through EUR, including EUR itself
+     * on either side, and that a missing rate yields no cross rate.
+     */
+    @Test
+    void testTriangulatesThroughEuro() {
+        assertEquals(Optional.of(new BigDecimal("152.3616618")), service.crossRate("USD", "JPY", OLD_DATE));
+        assertEquals(Optional.of(new BigDecimal("0.006563330882")), service.crossRate("JPY", "USD", OLD_DATE));
+        assertEquals(Optional.of(new BigDecimal("1.1602")), service.crossRate("EUR", "USD", OLD_DATE));
+        assertEquals(Optional.of(new BigDecimal("0.8619203586")), service.crossRate("USD", "EUR", OLD_DATE));
+        assertEquals(Optional.empty(), service.crossRate("GBP", "USD", OLD_DATE));
+        assertEquals(Optional.empty(), service.crossRate("XXX", "USD", OLD_DATE));
+    }
+
+    /**
+     * Ensures that a pair is computed once per date and then served from the bounded crossRates cache.
+     */
+    @Test
+    void testPairRatesAreMemoised() {
+        Cache<Object, Object> memo = ((CaffeineCache) cacheManager.getCache(CacheConfig.CROSS_RATES)).getNativeCache();
+
+        for (int i = 0; i < 10; i++) service.crossRate("USD", "JPY", OLD_DATE);
+
+        assertEquals(1, memo.estimatedSize());
+        assertEquals(9, memo.stats().hitCount());
+    }
+
+    /**
+     * Ensures that the most recent date is answered from the precomputed matrix,
+     * with the same rates as the memoised path and without touching the cache.
+     */
+    @Test
+    void testHotDateMatrixMatchesMemoisedRates() {
+        BigDecimal computed = service.crossRate("GBP", "JPY", LATEST_DATE).orElseThrow();
+        cacheManager.getCache(CacheConfig.CROSS_RATES).clear();
+
+        service.precomputeHotDates();
+        Cache<Object, Object> memo = ((CaffeineCache) cacheManager.getCache(CacheConfig.CROSS_RATES)).getNativeCache();
+        long requestsBefore = memo.stats().requestCount();
+
+        assertEquals(Optional.of(computed), service.crossRate("GBP", "JPY", LATEST_DATE));
+        assertEquals(Optional.of(BigDecimal.ONE), service.crossRate("GBP", "GBP", LATEST_DATE));
+        assertEquals(Optional.empty(), service.crossRate("CHF", "JPY", LATEST_DATE));
+        assertEquals(requestsBefore, memo.stats().requestCount());
+        assertTrue(service.crossRate("USD", "JPY", OLD_DATE).isPresent());
+    }
+
+    /**
+     * Ensures that the policy rounds cross rates to significant digits and amounts to a fixed scale.
+     */
+    @Test
+    void testConversionPolicyRounding() {
+        ConversionPolicy policy = new ConversionPolicy(2, 4, RoundingMode.HALF_EVEN);
+
+        assertEquals(new BigDecimal("152.4"), policy.crossRate(new BigDecimal("1.16"), new BigDecimal("176.77")));
+        assertEquals(new BigDecimal("1524.00"), policy.applyRate(BigDecimal.TEN, new BigDecimal("152.4")));
+        assertEquals(new BigDecimal("0.12"), policy.toEuro(new BigDecimal("0.25"), new BigDecimal("2")));
+    }
+}
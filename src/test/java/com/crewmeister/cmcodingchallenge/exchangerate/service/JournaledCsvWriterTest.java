@@ -0,0 +1,153 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.csv.BbexCsvReader;
+import com.crewmeister.cmcodingchallenge.exchangerate.csv.RateRowHandler;
+import com.crewmeister.cmcodingchallenge.exchangerate.snapshot.SnapshotSeries;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link JournaledCsvWriter}.
+ *
+ * Works on a temporary data directory: seeding from the bundled CSV files,
+ * in-place header updates, journal replay after a simulated crash, and new files.
+ */
+public class JournaledCsvWriterTest {
+    private static final String USD_FILE = JournaledCsvWriter.fileName("USD");
+
+    @TempDir
+    Path dataDir;
+
+    /**
+     * Ensures that the first append copies the bundled file, adds ISO rows with the file's
+     * decimals, and changes nothing else but the timestamp of the "last update" line.
+     */
+    @Test
+    void testAppendSeedsFileAndUpdatesHeaderInPlace() throws Exception {
+        JournaledCsvWriter writer = new JournaledCsvWriter(dataDir.toString());
+        byte[] bundled;
+        try (InputStream in = new ClassPathResource("data/" + USD_FILE).getInputStream()) {
+            bundled = in.readAllBytes();
+        }
+
+        writer.appendAll(List.of(series("USD", "2025-11-04", 1_151_200, "2025-11-05", 1_160_000)));
+
+        byte[] written = Files.readAllBytes(dataDir.resolve(USD_FILE));
+        String appended = new String(written, bundled.length, written.length - bundled.length, StandardCharsets.US_ASCII);
+        assertEquals("2025-11-04,1.1512,\n2025-11-05,1.1600,\n", appended);
+
+        String bundledText = new String(bundled, StandardCharsets.UTF_8);
+        String writtenText = new String(written, 0, bundled.length, StandardCharsets.UTF_8);
+        int stamp = bundledText.indexOf("last update,") + "last update,".length();
+        assertEquals(bundledText.substring(0, stamp), writtenText.substring(0, stamp));
+        assertEquals(bundledText.substring(stamp + 19), writtenText.substring(stamp + 19));
+        assertTrue(writtenText.substring(stamp, stamp + 19).matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}"));
+
+        assertEquals(LocalDate.parse("2025-11-05"), lastRow(written).get(0));
+        assertFalse(Files.exists(dataDir.resolve(JournaledCsvWriter.JOURNAL_FILE)));
+    }
+
+    /**
+     * Ensures that a journal left by an interrupted batch is replayed: the torn
+     * tail is cut off, the rows are written once and the header is stamped.
+     */
+    @Test
+    void testRecoverReplaysJournalOverTornTail() throws Exception {
+        JournaledCsvWriter writer = new JournaledCsvWriter(dataDir.toString());
+        writer.appendAll(List.of(series("USD", "2025-11-04", 1_151_200)));
+        Path file = dataDir.resolve(USD_FILE);
+        long length = Files.size(file);
+
+        byte[] rows = "2025-11-05,1.1600,\n".getBytes(StandardCharsets.US_ASCII);
+        Files.write(file, "2025-11-05,1.16".getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(dataDir.resolve(JournaledCsvWriter.JOURNAL_FILE)))) {
+            out.writeInt(JournaledCsvWriter.JOURNAL_MAGIC);
+            out.writeUTF("2030-01-02 03:04:05");
+            out.writeInt(1);
+            out.writeUTF(USD_FILE);
+            out.writeLong(length);
+            out.writeInt(rows.length);
+            out.write(rows);
+        }
+
+        new JournaledCsvWriter(dataDir.toString()).recover();
+
+        byte[] recovered = Files.readAllBytes(file);
+        assertEquals(length + rows.length, recovered.length);
+        String text = new String(recovered, StandardCharsets.UTF_8);
+        assertTrue(text.endsWith("2025-11-04,1.1512,\n2025-11-05,1.1600,\n"));
+        assertTrue(text.contains("last update,2030-01-02 03:04:05,"));
+        assertFalse(Files.exists(dataDir.resolve(JournaledCsvWriter.JOURNAL_FILE)));
+    }
+
+    /**
+     * Ensures that a new currency gets a file the CSV reader understands, and that a
+     * variable-width "last update" line is rewritten once without touching the rows.
+     */
+    @Test
+    void testNewFileAndLegacyHeader() throws Exception {
+        JournaledCsvWriter writer = new JournaledCsvWriter(dataDir.toString());
+        writer.appendAll(List.of(series("XAU", "2025-11-04", 3_512_340_000L)));
+
+        byte[] created = Files.readAllBytes(dataDir.resolve(JournaledCsvWriter.fileName("XAU")));
+        List<String> headers = new ArrayList<>();
+        List<LocalDate> dates = new ArrayList<>();
+        BbexCsvReader.read(ByteBuffer.wrap(created), new RateRowHandler() {
+            @Override
+            public void onHeader(String currencyCode, String currencyName) {
+                headers.add(currencyCode + "/" + currencyName);
+            }
+
+            @Override
+            public void onRate(int epochDay, long unscaledValue, int scale) {
+                dates.add(LocalDate.ofEpochDay(epochDay));
+                assertEquals(0, new BigDecimal("3512.3400").compareTo(BigDecimal.valueOf(unscaledValue, scale)));
+            }
+        });
+        assertEquals(List.of("XAU/Gold"), headers);
+        assertEquals(List.of(LocalDate.parse("2025-11-04")), dates);
+
+        Path legacy = dataDir.resolve(JournaledCsvWriter.fileName("ABC"));
+        Files.writeString(legacy, "Euro foreign exchange reference rate of the ECB / EUR 1 = ABC ... / Abc\n"
+                + "last update,2025-11-05\n11/4/2025,2.5\n");
+        writer.appendAll(List.of(series("ABC", "2025-11-05", 2_600_000)));
+
+        String text = Files.readString(legacy);
+        assertTrue(text.matches("(?s).*last update,\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2},\n11/4/2025,2.5\n2025-11-05,2.6000,\n"), text);
+    }
+
+    private static SnapshotSeries series(String code, Object... dateValuePairs) {
+        int count = dateValuePairs.length / 2;
+        int[] days = new int[count];
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            days[i] = (int) LocalDate.parse((String) dateValuePairs[2 * i]).toEpochDay();
+            values[i] = ((Number) dateValuePairs[2 * i + 1]).longValue();
+        }
+        return new SnapshotSeries(code, code.equals("XAU") ? "Gold" : code, days, values, count);
+    }
+
+    private static List<LocalDate> lastRow(byte[] content) {
+        List<LocalDate> last = new ArrayList<>(List.of(LocalDate.MIN));
+        BbexCsvReader.read(ByteBuffer.wrap(content), (RateRowHandler) (epochDay, unscaledValue, scale) ->
+                last.set(0, LocalDate.ofEpochDay(epochDay)));
+        return last;
+    }
+}
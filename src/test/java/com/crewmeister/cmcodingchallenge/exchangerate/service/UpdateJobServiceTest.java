@@ -0,0 +1,138 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link UpdateJobService}.
+ *
+ * The importer is mocked and blocks on a latch, so that the tests control
+ * when a job is running and can trigger further updates meanwhile.
+ */
+public class UpdateJobServiceTest {
+    private ExchangeRateImporter importer;
+    private UpdateJobService service;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setup() {
+        importer = Mockito.mock(ExchangeRateImporter.class);
+        service = new UpdateJobService(importer, Mockito.mock(CrossRateService.class));
+        release = new CountDownLatch(1);
+
+        doAnswer(invocation -> {
+            UpdateProgressListener listener = invocation.getArgument(1);
+            listener.onPlanned(2);
+            listener.onRequestFinished(
+                    BundesbankFetchResult.success("USD+JPY", LocalDate.of(2025, 11, 4), new byte[1024], 1, 5_000_000), 2, null);
+            release.await(10, TimeUnit.SECONDS);
+            listener.onRequestFinished(
+                    BundesbankFetchResult.failed("CYP", LocalDate.of(2008, 1, 1), "HTTP 500", 500, 3, 9_000_000), 0, "HTTP 500");
+            return null;
+        }).when(importer).updateFromBundesbankApi(anyBoolean(), any(UpdateProgressListener.class));
+    }
+
+    @AfterEach
+    void teardown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    /**
+     * Ensures that triggers arriving while a job runs join it, that the job
+     * reports its progress, and that a new trigger afterwards starts a new job.
+     */
+    @Test
+    void testDuplicateTriggersCoalesce() throws Exception {
+        service.startupImportFinished();
+
+        UpdateJob job = service.submit(false);
+        awaitRequests(job, 1);
+        assertEquals(UpdateJob.State.RUNNING, job.getState());
+        assertEquals(2, job.getRequestsPlanned());
+        assertEquals(1024, job.getBytesFetched());
+
+        assertSame(job, service.submit(false));
+        assertSame(job, service.submit(true));
+        assertEquals(2, job.getCoalescedTriggers());
+
+        release.countDown();
+        awaitFinished(job);
+        assertEquals(UpdateJob.State.SUCCEEDED, job.getState());
+        assertEquals(2, job.getRequestsCompleted());
+        assertEquals(1, job.getRequestsFailed());
+        assertEquals(2, job.getCurrenciesUpdated());
+        assertEquals("CYP", job.getRequests().get(1).getCurrencies());
+        assertEquals(9, job.getRequests().get(1).getElapsedMillis());
+        verify(importer, times(1)).updateFromBundesbankApi(false, job);
+
+        UpdateJob next = service.submit(true);
+        assertNotSame(job, next);
+        assertTrue(next.isFullResync());
+        assertSame(next, service.findJob(next.getId()).orElseThrow());
+    }
+
+    /**
+     * Ensures that a job triggered during the startup CSV import stays queued
+     * until the import has finished.
+     */
+    @Test
+    void testJobsWaitForStartupImport() throws Exception {
+        release.countDown();
+        UpdateJob job = service.submit(false);
+
+        Thread.sleep(200);
+        assertEquals(UpdateJob.State.QUEUED, job.getState());
+        verify(importer, times(0)).updateFromBundesbankApi(anyBoolean(), any(UpdateProgressListener.class));
+
+        service.startupImportFinished();
+        awaitFinished(job);
+        assertEquals(UpdateJob.State.SUCCEEDED, job.getState());
+    }
+
+    /**
+     * Ensures that a job whose update dies on an Error is still marked failed,
+     * so that the next trigger starts a new job instead of joining the dead one.
+     */
+    @Test
+    void testJobFinishesWhenUpdateThrowsError() throws Exception {
+        doThrow(new OutOfMemoryError("Java heap space"))
+                .when(importer).updateFromBundesbankApi(anyBoolean(), any(UpdateProgressListener.class));
+        service.startupImportFinished();
+
+        UpdateJob job = service.submit(false);
+        awaitFinished(job);
+        assertEquals(UpdateJob.State.FAILED, job.getState());
+
+        UpdateJob next = service.submit(false);
+        assertNotSame(job, next);
+    }
+
+    private static void awaitRequests(UpdateJob job, int requests) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (job.getRequestsCompleted() < requests && System.nanoTime() < deadline) Thread.sleep(10);
+    }
+
+    private static void awaitFinished(UpdateJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!job.isFinished() && System.nanoTime() < deadline) Thread.sleep(10);
+        assertTrue(job.isFinished(), "job did not finish");
+    }
+}
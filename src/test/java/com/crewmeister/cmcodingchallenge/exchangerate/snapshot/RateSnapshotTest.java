@@ -0,0 +1,171 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.snapshot;
+
+import com.crewmeister.cmcodingchallenge.exchangerate.csv.BbexCsvReader;
+import com.crewmeister.cmcodingchallenge.exchangerate.csv.RateRowHandler;
+import com.crewmeister.cmcodingchallenge.exchangerate.store.RateSeries;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link RateSnapshot}.
+ *
+ * Covers the write/append/read round trip, rejection of damaged files,
+ * and a comparison of snapshot and CSV load times on the bundled CSV files.
+ */
+public class RateSnapshotTest {
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Ensures that written and appended blocks are read back unchanged,
+     * including the fingerprint, gaps of several days and large rates.
+     */
+    @Test
+    void testWriteAppendRoundTrip() throws Exception {
+        Path file = tempDir.resolve("rates.snapshot");
+        SnapshotSeries usd = new SnapshotSeries("USD", "United States",
+                new int[] { 10_000, 10_001, 10_004, 10_500 }, new long[] { 1_178_900, 1_179_000, 1_180_000, 1_227_100 }, 4);
+        SnapshotSeries idr = new SnapshotSeries("IDR", "Indonesia", new int[] { 10_000 }, new long[] { 19_000_000_000L }, 1);
+        SnapshotSeries empty = new SnapshotSeries("XXX", null, new int[0], new long[0], 0);
+
+        RateSnapshot.write(file, 42L, List.of(usd, idr, empty));
+        RateSnapshot.append(file, List.of(new SnapshotSeries("USD", "United States",
+                new int[] { 10_501 }, new long[] { 1_230_000 }, 1)));
+
+        RateSnapshot.Contents contents = RateSnapshot.read(file);
+        assertEquals(42L, contents.getSourceFingerprint());
+        assertEquals(4, contents.getBlocks().size());
+
+        SnapshotSeries first = contents.getBlocks().get(0);
+        assertEquals("USD", first.getCurrencyCode());
+        assertEquals("United States", first.getCurrencyName());
+        assertArrayEquals(usd.getEpochDays(), first.getEpochDays());
+        assertArrayEquals(usd.getScaledValues(), first.getScaledValues());
+        assertEquals(19_000_000_000L, contents.getBlocks().get(1).getScaledValues()[0]);
+        assertEquals(0, contents.getBlocks().get(2).size());
+        assertEquals(10_501, contents.getBlocks().get(3).getEpochDays()[0]);
+    }
+
+    /**
+     * Ensures that a flipped byte, a torn append and a foreign file are all rejected.
+     */
+    @Test
+    void testDamagedSnapshotsAreRejected() throws Exception {
+        Path file = tempDir.resolve("rates.snapshot");
+        RateSnapshot.write(file, 7L, List.of(new SnapshotSeries("USD", "United States",
+                new int[] { 1, 2, 3 }, new long[] { 4, 5, 6 }, 3)));
+        long size = Files.size(file);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(size - 10);
+            int b = raf.read();
+            raf.seek(size - 10);
+            raf.write(b ^ 0x01);
+        }
+        assertThrows(IOException.class, () -> RateSnapshot.read(file));
+
+        RateSnapshot.write(file, 7L, List.of());
+        Files.write(file, new byte[] { 0, 0, 0, 40, 1, 2 }, java.nio.file.StandardOpenOption.APPEND);
+        assertThrows(IOException.class, () -> RateSnapshot.read(file));
+
+        Files.write(file, "not a snapshot at all, just some text".getBytes());
+        assertThrows(IOException.class, () -> RateSnapshot.read(file));
+    }
+
+    /**
+     * Builds a snapshot from all bundled CSV files and compares reading it
+     * with parsing the CSV files, which is what a restart used to do.
+     */
+    @Test
+    void testSnapshotLoadsFasterThanCsv() throws Exception {
+        Resource[] files = new PathMatchingResourcePatternResolver().getResources("classpath:data/*.csv");
+        List<ByteBuffer> csvContents = new ArrayList<>();
+        List<SnapshotSeries> series = new ArrayList<>();
+        long rows = 0;
+
+        for (Resource file : files) {
+            byte[] content;
+            try (InputStream in = file.getInputStream()) {
+                content = in.readAllBytes();
+            }
+            csvContents.add(ByteBuffer.wrap(content));
+
+            SeriesCollector collector = new SeriesCollector();
+            BbexCsvReader.read(ByteBuffer.wrap(content), collector);
+            series.add(collector.toSeries());
+            rows += collector.size;
+        }
+
+        Path file = tempDir.resolve("rates.snapshot");
+        RateSnapshot.write(file, 1L, series);
+
+        long csvNanos = Long.MAX_VALUE;
+        long snapshotNanos = Long.MAX_VALUE;
+        long snapshotRows = 0;
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            for (ByteBuffer content : csvContents) BbexCsvReader.read(content.duplicate(), (epochDay, unscaled, scale) -> { });
+            csvNanos = Math.min(csvNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            snapshotRows = 0;
+            for (SnapshotSeries block : RateSnapshot.read(file).getBlocks()) snapshotRows += block.size();
+            snapshotNanos = Math.min(snapshotNanos, System.nanoTime() - start);
+        }
+
+        long csvBytes = csvContents.stream().mapToLong(ByteBuffer::capacity).sum();
+        System.out.printf("### %d rows: CSV %d KB parsed in %.1f ms, snapshot %d KB read in %.1f ms%n",
+                rows, csvBytes / 1024, csvNanos / 1_000_000.0, Files.size(file) / 1024, snapshotNanos / 1_000_000.0);
+
+        assertEquals(rows, snapshotRows);
+        assertTrue(Files.size(file) < csvBytes / 2);
+    }
+
+    /** Collects one CSV file into sorted, de-duplicated snapshot columns. */
+    private static class SeriesCollector implements RateRowHandler {
+        private String code;
+        private String name;
+        private int[] days = new int[1024];
+        private long[] values = new long[1024];
+        private int size;
+
+        @Override
+        public void onHeader(String currencyCode, String currencyName) {
+            code = currencyCode;
+            name = currencyName;
+        }
+
+        @Override
+        public void onRate(int epochDay, long unscaledValue, int scale) {
+            if (size > 0 && epochDay <= days[size - 1]) return;
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            days[size] = epochDay;
+            values[size++] = RateSeries.toScaled(BigDecimal.valueOf(unscaledValue, scale));
+        }
+
+        SnapshotSeries toSeries() {
+            return new SnapshotSeries(code, name, days, values, size);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.crewmeister.cmcodingchallenge.exchangerate.store;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link RateStore}.
+ *
+ * Verifies that per-currency series and the dense date matrix stay consistent
+ * when rates arrive out of order, repeat, or introduce new currencies.
+ */
+public class RateStoreTest {
+    private static final LocalDate DAY_1 = LocalDate.of(2021, 1, 4);
+    private static final LocalDate DAY_2 = LocalDate.of(2021, 1, 5);
+    private static final LocalDate DAY_3 = LocalDate.of(2021, 1, 6);
+
+    private RateStore store;
+
+    @BeforeEach
+    void setup() {
+        store = new RateStore();
+    }
+
+    /**
+     * Ensures that out-of-order and duplicate rates end up sorted,
+     * with the first known value winning on repeated dates.
+     */
+    @Test
+    void testMergeKeepsSeriesSortedAndIdempotent() {
+        store.put("USD", DAY_3, new BigDecimal("1.2271"));
+        store.put("USD", DAY_1, new BigDecimal("1.2296"));
+        store.put("USD", DAY_1, new BigDecimal("9.9999"));
+        store.put("USD", DAY_2, new BigDecimal("1.2338"));
+
+        RateSeries usd = store.series("USD").orElseThrow();
+        assertEquals(3, usd.size());
+        assertEquals(DAY_1, usd.dateAt(0));
+        assertEquals(DAY_3, usd.dateAt(2));
+        assertEquals(Optional.of(new BigDecimal("1.2296")), store.findRate("USD", DAY_1));
+        assertEquals(Optional.empty(), store.findRate("USD", LocalDate.of(2021, 1, 9)));
+    }
+
+    /**
+     * Ensures that the date slice lists every currency with a rate on
+     * that day, ordered by code, even when currencies arrive late.
+     */
+    @Test
+    void testRatesOnDateAcrossCurrencies() {
+        store.put("USD", DAY_1, new BigDecimal("1.2296"));
+        store.put("JPY", DAY_2, new BigDecimal("126.62"));
+        store.put("AUD", DAY_1, new BigDecimal("1.5928"));
+        store.put("JPY", DAY_1, new BigDecimal("126.25"));
+
+        RatesOnDate day1 = store.ratesOn(DAY_1);
+        assertEquals(3, day1.size());
+        assertEquals("AUD", day1.currencyAt(0));
+        assertEquals("JPY", day1.currencyAt(1));
+        assertEquals("USD", day1.currencyAt(2));
+        assertEquals(new BigDecimal("126.25"), day1.valueAt(1));
+
+        RatesOnDate day2 = store.ratesOn(DAY_2);
+        assertEquals(1, day2.size());
+        assertEquals("JPY", day2.currencyAt(0));
+
+        assertTrue(store.ratesOn(DAY_3).isEmpty());
+        assertTrue(store.ratesOn(LocalDate.of(1998, 12, 31)).isEmpty());
+    }
+
+    /**
+     * Ensures that a bulk merge matches the per-date view of the matrix.
+     */
+    @Test
+    void testBulkMergeMatchesMatrix() {
+        int first = (int) LocalDate.of(1999, 1, 4).toEpochDay();
+        int count = 5_000;
+        int[] days = new int[count];
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            days[i] = first + i;
+            values[i] = 1_000_000L + i;
+        }
+        store.merge("CHF", days, values, count);
+
+        RateSeries chf = store.series("CHF").orElseThrow();
+        for (int i = 0; i < count; i += 97) {
+            RatesOnDate slice = store.ratesOn(chf.dateAt(i));
+            assertEquals(1, slice.size());
+            assertEquals(chf.scaledValueAt(i), slice.scaledValueAt(0));
+        }
+    }
+
+    /**
+     * Ensures that weekend dates fall back to the previous, next or nearest
+     * date with a rate, per currency or across all currencies.
+     */
+    @Test
+    void testResolveDateFallbacks() {
+        LocalDate friday = LocalDate.of(2021, 1, 8);
+        LocalDate saturday = LocalDate.of(2021, 1, 9);
+        LocalDate monday = LocalDate.of(2021, 1, 11);
+        store.put("USD", friday, new BigDecimal("1.2250"));
+        store.put("USD", monday, new BigDecimal("1.2163"));
+        store.put("JPY", DAY_1, new BigDecimal("126.25"));
+
+        assertEquals(Optional.of(friday), store.resolveDate("USD", friday, DateFallback.EXACT));
+        assertEquals(Optional.empty(), store.resolveDate("USD", saturday, DateFallback.EXACT));
+        assertEquals(Optional.of(friday), store.resolveDate("USD", saturday, DateFallback.PREVIOUS));
+        assertEquals(Optional.of(monday), store.resolveDate("USD", saturday, DateFallback.NEXT));
+        assertEquals(Optional.of(friday), store.resolveDate("USD", saturday, DateFallback.NEAREST));
+        assertEquals(Optional.of(monday), store.resolveDate("USD", saturday.plusDays(1), DateFallback.NEAREST));
+
+        assertEquals(Optional.empty(), store.resolveDate("USD", DAY_1, DateFallback.PREVIOUS));
+        assertEquals(Optional.of(DAY_1), store.resolveDate(null, DAY_1.minusDays(3), DateFallback.NEXT));
+        assertEquals(Optional.empty(), store.resolveDate("JPY", saturday, DateFallback.NEXT));
+        assertEquals(Optional.of(DAY_1), store.resolveDate("JPY", saturday, DateFallback.NEAREST));
+        assertEquals(Optional.empty(), store.resolveDate("GBP", saturday, DateFallback.NEAREST));
+    }
+}